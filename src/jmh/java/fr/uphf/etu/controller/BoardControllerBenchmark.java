@@ -0,0 +1,109 @@
+package fr.uphf.etu.controller;
+
+import fr.uphf.etu.engine.BenchmarkPositions;
+import fr.uphf.etu.engine.Move;
+import fr.uphf.etu.engine.MoveGenerator;
+import fr.uphf.etu.engine.Position;
+import fr.uphf.etu.model.Board;
+import fr.uphf.etu.model.Direction;
+import fr.uphf.etu.model.Node;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure l'accessibilité et la construction des chemins de {@link BoardController} sur une position de {@link BenchmarkPositions}.
+ * Le contrôleur est utilisé sans partie ni interface, ces méthodes n'en dépendant pas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardControllerBenchmark {
+    @Param({"0", "4"})
+    private int index;
+
+    private BoardController controller;
+
+    /**
+     * Les pions du joueur qui doit jouer.
+     */
+    private Node[] origins;
+
+    /**
+     * Tous les noeuds du plateau.
+     */
+    private Node[] destinations;
+
+    /**
+     * Les départs, arrivées et directions des prises de la position.
+     */
+    private Node[] captureOrigins;
+
+    private Node[] captureDestinations;
+
+    private Direction[] captureDirections;
+
+    @Setup
+    public void setup() {
+        Position position = BenchmarkPositions.positions()[index];
+
+        this.controller = new BoardController(null);
+        this.controller.load(position);
+
+        Board board = this.controller.getBoard();
+        int side = position.getSideToMove();
+
+        this.origins = new Node[position.count(side)];
+        this.destinations = new Node[Position.SQUARES];
+
+        for (int square = 0, i = 0; square < Position.SQUARES; square++) {
+            Node node = board.node(Position.x(square), Position.y(square));
+            this.destinations[square] = node;
+
+            if (position.player(square) == side) {
+                this.origins[i++] = node;
+            }
+        }
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, MoveGenerator.CAPTURES, moves, 0);
+
+        this.captureOrigins = new Node[count];
+        this.captureDestinations = new Node[count];
+        this.captureDirections = new Direction[count];
+
+        for (int i = 0; i < count; i++) {
+            this.captureOrigins[i] = board.node(Position.x(Move.from(moves[i])), Position.y(Move.from(moves[i])));
+            this.captureDestinations[i] = board.node(Position.x(Move.to(moves[i])), Position.y(Move.to(moves[i])));
+
+            for (Direction direction : Direction.cardinals()) {
+                if (this.controller.reachable(this.captureOrigins[i], this.captureDestinations[i], direction)) {
+                    this.captureDirections[i] = direction;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int reachable() {
+        int count = 0;
+
+        for (Node origin : origins) {
+            for (Node destination : destinations) {
+                if (origin != destination && controller.reachable(origin, destination)) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public void path(Blackhole blackhole) {
+        for (int i = 0; i < captureOrigins.length; i++) {
+            blackhole.consume(controller.path(captureOrigins[i], captureDestinations[i], captureDirections[i]));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package fr.uphf.etu.engine;
+
+/**
+ * Les positions de milieu de partie utilisées par les bancs d'essai, tirées une fois pour toutes par une partie aléatoire reproductible.
+ * Elles sont fixes pour que les résultats restent comparables d'une version à l'autre.
+ */
+public final class BenchmarkPositions {
+    /**
+     * Les positions au format de {@link Position#toNotation()}, chacune ayant au moins une prise possible.
+     */
+    private static final String[] POSITIONS = {
+            "oo1oo1/3o1o/2xoo1/6/4xx/x2oxx 2 3 6", //32 coups, 2 prises
+            "oo2oo/4oo/1o3x/o4x/xx2x1/1xxxxx 2 4 2", //24 coups, 2 prises
+            "oooo1o/o3o1/5o/1x4/x1x2x/xxxxxx 2 4 2", //24 coups, 1 prise
+            "oo3o/o1o1oo/3o1o/3xx1/x3x1/xxoxxx 1 2 3", //24 coups, 1 prise
+            "o1oo1o/ooo1xo/o1x2o/6/1xxo2/xx2xx 1 1 4", //31 coups, 3 prises
+            "oooooo/o1oo1o/4o1/o2xx1/x4x/x2xxx 1 0 4", //26 coups, 1 prise
+            "1oo2o/oo4/o1o1x1/1xx3/x5/xxx1xx 2 5 3", //21 coups, 1 prise
+            "oooooo/oo1o1o/3o2/2xo1x/x1x2x/xx3x 2 0 4", //31 coups, 2 prises
+    };
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * @return les positions de milieu de partie, lues à chaque appel.
+     */
+    public static Position[] positions() {
+        Position[] positions = new Position[POSITIONS.length];
+
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = Position.parse(POSITIONS[i]);
+        }
+
+        return positions;
+    }
+}
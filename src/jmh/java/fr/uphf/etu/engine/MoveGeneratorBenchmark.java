@@ -0,0 +1,123 @@
+package fr.uphf.etu.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la génération des coups, les cartes d'attaque, le jeu d'un coup par copie ou sur place, et le perft sur les positions de {@link BenchmarkPositions}.
+ * Chaque opération porte sur toutes les positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveGeneratorBenchmark {
+    private Position[] positions;
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    private final long[] targets = new long[2];
+
+    @Setup
+    public void setup() {
+        this.positions = BenchmarkPositions.positions();
+    }
+
+    @Benchmark
+    public int generate() {
+        int count = 0;
+
+        for (Position position : positions) {
+            count += MoveGenerator.generate(position, moves);
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public int generateCaptures() {
+        int count = 0;
+
+        for (Position position : positions) {
+            count += MoveGenerator.generate(position, MoveGenerator.CAPTURES, moves, 0);
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public long attackMaps() {
+        long threats = 0;
+
+        for (Position position : positions) {
+            AttackMaps.compute(position, targets);
+            threats ^= targets[Position.P1] ^ targets[Position.P2];
+        }
+
+        return threats;
+    }
+
+    @Benchmark
+    public long trackTargets() {
+        //Référence de attackMaps : un parcours de circuit depuis chaque pion et dans chaque direction
+        long threats = 0;
+
+        for (Position position : positions) {
+            long occupied = position.occupied();
+
+            for (long pawns = occupied; pawns != 0; pawns &= pawns - 1) {
+                int from = Long.numberOfTrailingZeros(pawns);
+
+                for (int direction = 0; direction < 4; direction++) {
+                    int entry = Tracks.entry(from, direction);
+
+                    if (entry != Tracks.NONE) {
+                        threats ^= Tracks.target(occupied, from, entry);
+                    }
+                }
+            }
+        }
+
+        return threats;
+    }
+
+    @Benchmark
+    public void play(Blackhole blackhole) {
+        for (Position position : positions) {
+            int count = MoveGenerator.generate(position, moves);
+
+            for (int i = 0; i < count; i++) {
+                blackhole.consume(position.play(moves[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public long makeUnmake() {
+        long keys = 0;
+
+        for (Position position : positions) {
+            int count = MoveGenerator.generate(position, moves);
+
+            for (int i = 0; i < count; i++) {
+                position.makeMove(moves[i]);
+                keys ^= position.getKey();
+                position.unmakeMove();
+            }
+        }
+
+        return keys;
+    }
+
+    @Benchmark
+    public long perft() {
+        long nodes = 0;
+
+        for (Position position : positions) {
+            nodes += Perft.perft(position, 3);
+        }
+
+        return nodes;
+    }
+}
@@ -0,0 +1,39 @@
+package fr.uphf.etu.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure une recherche à profondeur fixe sur chacune des positions de {@link BenchmarkPositions}, en partant d'une table de transposition vide.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchBenchmark {
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7"})
+    private int index;
+
+    @Param({"5"})
+    private int depth;
+
+    private Position position;
+
+    private Search search;
+
+    @Setup
+    public void setup() {
+        this.position = BenchmarkPositions.positions()[index];
+        this.search = new Search(new TranspositionTable(16));
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        this.search.getTable().clear();
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        return search.search(position, SearchLimits.depth(depth));
+    }
+}
@@ -0,0 +1,46 @@
+package fr.uphf.etu.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la recherche des courbes et des noeuds voisins du plateau.
+ * Chaque opération porte sur tous les noeuds du plateau.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+    private Board board;
+
+    private final Direction[] directions = Direction.values();
+
+    @Setup
+    public void setup() {
+        this.board = new Board();
+    }
+
+    @Benchmark
+    public void curve(Blackhole blackhole) {
+        for (Node[] column : board.nodes()) {
+            for (Node node : column) {
+                blackhole.consume(board.curve(node));
+            }
+        }
+    }
+
+    @Benchmark
+    public void node(Blackhole blackhole) {
+        for (Node[] column : board.nodes()) {
+            for (Node node : column) {
+                for (Direction direction : directions) {
+                    if (direction != Direction.NONE) {
+                        blackhole.consume(board.node(node, direction));
+                    }
+                }
+            }
+        }
+    }
+}
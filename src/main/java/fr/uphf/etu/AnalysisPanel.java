@@ -0,0 +1,243 @@
+package fr.uphf.etu;
+
+import fr.uphf.etu.engine.Mcts;
+import fr.uphf.etu.engine.Move;
+import fr.uphf.etu.engine.Search;
+import fr.uphf.etu.engine.SearchListener;
+import fr.uphf.etu.engine.SearchResult;
+import fr.uphf.etu.model.Player;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Le panneau latéral du mode analyse : les meilleures variations de la position actuelle, avec leur évaluation, la profondeur atteinte,
+ * la vitesse du moteur et le remplissage de sa mémoire.
+ * <p>
+ * Le moteur notifie ses progrès depuis son propre fil d'exécution ; seule la dernière notification est conservée,
+ * et le panneau la lit au plus {@link AnalysisPanel#REFRESH_RATE} fois par seconde depuis le fil de JavaFX, sans surcharger le graphe de scène.
+ */
+public class AnalysisPanel extends VBox {
+    /**
+     * Le nombre de variations affichées.
+     */
+    public static final int LINES = 3;
+
+    /**
+     * La largeur du panneau.
+     */
+    public static final double WIDTH = 320;
+
+    /**
+     * Le nombre maximal de rafraîchissements par seconde.
+     */
+    private static final int REFRESH_RATE = 10;
+
+    /**
+     * Le nombre maximal de coups affichés par variation.
+     */
+    private static final int MAX_MOVES = 10;
+
+    /**
+     * Le texte indiquant la position analysée.
+     */
+    private final Text titleText;
+
+    /**
+     * Le texte résumant la progression du moteur.
+     */
+    private final Text summaryText;
+
+    /**
+     * Les textes des variations.
+     */
+    private final Text[] lineTexts = new Text[LINES];
+
+    /**
+     * La dernière notification du moteur non encore affichée, ou {@code null}.
+     */
+    private final AtomicReference<Update> pending = new AtomicReference<>();
+
+    /**
+     * Affiche la dernière notification à intervalles réguliers.
+     */
+    private final AnimationTimer timer;
+
+    /**
+     * Incrémenté à chaque nouvelle analyse, pour ignorer les notifications d'une analyse précédente qui se termine.
+     */
+    private int session;
+
+    /**
+     * Le moment du dernier rafraîchissement, en nanosecondes.
+     */
+    private long lastRefresh;
+
+    /**
+     * Vrai si les évaluations de l'analyse en cours sont des taux de victoire de {@link Mcts}, et non des évaluations de {@link Search}.
+     */
+    private boolean winRates;
+
+    /**
+     * Constructeur du panneau, masqué tant que l'analyse n'est pas activée.
+     */
+    public AnalysisPanel() {
+        super(10);
+        this.setPadding(new Insets(0, 0, 0, 20));
+        this.setPrefWidth(WIDTH);
+        this.setVisible(false);
+        this.setManaged(false);
+
+        this.titleText = new Text("Analyse");
+        this.titleText.setFont(Font.font("Arial", 18));
+
+        this.summaryText = new Text();
+        this.summaryText.setFont(Font.font("Arial", 12));
+        this.summaryText.setFill(Color.DIMGRAY);
+
+        this.getChildren().addAll(this.titleText, this.summaryText);
+
+        for (int i = 0; i < LINES; i++) {
+            this.lineTexts[i] = new Text();
+            this.lineTexts[i].setFont(Font.font("Monospaced", 12));
+            this.lineTexts[i].setWrappingWidth(WIDTH - 20);
+            this.getChildren().add(this.lineTexts[i]);
+        }
+
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastRefresh >= 1_000_000_000L / REFRESH_RATE) {
+                    lastRefresh = now;
+                    refresh();
+                }
+            }
+        };
+    }
+
+    /**
+     * Commence l'affichage d'une nouvelle analyse : les variations précédentes sont effacées.
+     *
+     * @param side     le joueur qui doit jouer dans la position analysée, du point de vue duquel les évaluations sont données.
+     * @param winRates {@code true} si le moteur est {@link Mcts}, dont les évaluations sont des taux de victoire affichés en pourcentage.
+     * @return l'observateur à transmettre au moteur, dont les notifications sont ignorées dès l'analyse suivante.
+     */
+    public SearchListener start(Player side, boolean winRates) {
+        int current = ++this.session;
+        this.pending.set(null);
+        this.winRates = winRates;
+
+        this.titleText.setText("Analyse pour le joueur " + side.formatDisplay(false));
+        this.summaryText.setText("Recherche\u2026");
+
+        for (Text text : this.lineTexts) {
+            text.setText("");
+        }
+
+        this.timer.start();
+
+        return (lines, hashfull) -> this.pending.set(new Update(current, lines, hashfull));
+    }
+
+    /**
+     * Arrête l'affichage de l'analyse en cours, après avoir affiché sa dernière notification.
+     */
+    public void stop() {
+        this.refresh();
+        this.session++;
+        this.timer.stop();
+    }
+
+    /**
+     * Affiche la dernière notification de l'analyse en cours, s'il y en a une.
+     */
+    private void refresh() {
+        Update update = this.pending.getAndSet(null);
+
+        if (update == null || update.session != this.session || update.lines.isEmpty()) {
+            return;
+        }
+
+        SearchResult best = update.lines.get(0);
+        this.summaryText.setText(String.format("Profondeur %d \u00b7 %d kn/s \u00b7 table %d \u2030 \u00b7 %.1f s",
+                best.getDepth(), best.nps() / 1000, update.hashfull, best.getTime() / 1000.0));
+
+        for (int i = 0; i < LINES; i++) {
+            this.lineTexts[i].setText(i < update.lines.size() ? (i + 1) + ". " + this.format(update.lines.get(i)) : "");
+        }
+    }
+
+    /**
+     * @param line une variation.
+     * @return l'évaluation de la variation suivie de ses premiers coups.
+     */
+    private String format(SearchResult line) {
+        StringJoiner joiner = new StringJoiner(" ");
+        int[] pv = line.getPv();
+
+        for (int i = 0; i < Math.min(pv.length, MAX_MOVES); i++) {
+            joiner.add(Move.toString(pv[i]));
+        }
+
+        if (pv.length > MAX_MOVES) {
+            joiner.add("\u2026");
+        }
+
+        return (this.winRates ? formatWinRate(line.getScore()) : formatScore(line.getScore())) + "  " + joiner;
+    }
+
+    /**
+     * @param score une évaluation de {@link Mcts}, entre <i>-1000</i> et <i>1000</i>.
+     * @return le taux de victoire en pourcentage.
+     */
+    private static String formatWinRate(int score) {
+        return String.format("%.1f %%", (score + 1000) / 20.0);
+    }
+
+    /**
+     * @param score une évaluation de {@link Search}.
+     * @return l'évaluation en points, ou le nombre de demi-coups d'une fin de partie forcée.
+     */
+    private static String formatScore(int score) {
+        if (score >= Search.WIN_BOUND) {
+            return "gain en " + (Search.WIN - score);
+        } else if (score <= -Search.WIN_BOUND) {
+            return "perte en " + (Search.WIN + score);
+        }
+
+        return String.format("%+.2f", score / (double) Search.PAWN);
+    }
+
+    /**
+     * Une notification du moteur.
+     */
+    private static final class Update {
+        /**
+         * L'analyse ayant produit la notification.
+         */
+        private final int session;
+
+        /**
+         * Les variations principales.
+         */
+        private final List<SearchResult> lines;
+
+        /**
+         * Le remplissage de la mémoire du moteur, en pour mille.
+         */
+        private final int hashfull;
+
+        private Update(int session, List<SearchResult> lines, int hashfull) {
+            this.session = session;
+            this.lines = lines;
+            this.hashfull = hashfull;
+        }
+    }
+}
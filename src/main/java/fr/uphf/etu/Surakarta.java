@@ -7,6 +7,7 @@ import fr.uphf.etu.model.Board;
 import fr.uphf.etu.model.Node;
 import fr.uphf.etu.model.Pawn;
 import fr.uphf.etu.model.Player;
+import javafx.animation.AnimationTimer;
 import javafx.animation.FillTransition;
 import javafx.animation.PathTransition;
 import javafx.application.Application;
@@ -16,8 +17,13 @@ import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonBar;
+import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
@@ -75,6 +81,46 @@ public class Surakarta extends Application {
      * Le texte affiché contenant le score du joueur 2 au total.
      */
     private final Text scoreP2TotalText;
+    /**
+     * Le groupe contenant les chemins de prise du pion sélectionné, affichés sous les noeuds.
+     */
+    private final Group routes;
+    /**
+     * Le bouton annulant le dernier coup.
+     */
+    private final Button undoButton;
+    /**
+     * Le bouton rétablissant le dernier coup annulé.
+     */
+    private final Button redoButton;
+    /**
+     * Le bouton demandant à l'IA de conseiller un coup.
+     */
+    private final Button hintButton;
+    /**
+     * Le bouton activant le mode analyse.
+     */
+    private final ToggleButton analysisButton;
+    /**
+     * Le panneau latéral affichant l'analyse de la position.
+     */
+    private final AnalysisPanel analysisPanel;
+    /**
+     * L'indicateur affiché pendant la réflexion de l'IA, rempli selon le temps écoulé de son budget.
+     */
+    private final ProgressIndicator thinkingIndicator;
+    /**
+     * Met à jour l'indicateur de réflexion à chaque image.
+     */
+    private final AnimationTimer thinkingTimer;
+    /**
+     * Le moment auquel la réflexion de l'IA a commencé, en nanosecondes.
+     */
+    private long thinkingStart;
+    /**
+     * Le budget de temps de la réflexion de l'IA en millisecondes, <i>0</i> s'il n'est pas limité.
+     */
+    private long thinkingBudget;
     /**
      * Le contrôleur de la partie actuelle.
      */
@@ -90,6 +136,8 @@ public class Surakarta extends Application {
      */
     public Surakarta() {
         this.group = new Group();
+        this.routes = new Group();
+        this.routes.setMouseTransparent(true);
 
         this.statusText = new Text();
         this.statusText.setFill(Player.NONE.getColor());
@@ -111,6 +159,32 @@ public class Surakarta extends Application {
         this.scoreP2TotalText.setFill(Player.P2.getColor());
         this.scoreP2TotalText.setFont(Font.font("Arial", 12));
 
+        this.undoButton = new Button("Annuler");
+        this.undoButton.setOnAction(e -> this.game.undo());
+
+        this.redoButton = new Button("R\u00e9tablir");
+        this.redoButton.setOnAction(e -> this.game.redo());
+
+        this.hintButton = new Button("Indice");
+        this.hintButton.setOnAction(e -> this.game.hint());
+
+        this.analysisPanel = new AnalysisPanel();
+
+        this.analysisButton = new ToggleButton("Analyse");
+        this.analysisButton.setOnAction(e -> this.showAnalysis(this.analysisButton.isSelected()));
+
+        this.thinkingIndicator = new ProgressIndicator();
+        this.thinkingIndicator.setPrefSize(24, 24);
+        this.thinkingIndicator.setVisible(false);
+
+        this.thinkingTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                double elapsed = (now - thinkingStart) / 1e6;
+                thinkingIndicator.setProgress(thinkingBudget > 0 ? Math.min(1, elapsed / thinkingBudget) : ProgressIndicator.INDETERMINATE_PROGRESS);
+            }
+        };
+
         this.initialize();
     }
 
@@ -123,8 +197,46 @@ public class Surakarta extends Application {
      */
     public void initialize() {
         logger.info("Initialisation d'une partie");
+
+        if (this.game != null) { //La réflexion éventuelle de l'IA de la partie précédente est abandonnée
+            this.game.shutdown();
+            this.stopThinking();
+        }
+
         this.game = new GameController(this);
+        this.rebuild();
+
+        if (this.analysisButton.isSelected()) { //Le mode analyse reste activé d'une partie à l'autre
+            this.game.setAnalysing(true);
+        }
+    }
+
+    public AnalysisPanel getAnalysisPanel() {
+        return analysisPanel;
+    }
+
+    /**
+     * Affiche ou masque le panneau d'analyse en élargissant la fenêtre, et active ou désactive le mode analyse de la partie.
+     *
+     * @param visible {@code true} pour afficher le panneau.
+     */
+    private void showAnalysis(boolean visible) {
+        this.analysisPanel.setVisible(visible);
+        this.analysisPanel.setManaged(visible);
+
+        if (this.stage != null) {
+            this.stage.setWidth(this.stage.getWidth() + (visible ? AnalysisPanel.WIDTH : -AnalysisPanel.WIDTH));
+        }
+
+        this.game.setAnalysing(visible);
+    }
+
+    /**
+     * Reconstruit les éléments graphiques à partir du plateau de la partie actuelle.
+     */
+    public void rebuild() {
         this.group.getChildren().clear();
+        this.routes.getChildren().clear();
 
         this.buildGroup(this.group, this.game);
         this.refreshUI();
@@ -167,6 +279,7 @@ public class Surakarta extends Application {
 
         //Construction des courbes
         groupe.getChildren().addAll(board.curves());
+        groupe.getChildren().add(this.routes);
 
         List<Pawn> pawns = new ArrayList<>();
 
@@ -289,6 +402,51 @@ public class Surakarta extends Application {
 
         this.scoreP1TotalText.setText(String.valueOf(this.totalScores.getOrDefault(Player.P1, 0)));
         this.scoreP2TotalText.setText(String.valueOf(this.totalScores.getOrDefault(Player.P2, 0)));
+
+        this.undoButton.setDisable(!this.game.canUndo());
+        this.redoButton.setDisable(!this.game.canRedo());
+        this.hintButton.setDisable(!this.game.canHint());
+    }
+
+    /**
+     * Affiche les chemins de prise du pion sélectionné, en remplaçant les précédents.
+     *
+     * @param paths les chemins, éventuellement aucun.
+     */
+    public void showRoutes(List<Path> paths) {
+        this.routes.getChildren().clear();
+
+        for (Path path : paths) {
+            path.setStroke(Color.CRIMSON);
+            path.setStrokeWidth(3);
+            path.getStrokeDashArray().setAll(8.0, 6.0);
+            path.setFill(null);
+            this.routes.getChildren().add(path);
+        }
+    }
+
+    /**
+     * Affiche la réflexion de l'IA : le statut l'indique, et l'indicateur se remplit au fil de son budget de temps.
+     *
+     * @param budget le budget de temps de la réflexion en millisecondes, <i>0</i> s'il n'est pas limité.
+     */
+    public void startThinking(long budget) {
+        this.thinkingStart = System.nanoTime();
+        this.thinkingBudget = budget;
+        this.thinkingIndicator.setProgress(budget > 0 ? 0 : ProgressIndicator.INDETERMINATE_PROGRESS);
+        this.thinkingIndicator.setVisible(true);
+        this.thinkingTimer.start();
+
+        Player player = this.game.getCurrentPlayer();
+        this.statusText.setText("Joueur " + player.formatDisplay(this.game.isAI(player)) + " r\u00e9fl\u00e9chit\u2026");
+    }
+
+    /**
+     * Masque l'indicateur de réflexion de l'IA.
+     */
+    public void stopThinking() {
+        this.thinkingTimer.stop();
+        this.thinkingIndicator.setVisible(false);
     }
 
     /**
@@ -304,9 +462,36 @@ public class Surakarta extends Application {
 
         logger.info("Fin de la partie, le joueur {} gagné et a gagné {} points ({} total), le joueur {} a perdu et a gagné {} points ({} total)", Player.P1, this.game.getScore(Player.P1), totalScores.get(Player.P1), Player.P2, this.game.getScore(Player.P2), totalScores.get(Player.P2));
 
+        this.restartPopup("Le joueur " + winner.formatDisplay(this.game.isAI(winner)) + " a gagn\u00e9 et cumule " + this.totalScores.get(winner) + " points !\nLe perdant poss\u00e8de maintenant " + this.totalScores.get(winner.next()) + " points.");
+    }
+
+    /**
+     * Affiche une popup de fin de partie nulle.
+     * Une partie peut être relancée par cette popup.
+     *
+     * @param reason la règle ayant rendu la partie nulle.
+     */
+    public void drawPopup(String reason) {
+        this.totalScores.merge(Player.P1, this.game.getScore(Player.P1), Integer::sum);
+        this.totalScores.merge(Player.P2, this.game.getScore(Player.P2), Integer::sum);
+        this.refreshUI();
+        this.statusText.setText("Partie nulle");
+
+        logger.info("Fin de la partie, nulle par {}, le joueur {} a gagné {} points ({} total), le joueur {} a gagné {} points ({} total)", reason, Player.P1, this.game.getScore(Player.P1), totalScores.get(Player.P1), Player.P2, this.game.getScore(Player.P2), totalScores.get(Player.P2));
+
+        this.restartPopup("Partie nulle par " + reason + " !\nLe joueur " + Player.P1.formatDisplay(this.game.isAI(Player.P1)) + " cumule " + this.totalScores.get(Player.P1)
+                + " points, le joueur " + Player.P2.formatDisplay(this.game.isAI(Player.P2)) + " en cumule " + this.totalScores.get(Player.P2) + ".");
+    }
+
+    /**
+     * Affiche la popup proposant de relancer une partie.
+     *
+     * @param header le texte d'en-tête, décrivant le résultat de la partie.
+     */
+    private void restartPopup(String header) {
         final Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Voulez-vous relancer une partie ?");
         alert.setTitle("Fin de partie");
-        alert.setHeaderText("Le joueur " + winner.formatDisplay(this.game.isAI(winner)) + " a gagn\u00e9 et cumule " + this.totalScores.get(winner) + " points !\nLe perdant poss\u00e8de maintenant " + this.totalScores.get(winner.next()) + " points.");
+        alert.setHeaderText(header);
         alert.initModality(Modality.APPLICATION_MODAL);
         alert.initOwner(this.stage);
 
@@ -384,7 +569,17 @@ public class Surakarta extends Application {
         rightScores.setAlignment(Pos.CENTER_RIGHT);
         borderPane.setRight(rightScores);
 
-        primaryStage.setScene(new Scene(new VBox(borderPane, new StackPane(this.group)), 768, 800));
+        //Historique
+        HBox historyButtons = new HBox(10, this.undoButton, this.redoButton, this.hintButton, this.analysisButton, this.thinkingIndicator);
+        historyButtons.setAlignment(Pos.CENTER);
+        historyButtons.setPadding(new Insets(10, 0, 0, 0));
+        borderPane.setBottom(historyButtons);
+
+        //Plateau, et panneau d'analyse à sa droite
+        StackPane boardPane = new StackPane(this.group);
+        HBox.setHgrow(boardPane, Priority.ALWAYS);
+
+        primaryStage.setScene(new Scene(new VBox(borderPane, new HBox(boardPane, this.analysisPanel)), 768, 800));
         primaryStage.setResizable(false);
         primaryStage.show();
 
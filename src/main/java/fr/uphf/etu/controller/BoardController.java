@@ -2,12 +2,17 @@ package fr.uphf.etu.controller;
 
 import fr.uphf.etu.Maths;
 import fr.uphf.etu.Surakarta;
+import fr.uphf.etu.engine.Move;
+import fr.uphf.etu.engine.MoveGenerator;
+import fr.uphf.etu.engine.Position;
+import fr.uphf.etu.engine.Tracks;
 import fr.uphf.etu.model.*;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,6 +29,16 @@ public class BoardController {
      */
     private final Board board;
 
+    /**
+     * Les cases atteignables depuis chaque case par un coup légal du joueur actuel, calculées une seule fois par tour, ou {@code null} à recalculer.
+     */
+    private long[] destinations;
+
+    /**
+     * Les noeuds actuellement mis en évidence.
+     */
+    private final List<Node> highlighted = new ArrayList<>();
+
     /**
      * Constructeur du contrôleur.
      * Initialise le plateau.
@@ -39,9 +54,116 @@ public class BoardController {
         return board;
     }
 
+    /**
+     * Construit la position sans JavaFX correspondant au plateau, au joueur actuel et aux scores de la partie.
+     *
+     * @return la position actuelle.
+     * @see Board#toPosition(Player, int, int)
+     */
+    public Position position() {
+        return this.board.toPosition(gameController.getCurrentPlayer(), gameController.getScore(Player.P1), gameController.getScore(Player.P2));
+    }
+
+    /**
+     * Place les pions du plateau selon la position passée en paramètre.
+     *
+     * @param position la position à appliquer.
+     * @see Board#load(Position)
+     */
+    public void load(Position position) {
+        this.board.load(position);
+        this.invalidate();
+    }
+
+    /**
+     * Oublie les destinations légales calculées pour le tour, qui seront recalculées au besoin.
+     * À appeler dès que le plateau ou le joueur actuel change.
+     */
+    public void invalidate() {
+        this.destinations = null;
+    }
+
+    /**
+     * Retourne les cases atteignables par un coup légal depuis un noeud, calculées pour toutes les cases avec {@link MoveGenerator} au premier appel du tour.
+     *
+     * @param origin le noeud de départ.
+     * @return l'ensemble des cases d'arrivée, au format de {@link Position#bit(int)}, vide si le noeud ne contient pas un pion du joueur actuel.
+     */
+    public long destinations(Node origin) {
+        if (this.destinations == null) {
+            Position position = this.position();
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generate(position, moves);
+            long[] reachable = new long[Position.SQUARES];
+
+            for (int i = 0; i < count; i++) {
+                reachable[Move.from(moves[i])] |= Position.bit(Move.to(moves[i]));
+            }
+
+            Surakarta.getLogger().trace("Destinations légales calculées : {} coups", count);
+            this.destinations = reachable;
+        }
+
+        return this.destinations[Position.square(origin.getX(), origin.getY())];
+    }
+
+    /**
+     * Met en évidence les destinations légales du pion : les noeuds libres atteignables, les pions adverses à prendre et le chemin de chaque prise.
+     *
+     * @param pawn le pion sélectionné.
+     */
+    public void highlight(Pawn pawn) {
+        this.clearHighlight();
+
+        Node origin = this.board.node(pawn.getX(), pawn.getY());
+        long destinations = this.destinations(origin);
+        List<Path> routes = new ArrayList<>();
+
+        for (int square = 0; square < Position.SQUARES; square++) {
+            if ((destinations & Position.bit(square)) != 0) {
+                Node destination = this.board.node(Position.x(square), Position.y(square));
+                boolean capture = destination.getPlayer() != Player.NONE;
+                destination.setHighlight(capture ? Node.Highlight.CAPTURE : Node.Highlight.DESTINATION);
+                this.highlighted.add(destination);
+
+                Path route = capture ? this.path(origin, destination) : null;
+
+                if (route != null) {
+                    routes.add(route);
+                }
+            }
+        }
+
+        this.gameController.getSurakarta().showRoutes(routes);
+    }
+
+    /**
+     * Met en évidence la destination d'un coup conseillé, en plus des destinations légales de son pion.
+     *
+     * @param move le coup conseillé, au format de {@link Move}.
+     */
+    public void highlightHint(int move) {
+        Node destination = this.board.node(Position.x(Move.to(move)), Position.y(Move.to(move)));
+        destination.setHighlight(Node.Highlight.HINT);
+        this.highlighted.add(destination);
+    }
+
+    /**
+     * Rend leur apparence normale aux noeuds mis en évidence, et efface les chemins de prise.
+     */
+    public void clearHighlight() {
+        for (Node node : this.highlighted) {
+            node.setHighlight(Node.Highlight.NONE);
+        }
+
+        this.highlighted.clear();
+        this.gameController.getSurakarta().showRoutes(Collections.emptyList());
+    }
+
     /**
      * Tente de déplacer un pion vers le noeud de destination.
      * Si le noeud de destination n'est pas atteignable (obstacle, capture sans passage par une courbe, ...), alors le pion joue une animation de secouement.
+     * L'accessibilité est lue dans les destinations légales du tour, sans parcourir les pistes à chaque clic.
      *
      * @param pawn        le pion à déplacer.
      * @param destination le noeud de destination.
@@ -50,9 +172,12 @@ public class BoardController {
     public boolean move(Pawn pawn, Node destination) {
         Node node = this.board.node(pawn.getX(), pawn.getY());
 
-        if (this.reachable(node, destination)) {
+        if ((this.destinations(node) & Position.bit(Position.square(destination.getX(), destination.getY()))) != 0) {
             Surakarta.getLogger().trace("Déplacement de {} vers {}", pawn, destination);
             Path path = this.path(node, destination);
+            this.clearHighlight();
+            this.invalidate(); //Le plateau change pendant l'animation
+            gameController.record(Move.of(Position.square(node.getX(), node.getY()), Position.square(destination.getX(), destination.getY()), destination.getPlayer() != Player.NONE));
             gameController.getSurakarta().animateMove(node, destination, path);
             return true;
         } else {
@@ -116,13 +241,21 @@ public class BoardController {
      * @see BoardController#reachable(Node, Node, Direction)
      */
     public boolean reachable(Node origin, Node destination) {
+        boolean trace = Surakarta.getLogger().isTraceEnabled(); //Appelée pour chaque case lors de la recherche des coups : aucun coût si la trace est désactivée
+
         if (destination.getPlayer() == Player.NONE && (int) Maths.distance(origin, destination) <= 1) {
-            Surakarta.getLogger().trace("Un simple déplacement est possible de {} à {}", origin, destination);
+            if (trace) {
+                Surakarta.getLogger().trace("Un simple déplacement est possible de {} à {}", origin, destination);
+            }
+
             return true;
         } else if (destination.getPlayer() != origin.getPlayer()) {
             for (Direction direction : Direction.cardinals()) {
                 if (reachable(origin, destination, direction)) {
-                    Surakarta.getLogger().trace("Une capture est possible de {} à {} dans la direction {}", origin, destination, direction);
+                    if (trace) {
+                        Surakarta.getLogger().trace("Une capture est possible de {} à {} dans la direction {}", origin, destination, direction);
+                    }
+
                     return true;
                 }
             }
@@ -134,6 +267,7 @@ public class BoardController {
     /**
      * Détermine si le noeud de destination est atteignable à partir du noeud d'origine, en partant de la direction passée en paramètre.
      * Cette fonction retourne {@code true} si une prise est possible, sans obstacle et passant par une boucle.
+     * Le parcours s'effectue sur les circuits précalculés de {@link Tracks}, sans créer d'objet.
      *
      * @param origin      le noeud de départ.
      * @param destination le noeud d'arrivée.
@@ -141,37 +275,32 @@ public class BoardController {
      * @return true si le noeud de destination est atteignable en partant du noeud d'origine dans la direction donnée.
      */
     public boolean reachable(Node origin, Node destination, Direction direction) {
-        Surakarta.getLogger().trace("Tentative de détermination d'accessibilité depuis {} à {} par {}", origin, destination, direction);
-        boolean curvePassed = false;
-        Node currentNode = origin;
+        boolean trace = Surakarta.getLogger().isTraceEnabled();
 
-        if (destination.getPlayer() == Player.NONE) { //Le noeud d'arrivée est libre, aucune prise possible
-            Surakarta.getLogger().trace("Le noeud d'arrivée est vide, pas de prise possible");
-            return false;
+        if (trace) {
+            Surakarta.getLogger().trace("Tentative de détermination d'accessibilité depuis {} à {} par {}", origin, destination, direction);
         }
 
-        while (currentNode != null && currentNode != destination) {
-            if (currentNode.differentTracks(destination) || currentNode != origin && currentNode.getPlayer() != Player.NONE) { //Il y a un obstacle
-                Surakarta.getLogger().trace("Il y a un obstacle, pas de prise possible");
-                return false;
+        if (destination.getPlayer() == Player.NONE) { //Le noeud d'arrivée est libre, aucune prise possible
+            if (trace) {
+                Surakarta.getLogger().trace("Le noeud d'arrivée est vide, pas de prise possible");
             }
 
-            Curve curve = this.board.curve(currentNode);
+            return false;
+        }
 
-            if (curve != null && curve.computeDirection(currentNode, direction) != Direction.NONE) { //Progression par une courbe
-                curvePassed = true;
+        if (!direction.isCardinal()) { //Les pistes ne se parcourent que dans les directions cardinales
+            return false;
+        }
 
-                Direction previousDirection = direction;
-                direction = curve.computeDirection(currentNode, previousDirection);
-                currentNode = curve.computeNode(currentNode, previousDirection);
-                Surakarta.getLogger().trace("Passage par la courbe {}, nouvelle direction : {} (précédemment {})", curve, direction, previousDirection);
-            } else { //Progression en ligne droite
-                currentNode = this.board.node(currentNode, direction);
-                Surakarta.getLogger().trace("Progression en ligne droite vers {} jusque {}", direction, currentNode);
-            }
+        int square = Position.square(origin.getX(), origin.getY());
+        int entry = Tracks.entry(square, Tracks.cardinal(direction));
+
+        if (entry == Tracks.NONE) { //Aucune piste ne passe par ce noeud dans cette direction
+            return false;
         }
 
-        return curvePassed && currentNode != null;
+        return Tracks.target(this.board.occupied(), square, entry) == Position.square(destination.getX(), destination.getY());
     }
 
     /**
@@ -183,24 +312,17 @@ public class BoardController {
      * @return un chemin, ou {@code null} si aucun chemin valide ne peut être construit (obstacle, noeud d'arrivée vide, pas de boucle parcourue...).
      */
     public Path path(Node origin, Node destination, Direction direction) {
-        Path path = new Path(new MoveTo(origin.getX() * 75, origin.getY() * 75));
-        boolean curvePassed = false;
-        Node currentNode = origin;
-
-        if (currentNode.differentTracks(destination) || destination.getPlayer() == Player.NONE) {
+        if (!reachable(origin, destination, direction)) { //Obstacle, noeud d'arrivée vide ou aucune boucle parcourue
             return null;
         }
 
-        while (currentNode != destination) {
-            if (currentNode != origin && currentNode.getPlayer() != Player.NONE) { //Il y a un obstacle
-                return null;
-            }
+        Path path = new Path(new MoveTo(origin.getX() * 75, origin.getY() * 75));
+        Node currentNode = origin;
 
+        while (currentNode != destination) {
             Curve curve = this.board.curve(currentNode);
 
             if (curve != null && curve.computeDirection(currentNode, direction) != Direction.NONE) { //Passage par une courbe
-                curvePassed = true;
-
                 path.getElements().add(curve.path(currentNode, direction));
 
                 Direction previousDirection = direction;
@@ -209,12 +331,10 @@ public class BoardController {
             } else {
                 currentNode = this.board.node(currentNode, direction);
 
-                if (currentNode != null) {
-                    path.getElements().add(new LineTo(currentNode.getX() * 75, currentNode.getY() * 75));
-                } else break;
+                path.getElements().add(new LineTo(currentNode.getX() * 75, currentNode.getY() * 75));
             }
         }
 
-        return curvePassed ? path : null;
+        return path;
     }
 }
@@ -1,16 +1,46 @@
 package fr.uphf.etu.controller;
 
+import fr.uphf.etu.AnalysisPanel;
 import fr.uphf.etu.Surakarta;
-import fr.uphf.etu.model.Direction;
+import fr.uphf.etu.engine.DrawDetector;
+import fr.uphf.etu.engine.Engine;
+import fr.uphf.etu.engine.Engines;
+import fr.uphf.etu.engine.GameHistory;
+import fr.uphf.etu.engine.GameRecord;
+import fr.uphf.etu.engine.GameRecordWriter;
+import fr.uphf.etu.engine.Mcts;
+import fr.uphf.etu.engine.Move;
+import fr.uphf.etu.engine.MoveGenerator;
+import fr.uphf.etu.engine.OpeningBook;
+import fr.uphf.etu.engine.Position;
+import fr.uphf.etu.engine.SearchLimits;
+import fr.uphf.etu.engine.SearchListener;
+import fr.uphf.etu.engine.SearchResult;
+import fr.uphf.etu.model.Board;
 import fr.uphf.etu.model.Node;
 import fr.uphf.etu.model.Player;
+import javafx.application.Platform;
 
-import java.util.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * Une classe pour contrôler la partie du jeu.
  */
 public class GameController {
+    /**
+     * Le temps de la recherche d'un coup conseillé, en millisecondes.
+     */
+    private static final long HINT_TIME = 300;
+
     /**
      * Le contrôleur de pions.
      */
@@ -39,12 +69,108 @@ public class GameController {
      */
     private final Map<Player, Boolean> ai;
 
+    /**
+     * Le moteur utilisé par l'IA, créé selon les propriétés système décrites par {@link Engines}.
+     */
+    private final Engine search;
+
+    /**
+     * Le fil d'exécution dédié aux recherches de l'IA, qui ne bloquent ainsi jamais le fil de JavaFX.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Le fil d'exécution écrivant les parties terminées dans l'archive, pour qu'un disque lent ne bloque pas le fil de JavaFX.
+     * Il n'est pas un démon : une partie en cours d'écriture est terminée avant l'arrêt de l'application.
+     */
+    private final ExecutorService archiver;
+
+    /**
+     * Le livre d'ouverture consulté par l'IA avant toute recherche, donné par la propriété système {@code surakarta.book}, ou {@code null}.
+     */
+    private final OpeningBook book;
+
+    /**
+     * Le générateur aléatoire choisissant les coups du livre d'ouverture.
+     */
+    private final SplittableRandom random = new SplittableRandom();
+
+    /**
+     * Détecte les parties nulles, par répétition ou faute de prise, selon les règles données par les propriétés système décrites par {@link DrawDetector#fromProperties()}.
+     */
+    private final DrawDetector drawDetector;
+
+    /**
+     * Vrai si l'IA réfléchit pendant le tour du joueur humain, sauf si la propriété système {@code surakarta.ai.ponder} vaut {@code false}.
+     */
+    private final boolean pondering = Boolean.parseBoolean(System.getProperty("surakarta.ai.ponder", "true"));
+
+    /**
+     * Le budget accordé à l'IA pour chaque coup.
+     * Il est configurable par les propriétés système {@code surakarta.ai.time} (en millisecondes) et {@code surakarta.ai.depth}.
+     */
+    private SearchLimits limits;
+
+    /**
+     * L'historique des coups de la partie, permettant d'annuler et de rétablir des coups.
+     */
+    private GameHistory history;
+
+    /**
+     * Vrai entre le début de l'animation d'un coup et le tour suivant : l'historique ne peut alors pas être parcouru.
+     */
+    private boolean moving;
+
+    /**
+     * Incrémenté à chaque retour dans l'historique, pour ignorer les résultats des recherches lancées avant.
+     */
+    private volatile int generation;
+
+    /**
+     * La réponse du joueur humain prévue par la dernière recherche de l'IA, ou {@link Move#NONE}.
+     */
+    private int prediction = Move.NONE;
+
+    /**
+     * La recherche d'anticipation menée pendant le tour du joueur humain, sur la position suivant la réponse prévue, ou {@code null}.
+     */
+    private CompletableFuture<SearchResult> ponder;
+
+    /**
+     * La réponse prévue sur laquelle porte la recherche d'anticipation.
+     */
+    private int ponderMove;
+
+    /**
+     * Les limites de la recherche d'anticipation, qui la désignent au moteur lors du {@link Engine#ponderhit(SearchLimits, long)}.
+     */
+    private SearchLimits ponderLimits;
+
+    /**
+     * L'état de la recherche d'anticipation, permettant de l'annuler sans toucher aux autres recherches du fil de l'IA.
+     */
+    private BackgroundSearch ponderTask;
+
+    /**
+     * Vrai si le mode analyse est activé : pendant le tour d'un joueur humain, le moteur analyse la position sans fin et l'{@link AnalysisPanel} affiche ses variations.
+     */
+    private boolean analysing;
+
+    /**
+     * L'analyse en cours de la position actuelle, ou {@code null}.
+     */
+    private CompletableFuture<SearchResult> analysis;
+
+    /**
+     * L'état de l'analyse en cours, permettant de l'arrêter sans toucher aux autres recherches du fil de l'IA.
+     */
+    private BackgroundSearch analysisTask;
+
     /**
      * Le joueur actuel.
      */
     private Player currentPlayer;
 
-
     public GameController(Surakarta surakarta) {
         this.surakarta = surakarta;
 
@@ -54,10 +180,59 @@ public class GameController {
 
         this.points = new EnumMap<>(Player.class);
         this.ai = new EnumMap<>(Player.class);
+        this.search = Engines.fromProperties((message, e) -> Surakarta.getLogger().error(message, e));
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "surakarta-ai");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1); //Les fils auxiliaires de la recherche, créés depuis ce fil, héritent de cette priorité : l'interface reste prioritaire
+            return thread;
+        });
+        this.archiver = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "surakarta-archive"));
+        this.book = loadBook();
+        this.limits = new SearchLimits(Integer.getInteger("surakarta.ai.depth", SearchLimits.MAX_DEPTH), Long.getLong("surakarta.ai.time", 1000));
 
+        this.history = new GameHistory(Position.start());
+        this.drawDetector = createDrawDetector();
+        this.drawDetector.reset(Position.start());
         this.currentPlayer = Player.NONE;
     }
 
+    /**
+     * Crée le détecteur de parties nulles selon les propriétés système.
+     *
+     * @return le détecteur, avec les règles par défaut si une propriété est invalide.
+     */
+    private static DrawDetector createDrawDetector() {
+        try {
+            return DrawDetector.fromProperties();
+        } catch (IllegalArgumentException e) {
+            Surakarta.getLogger().error("Règles de nulle invalides, règles par défaut utilisées", e);
+            return new DrawDetector();
+        }
+    }
+
+    /**
+     * Ouvre le livre d'ouverture donné par la propriété système {@code surakarta.book}.
+     *
+     * @return le livre, ou {@code null} si la propriété n'est pas définie ou que le fichier est illisible.
+     */
+    private static OpeningBook loadBook() {
+        String path = System.getProperty("surakarta.book");
+
+        if (path == null) {
+            return null;
+        }
+
+        try {
+            OpeningBook book = OpeningBook.open(Paths.get(path));
+            Surakarta.getLogger().info("Livre d'ouverture ouvert depuis {} : {}", path, book);
+            return book;
+        } catch (IOException e) {
+            Surakarta.getLogger().error("Impossible d'ouvrir le livre d'ouverture depuis " + path, e);
+            return null;
+        }
+    }
+
     public Surakarta getSurakarta() {
         return surakarta;
     }
@@ -78,6 +253,19 @@ public class GameController {
         return currentPlayer;
     }
 
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Définit le budget accordé à l'IA pour chaque coup.
+     *
+     * @param limits le budget.
+     */
+    public void setLimits(SearchLimits limits) {
+        this.limits = limits;
+    }
+
     /**
      * Détermine quel est le joueur qui a atteint 12 points, et donc a gagné la partie.
      * @return le joueur ayant atteint 12 points, ou {@link Player#NONE} si aucun joueur ne correspond à ce prérequis.
@@ -109,6 +297,159 @@ public class GameController {
         this.points.merge(player, 1, Integer::sum);
     }
 
+    /**
+     * Construit la position sans JavaFX correspondant à l'état actuel de la partie.
+     *
+     * @return la position actuelle.
+     */
+    public Position position() {
+        return this.boardController.position();
+    }
+
+    /**
+     * Remplace l'état de la partie (pions, scores et joueur actuel) par la position passée en paramètre, puis reconstruit l'interface.
+     * L'historique repart de cette position.
+     *
+     * @param position la position à appliquer.
+     */
+    public void load(Position position) {
+        Surakarta.getLogger().debug("Chargement de la position {}", position);
+        this.history = new GameHistory(position);
+        this.drawDetector.reset(position);
+        this.show(position);
+    }
+
+    /**
+     * Applique une position à la partie et à l'interface, sans modifier l'historique.
+     *
+     * @param position la position à appliquer.
+     */
+    private void show(Position position) {
+        this.generation++;
+        this.cancelPonder();
+        this.prediction = Move.NONE;
+        this.surakarta.stopThinking();
+        this.points.put(Player.P1, position.score(Position.P1));
+        this.points.put(Player.P2, position.score(Position.P2));
+        this.currentPlayer = Player.fromIndex(position.getSideToMove());
+
+        this.pawnController.setSelection(null);
+        this.boardController.load(position);
+        this.surakarta.rebuild();
+        this.startAnalysis(); //Analyse de la nouvelle position, si c'est au tour d'un joueur humain
+    }
+
+    public GameHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Enregistre dans l'historique un coup dont l'animation commence.
+     *
+     * @param move le coup, au format de {@link Move}.
+     */
+    public void record(int move) {
+        this.stopAnalysis();
+        this.history.record(move);
+        this.drawDetector.play(this.history.current(), Move.isCapture(move));
+        this.moving = true;
+    }
+
+    /**
+     * Recalcule l'état du détecteur de parties nulles en rejouant l'historique jusqu'au demi-coup actuel.
+     */
+    private void replayDraws() {
+        Position position = this.history.position(this.history.first());
+        this.drawDetector.reset(position);
+
+        for (int ply = this.history.first(); ply < this.history.ply(); ply++) {
+            int move = this.history.move(ply);
+            position = position.play(move);
+            this.drawDetector.play(position, Move.isCapture(move));
+        }
+    }
+
+    /**
+     * @return {@code true} si un coup peut être annulé : aucune animation n'est en cours et l'historique contient un coup précédent.
+     */
+    public boolean canUndo() {
+        return !this.moving && this.history.canUndo();
+    }
+
+    /**
+     * @return {@code true} si un coup annulé peut être rétabli.
+     */
+    public boolean canRedo() {
+        return !this.moving && this.history.canRedo();
+    }
+
+    /**
+     * Annule le dernier coup. Face à une IA, les coups de l'IA sont aussi annulés pour revenir au tour du joueur humain.
+     * La recherche éventuellement en cours est arrêtée et son résultat ignoré.
+     */
+    public void undo() {
+        if (!this.canUndo()) {
+            return;
+        }
+
+        Position position = this.history.undo();
+
+        while (this.isAI(Player.fromIndex(position.getSideToMove())) && !this.isAI(Player.fromIndex(Position.opponent(position.getSideToMove()))) && this.history.canUndo()) {
+            position = this.history.undo();
+        }
+
+        Surakarta.getLogger().info("Retour au demi-coup {}", this.history.ply());
+        this.travel(position);
+    }
+
+    /**
+     * Rétablit le dernier coup annulé. Face à une IA, les coups suivants de l'IA sont aussi rétablis.
+     */
+    public void redo() {
+        if (!this.canRedo()) {
+            return;
+        }
+
+        Position position = this.history.redo();
+
+        while (this.isAI(Player.fromIndex(position.getSideToMove())) && !this.isAI(Player.fromIndex(Position.opponent(position.getSideToMove()))) && this.history.canRedo()) {
+            position = this.history.redo();
+        }
+
+        Surakarta.getLogger().info("Avance au demi-coup {}", this.history.ply());
+        this.travel(position);
+    }
+
+    /**
+     * Applique une position de l'historique, puis fait jouer l'IA si c'est son tour.
+     *
+     * @param position la position de l'historique.
+     */
+    private void travel(Position position) {
+        this.search.stop();
+        this.replayDraws();
+        this.show(position);
+
+        if (this.isAI(this.currentPlayer) && position.winner() == Position.NONE && this.drawDetector.getResult() == DrawDetector.NONE) {
+            this.AITurn();
+        }
+    }
+
+    /**
+     * Abandonne la partie, par exemple lorsqu'une nouvelle partie commence : la recherche en cours est arrêtée et son résultat ignoré,
+     * puis le moteur et le fil d'exécution de l'IA sont libérés une fois la recherche terminée.
+     * Le fil de l'archive s'arrête après avoir écrit les parties en attente.
+     */
+    public void shutdown() {
+        this.generation++;
+        this.cancelPonder();
+        this.stopAnalysis();
+        this.search.stop();
+        this.executor.execute(this.search::shutdown);
+        this.executor.shutdown();
+        this.archiver.shutdown();
+    }
+
     /**
      * Retourne {@code true} si le joueur est une IA.
      * @param player le joueur.
@@ -130,63 +471,437 @@ public class GameController {
 
     /**
      * Lance le tour suivant.
-     * Si un joueur est déterminé gagnant, alors la partie se termine.
-     * Si le joueur devenant actuel est une IA, son tour est joué automatiquement.
+     * Si un joueur est déterminé gagnant, ou si la partie est nulle, alors la partie se termine.
+     * Si le joueur devenant actuel est une IA, son tour est joué automatiquement ; sinon, face à une IA, celle-ci réfléchit à la réponse prévue.
      */
     public void nextTurn() {
+        this.moving = false;
+        this.boardController.invalidate();
+
         Player winner = this.getWinner();
+        if (winner != Player.NONE || this.drawDetector.getResult() != DrawDetector.NONE) {
+            this.cancelPonder(); //Partie terminée par le coup du joueur humain
+        }
+
         if (winner != Player.NONE) { //Un joueur a gagné
+            this.archive(winner);
             this.surakarta.endPopup(winner);
             return;
         }
 
+        int draw = this.drawDetector.getResult();
+        if (draw != DrawDetector.NONE) { //Partie nulle par répétition ou faute de prise
+            String reason = this.drawDetector.describe(draw);
+            Surakarta.getLogger().info("Partie nulle par {}", reason);
+            this.archive(Player.NONE);
+            this.surakarta.drawPopup(reason);
+            return;
+        }
+
         this.currentPlayer = currentPlayer.next(); //Joueur suivant
         Surakarta.getLogger().info("Début du tour, au tour du joueur {}", this.currentPlayer.formatDisplay(this.isAI(this.currentPlayer)));
         this.surakarta.refreshUI();
 
         if (this.isAI(this.currentPlayer)) {
             this.AITurn(); //Faire jouer l'IA
+        } else if (this.analysing) {
+            this.startAnalysis();
+        } else if (this.isAI(this.currentPlayer.next())) {
+            this.startPondering(); //Faire réfléchir l'IA pendant le tour du joueur humain
         }
     }
 
+    /**
+     * Ajoute la partie terminée à l'archive donnée par la propriété système {@code surakarta.games}, par défaut {@code ~/.surakarta/games.skg}.
+     * Seules les parties jouées depuis la position de départ et dont l'historique est complet sont archivées.
+     * La partie est relevée dans le fil de JavaFX, puis écrite par le fil de l'archive.
+     *
+     * @param winner le vainqueur, ou {@link Player#NONE} pour une partie nulle.
+     */
+    private void archive(Player winner) {
+        if (this.history.first() != 0 || !this.history.position(0).equals(Position.start())) {
+            return;
+        }
+
+        int[] moves = new int[this.history.ply()];
+
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = this.history.move(i);
+        }
+
+        GameRecord record = new GameRecord(this.isAI(Player.P1) ? "IA" : "Humain", this.isAI(Player.P2) ? "IA" : "Humain",
+                this.isAI(Player.P1), this.isAI(Player.P2), winner.index(), moves);
+        Path path = Paths.get(System.getProperty("surakarta.games", Paths.get(System.getProperty("user.home"), ".surakarta", "games.skg").toString()));
+
+        this.archiver.execute(() -> {
+            try (GameRecordWriter writer = new GameRecordWriter(path)) {
+                writer.write(record);
+                Surakarta.getLogger().info("Partie archivée dans {}", path);
+            } catch (IOException e) {
+                Surakarta.getLogger().error("Impossible d'archiver la partie dans " + path, e);
+            }
+        });
+    }
+
     /**
      * Fait jouer l'IA.
-     * Elle tente d'abord de faire une capture de pion avant de déplacer aléatoirement un de ses pions.
+     * Si la position figure dans le livre d'ouverture, l'un de ses coups est joué sans recherche.
+     * Sinon, la recherche du meilleur coup s'effectue dans le fil d'exécution dédié à l'IA pour ne pas bloquer l'interface, qui affiche la réflexion en cours,
+     * et le coup trouvé est ensuite joué dans le fil de JavaFX.
+     * Si le joueur humain a joué la réponse prévue, la recherche d'anticipation se poursuit avec le budget de l'IA, sans perdre ce qu'elle a déjà exploré.
      */
     public void AITurn() {
-        List<Node> playerNodes = this.boardController.playerNodes(this.currentPlayer);
-        Collections.shuffle(playerNodes); //Choix du pion à déplacer aléatoire
-
-        List<Direction> directions = Arrays.asList(Direction.values());
-        Collections.shuffle(directions); //Ordre des directions aléatoire
-
-        for (Node origin : playerNodes) { //Essayer une capture
-            for (Node destination : this.boardController.playerNodes(this.currentPlayer.next())) { //Les noeuds contenant des pions du joueur adverse
-                for (Direction direction : directions) {
-                    if (direction != Direction.NONE) {
-                        if (direction.isCardinal() && this.boardController.reachable(origin, destination, direction)) { //Une prise est possible
-                            Surakarta.getLogger().trace("Capture de {} à partir de {} dans la direction {}", destination, origin, direction);
-                            this.pawnController.pawnClick(origin.getPawn());
-                            this.nodeController.nodeClick(destination);
-                            return;
+        if (this.executor.isShutdown()) { //Partie abandonnée, dont une animation se termine encore
+            return;
+        }
+
+        Position position = this.position();
+        CompletableFuture<SearchResult> pondered = this.ponderhit();
+        int expected = this.generation;
+        int bookMove = pondered == null && this.book != null ? this.book.choose(position, this.random) : Move.NONE;
+        this.prediction = Move.NONE;
+
+        if (bookMove != Move.NONE) {
+            Surakarta.getLogger().info("Coup du livre d'ouverture : {}", Move.toString(bookMove));
+            Platform.runLater(() -> { //Joué au prochain passage du fil de JavaFX, comme le résultat d'une recherche
+                if (expected == this.generation) {
+                    this.play(bookMove);
+                }
+            });
+            return;
+        }
+
+        Surakarta.getLogger().debug("Recherche du coup du joueur {} avec {}", this.currentPlayer, this.limits);
+
+        this.surakarta.startThinking(this.limits.getTime());
+
+        CompletableFuture<SearchResult> future = pondered != null ? pondered : CompletableFuture.supplyAsync(() -> this.search(position, expected, this.limits), this.executor);
+        future.thenAccept(result -> Platform.runLater(() -> {
+            if (result == null || expected != this.generation) { //Partie modifiée entre-temps par l'historique, ou abandonnée
+                Surakarta.getLogger().debug("Résultat de recherche ignoré");
+                return;
+            }
+
+            this.surakarta.stopThinking();
+
+            Surakarta.getLogger().info("Résultat de la recherche : {} ({} noeuds/s)", result, result.nps());
+
+            if (result.getBestMove() != Move.NONE) {
+                this.prediction = result.getPv().length > 1 ? result.getPv()[1] : Move.NONE;
+                this.play(result.getBestMove());
+            }
+        }))
+                .exceptionally(e -> {
+                    Surakarta.getLogger().error("Erreur lors de la recherche", e);
+                    Platform.runLater(() -> {
+                        if (expected == this.generation) {
+                            this.surakarta.stopThinking();
                         }
+                    });
+                    return null;
+                });
+    }
+
+    /**
+     * @return {@code true} si c'est le tour d'un joueur humain dans une partie en cours, et qu'aucune animation n'est en cours.
+     */
+    private boolean isHumanTurn() {
+        return !this.moving && this.currentPlayer != Player.NONE && !this.isAI(this.currentPlayer)
+                && this.getWinner() == Player.NONE && this.drawDetector.getResult() == DrawDetector.NONE;
+    }
+
+    /**
+     * @return {@code true} si un coup peut être conseillé : c'est le tour d'un joueur humain, hors du mode analyse qui affiche déjà les meilleurs coups.
+     */
+    public boolean canHint() {
+        return !this.analysing && this.isHumanTurn();
+    }
+
+    public boolean isAnalysing() {
+        return analysing;
+    }
+
+    /**
+     * Active ou désactive le mode analyse. Une recherche d'anticipation en cours est abandonnée au profit de l'analyse.
+     *
+     * @param analysing {@code true} pour activer le mode analyse.
+     */
+    public void setAnalysing(boolean analysing) {
+        Surakarta.getLogger().info("Mode analyse {}", analysing ? "activé" : "désactivé");
+        this.analysing = analysing;
+
+        if (analysing) {
+            this.cancelPonder();
+            this.startAnalysis();
+        } else {
+            this.stopAnalysis();
+        }
+
+        this.surakarta.refreshUI();
+    }
+
+    /**
+     * Lance l'analyse de la position actuelle dans le fil d'exécution de l'IA, si le mode analyse est activé et que c'est au tour d'un joueur humain.
+     * L'analyse suit {@link AnalysisPanel#LINES} variations sans limite de temps, jusqu'à son arrêt par {@link GameController#stopAnalysis()}.
+     */
+    private void startAnalysis() {
+        this.stopAnalysis();
+
+        if (!this.analysing || this.executor.isShutdown() || !this.isHumanTurn()) {
+            return;
+        }
+
+        Position position = this.position();
+        SearchListener listener = this.surakarta.getAnalysisPanel().start(this.currentPlayer, this.search instanceof Mcts);
+        BackgroundSearch task = new BackgroundSearch(this.search);
+        Surakarta.getLogger().debug("Analyse de la position {}", position);
+
+        this.analysisTask = task;
+        this.analysis = CompletableFuture.supplyAsync(() -> {
+            synchronized (this.search) {
+                return task.run(() -> {
+                    this.search.setMultiPv(AnalysisPanel.LINES);
+                    this.search.setListener(listener);
+
+                    try {
+                        return this.search.search(position, SearchLimits.infinite());
+                    } finally { //Les recherches de l'IA ne suivent qu'une variation
+                        this.search.setMultiPv(1);
+                        this.search.setListener(null);
                     }
-                }
+                });
             }
+        }, this.executor);
+        this.analysis.exceptionally(e -> {
+            Surakarta.getLogger().error("Erreur lors de l'analyse", e);
+            return null;
+        });
+    }
+
+    /**
+     * Arrête l'analyse éventuelle, en conservant ses dernières variations affichées.
+     */
+    private void stopAnalysis() {
+        if (this.analysis != null) {
+            this.analysisTask.cancel();
+            this.analysis = null;
+            this.surakarta.getAnalysisPanel().stop();
+        }
+    }
+
+    /**
+     * Conseille un coup au joueur humain : une courte recherche s'effectue dans le fil d'exécution de l'IA,
+     * puis le pion du coup trouvé est sélectionné et sa destination mise en évidence, si la partie n'a pas avancé entre-temps.
+     * Une recherche d'anticipation en cours est abandonnée pour libérer le fil de l'IA.
+     */
+    public void hint() {
+        if (!this.canHint() || this.executor.isShutdown()) {
+            return;
         }
 
-        for (Node origin : playerNodes) { //Déplacement aléatoire
-            for (Direction direction : directions) {
-                if (direction != Direction.NONE) {
-                    Node destination = this.boardController.getBoard().node(origin, direction);
+        this.cancelPonder();
 
-                    if (destination != null && this.boardController.reachable(origin, destination)) { //Un simple déplacement est possible
-                        this.pawnController.pawnClick(origin.getPawn());
-                        this.nodeController.nodeClick(destination);
+        Position position = this.position();
+        int expected = this.generation;
+        int ply = this.history.ply();
+        SearchLimits hintLimits = new SearchLimits(this.limits.getDepth(), HINT_TIME);
+
+        CompletableFuture.supplyAsync(() -> this.search(position, expected, hintLimits), this.executor)
+                .thenAccept(result -> Platform.runLater(() -> {
+                    if (result == null || expected != this.generation || ply != this.history.ply() || this.moving || result.getBestMove() == Move.NONE) { //Coup joué entre-temps
                         return;
                     }
-                }
+
+                    int move = result.getBestMove();
+                    Surakarta.getLogger().info("Coup conseillé : {} ({})", Move.toString(move), result);
+
+                    Node origin = this.boardController.getBoard().node(Position.x(Move.from(move)), Position.y(Move.from(move)));
+                    this.pawnController.setSelection(origin.getPawn());
+                    this.boardController.highlightHint(move);
+                }))
+                .exceptionally(e -> {
+                    Surakarta.getLogger().error("Erreur lors de la recherche d'un coup conseillé", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Lance la recherche d'anticipation de l'IA sur la position suivant la réponse prévue du joueur humain, pendant qu'il réfléchit.
+     * Rien n'est lancé sans réponse prévue légale, ni si la position suivante est terminée ou figure dans le livre d'ouverture.
+     */
+    private void startPondering() {
+        int move = this.prediction;
+        this.prediction = Move.NONE;
+        Position position = this.position();
+
+        if (!this.pondering || this.analysing || this.executor.isShutdown() || move == Move.NONE || !MoveGenerator.isLegal(position, move)) {
+            return;
+        }
+
+        Position predicted = position.play(move);
+
+        if (predicted.winner() != Position.NONE || this.book != null && !this.book.probe(predicted).isEmpty()) {
+            return;
+        }
+
+        Surakarta.getLogger().debug("Réflexion de l'IA sur la réponse prévue {}", Move.toString(move));
+        SearchLimits ponderLimits = SearchLimits.ponder(this.limits.getDepth());
+        BackgroundSearch task = new BackgroundSearch(this.search);
+        this.ponderMove = move;
+        this.ponderLimits = ponderLimits;
+        this.ponderTask = task;
+        this.ponder = CompletableFuture.supplyAsync(() -> {
+            synchronized (this.search) {
+                return task.run(() -> this.search.search(predicted, ponderLimits));
             }
+        }, this.executor);
+    }
+
+    /**
+     * Termine l'anticipation au début du tour de l'IA.
+     *
+     * @return la recherche d'anticipation si le joueur humain a joué la réponse prévue, qui se poursuit alors avec le budget de l'IA, ou {@code null} sinon.
+     */
+    private CompletableFuture<SearchResult> ponderhit() {
+        CompletableFuture<SearchResult> future = this.ponder;
+
+        if (future == null || this.history.ply() == this.history.first() || this.history.move(this.history.ply() - 1) != this.ponderMove) {
+            this.cancelPonder();
+            return null;
+        }
+
+        Surakarta.getLogger().info("Réponse prévue jouée : la réflexion de l'IA se poursuit");
+        this.ponder = null;
+
+        if (!future.isDone()) { //Une anticipation terminée, souvent à sa profondeur maximale, fournit directement son résultat
+            this.search.ponderhit(this.ponderLimits, this.limits.getTime());
+        }
+
+        return future;
+    }
+
+    /**
+     * Annule la recherche d'anticipation éventuelle, dont le résultat est ignoré.
+     */
+    private void cancelPonder() {
+        if (this.ponder != null) {
+            this.ponderTask.cancel();
+            this.ponder = null;
+        }
+    }
+
+    /**
+     * Cherche le meilleur coup d'une position, si la partie n'a pas été modifiée par l'historique depuis le lancement de la recherche.
+     * Le moteur ne mène qu'une recherche à la fois : une recherche arrêtée se termine avant que la suivante ne commence.
+     *
+     * @param position la position.
+     * @param expected la génération de la partie au lancement de la recherche.
+     * @param limits   le budget de la recherche.
+     * @return le résultat de la recherche, ou {@code null} si la partie a été modifiée.
+     */
+    private SearchResult search(Position position, int expected, SearchLimits limits) {
+        synchronized (this.search) {
+            return expected == this.generation ? this.search.search(position, limits) : null;
+        }
+    }
+
+    /**
+     * Joue un coup en simulant un clic sur le pion de départ, puis sur le noeud d'arrivée.
+     *
+     * @param move le coup, au format de {@link Move}.
+     */
+    public void play(int move) {
+        Board board = this.boardController.getBoard();
+        Node origin = board.node(Position.x(Move.from(move)), Position.y(Move.from(move)));
+        Node destination = board.node(Position.x(Move.to(move)), Position.y(Move.to(move)));
+
+        Surakarta.getLogger().debug("Coup joué par le joueur {} : {}", this.currentPlayer, Move.toString(move));
+        this.pawnController.pawnClick(origin.getPawn());
+        this.nodeController.nodeClick(destination);
+    }
+
+    /**
+     * Une recherche sans limite de temps menée dans le fil de l'IA, qui peut être annulée avant ou pendant son exécution.
+     * L'annulation ne concerne que cette recherche : en attente, elle ne sera pas menée ; en cours, le moteur est arrêté ;
+     * terminée, rien n'est transmis au moteur, pour ne pas écourter la recherche suivante.
+     */
+    private static final class BackgroundSearch {
+        /**
+         * La recherche attend son tour dans le fil de l'IA.
+         */
+        private static final int QUEUED = 0;
+
+        /**
+         * La recherche est en cours.
+         */
+        private static final int RUNNING = 1;
+
+        /**
+         * La recherche est terminée, ou a été annulée.
+         */
+        private static final int DONE = 2;
+
+        /**
+         * Le moteur menant la recherche.
+         */
+        private final Engine engine;
+
+        /**
+         * L'état de la recherche.
+         */
+        private int state = QUEUED;
+
+        private BackgroundSearch(Engine engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * Mène la recherche, sauf si elle a été annulée avant de commencer. Appelée dans le fil de l'IA, en détenant le moteur.
+         *
+         * @param search la recherche.
+         * @return le résultat de la recherche, ou {@code null} si elle a été annulée avant de commencer.
+         */
+        private SearchResult run(Supplier<SearchResult> search) {
+            if (!this.start()) {
+                return null;
+            }
+
+            try {
+                return search.get();
+            } finally {
+                this.finish();
+            }
+        }
+
+        /**
+         * @return {@code false} si la recherche a été annulée avant de commencer.
+         */
+        private synchronized boolean start() {
+            if (this.state != QUEUED) {
+                return false;
+            }
+
+            this.state = RUNNING;
+            return true;
+        }
+
+        /**
+         * Marque la fin de la recherche, avant que le fil de l'IA ne passe à la suivante.
+         * Un arrêt en cours de transmission par {@link BackgroundSearch#cancel()} se termine donc avant que la recherche suivante ne l'annule en commençant.
+         */
+        private synchronized void finish() {
+            this.state = DONE;
+        }
+
+        /**
+         * Annule la recherche : elle ne sera pas menée si elle attend encore son tour, et le moteur est arrêté si elle est en cours.
+         */
+        private synchronized void cancel() {
+            if (this.state == RUNNING) {
+                this.engine.stop();
+            }
+
+            this.state = DONE;
         }
     }
 }
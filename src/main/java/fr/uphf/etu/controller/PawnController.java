@@ -35,6 +35,7 @@ public class PawnController implements EventHandler<MouseEvent> {
     /**
      * Définit le pion sélectionné.
      * Si un pion était précédemment sélectionné, il est d'abord désélectionné.
+     * Les destinations légales d'un pion sélectionné par un joueur humain sont mises en évidence.
      *
      * @param pawn le pion.
      */
@@ -48,6 +49,14 @@ public class PawnController implements EventHandler<MouseEvent> {
         }
 
         this.selection = pawn;
+
+        BoardController boardController = this.gameController.getBoardController();
+
+        if (pawn != null && pawn.getPlayer() == this.gameController.getCurrentPlayer() && !this.gameController.isAI(pawn.getPlayer())) {
+            boardController.highlight(pawn);
+        } else {
+            boardController.clearHighlight();
+        }
     }
 
     @Override
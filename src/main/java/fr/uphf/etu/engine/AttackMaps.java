@@ -0,0 +1,211 @@
+package fr.uphf.etu.engine;
+
+/**
+ * Une classe calculant les cartes d'attaque d'une position : pour chaque joueur, le masque des cases qu'un de ses pions atteint en franchissant une courbe.
+ * Un pion adverse sur l'une de ces cases peut être pris ; un pion du joueur y est défendu.
+ * <p>
+ * Plutôt que de parcourir un circuit depuis chaque pion et dans chaque direction (jusqu'à 48 parcours par joueur, voir {@link Tracks#target(long, int, int)}),
+ * les indices occupés de chaque circuit sont relevés dans un masque de 24 bits, à l'aide de tables précalculées par octet de cases : la cible d'un pion dans chaque sens est alors
+ * l'indice occupé voisin, et la prise n'est possible que si une courbe les sépare. Chaque paire d'indices occupés voisins donne ainsi les deux cibles d'un coup,
+ * et le calcul des deux joueurs ne coûte que quelques opérations par pion, sans créer d'objet.
+ */
+public final class AttackMaps {
+    /**
+     * Le nombre de cases entre deux courbes d'un circuit.
+     */
+    private static final int SEGMENT = Tracks.LENGTH / 4;
+
+    /**
+     * Le nombre d'octets des masques de cases.
+     */
+    private static final int BYTES = (Position.SQUARES + 7) / 8;
+
+    /**
+     * Pour chaque circuit et chaque octet d'un masque de cases, les indices du circuit occupés par les cases de cet octet, un bit par indice.
+     */
+    private static final int[][][] INDICES = new int[2][BYTES][256];
+
+    static {
+        for (int circuit = Tracks.RED; circuit <= Tracks.BLUE; circuit++) {
+            for (int i = 0; i < Tracks.LENGTH; i++) {
+                int square = Tracks.square(circuit, i);
+
+                for (int value = 0; value < 256; value++) {
+                    if ((value >>> (square & 7) & 1) != 0) {
+                        INDICES[circuit][square >>> 3][value] |= 1 << i;
+                    }
+                }
+            }
+        }
+    }
+
+    private AttackMaps() {
+    }
+
+    /**
+     * Calcule les cartes d'attaque des deux joueurs.
+     *
+     * @param position la position.
+     * @param targets  le tableau recevant les cases atteintes par chaque joueur, indexé par {@link Position#P1} et {@link Position#P2}.
+     */
+    public static void compute(Position position, long[] targets) {
+        compute(position.pawns(Position.P1), position.pawns(Position.P2), targets);
+    }
+
+    /**
+     * Calcule les cartes d'attaque des deux joueurs.
+     *
+     * @param pawnsP1 les pions du joueur 1.
+     * @param pawnsP2 les pions du joueur 2.
+     * @param targets le tableau recevant les cases atteintes par chaque joueur, indexé par {@link Position#P1} et {@link Position#P2}.
+     */
+    public static void compute(long pawnsP1, long pawnsP2, long[] targets) {
+        targets(pawnsP1, pawnsP2, Position.P1, targets);
+    }
+
+    /**
+     * Calcule les cartes d'attaque des deux joueurs en un seul parcours des circuits.
+     *
+     * @param pawnsP1 les pions du joueur 1.
+     * @param pawnsP2 les pions du joueur 2.
+     * @param player  le joueur dont la carte est retournée.
+     * @param targets le tableau recevant les cases atteintes par chaque joueur, ou {@code null} si seule la carte retournée est utile.
+     * @return les cases atteintes par le joueur.
+     */
+    private static long targets(long pawnsP1, long pawnsP2, int player, long[] targets) {
+        long occupied = pawnsP1 | pawnsP2;
+        long targetsP1 = 0;
+        long targetsP2 = 0;
+
+        for (int circuit = Tracks.RED; circuit <= Tracks.BLUE; circuit++) {
+            int[][] table = INDICES[circuit];
+            int indices = 0; //Les indices occupés du circuit, un bit par indice
+
+            for (int i = 0; i < BYTES; i++) {
+                indices |= table[i][(int) (occupied >>> (8 * i)) & 0xFF];
+            }
+
+            if (indices == 0) {
+                continue;
+            }
+
+            //Parcourt les paires d'indices occupés voisins, la dernière reliant le dernier indice au premier
+            int first = Integer.numberOfTrailingZeros(indices);
+            int previous = first;
+            int remaining = indices & (indices - 1);
+
+            while (true) {
+                int index = remaining != 0 ? Integer.numberOfTrailingZeros(remaining) : first;
+                long from = Position.bit(Tracks.square(circuit, previous));
+                long to = Position.bit(Tracks.square(circuit, index));
+
+                if (from != to) { //Chaque pion de la paire est la cible de l'autre, dans un sens différent
+                    if (curve(previous, index)) {
+                        if ((pawnsP1 & from) != 0) targetsP1 |= to;
+                        else targetsP2 |= to;
+
+                        if ((pawnsP1 & to) != 0) targetsP1 |= from;
+                        else targetsP2 |= from;
+                    }
+                } else if (index != previous) { //Deux passages voisins du circuit par le même pion, qui se traverse lui-même
+                    int square = Tracks.square(circuit, index);
+                    long reached = target(circuit, indices, previous, square, true) | target(circuit, indices, index, square, false);
+
+                    if ((pawnsP1 & from) != 0) targetsP1 |= reached;
+                    else targetsP2 |= reached;
+                }
+
+                if (index == first) {
+                    break;
+                }
+
+                previous = index;
+                remaining &= remaining - 1;
+            }
+        }
+
+        if (targets != null) {
+            targets[Position.P1] = targetsP1;
+            targets[Position.P2] = targetsP2;
+        }
+
+        return player == Position.P1 ? targetsP1 : targetsP2;
+    }
+
+    /**
+     * @param position la position.
+     * @param player   le joueur.
+     * @return les pions adverses que le joueur peut prendre, calculés sans créer d'objet : {@link MoveGenerator#hasCaptures(Position)} l'appelle à chaque noeud.
+     */
+    public static long threats(Position position, int player) {
+        long targets = targets(position.pawns(Position.P1), position.pawns(Position.P2), player, null);
+        return targets & position.pawns(Position.opponent(player));
+    }
+
+    /**
+     * Cherche la cible d'un pion dans un sens : le prochain indice occupé du circuit, en ignorant la case du pion lui-même là où le circuit se croise.
+     * Ce parcours n'est nécessaire que lorsque les deux passages du circuit par le pion sont voisins.
+     *
+     * @param circuit  le circuit.
+     * @param indices  les indices occupés du circuit, un bit par indice.
+     * @param index    l'indice du pion.
+     * @param attacker la case du pion.
+     * @param forward  {@code true} pour parcourir le circuit dans son sens, {@code false} à rebours.
+     * @return le masque de la case cible si une courbe a été franchie pour l'atteindre, sinon <i>0</i>.
+     */
+    private static long target(int circuit, int indices, int index, int attacker, boolean forward) {
+        boolean curvePassed = false;
+        int current = index;
+
+        for (int i = 0; i < 2; i++) { //Une case apparaît au plus deux fois dans un circuit
+            int next = forward ? next(indices, current) : previous(indices, current);
+            curvePassed |= forward ? curve(current, next) : curve(next, current);
+
+            if (next == index) { //Retour au pion sans avoir rencontré d'autre pion
+                return 0;
+            }
+
+            int square = Tracks.square(circuit, next);
+
+            if (square != attacker) {
+                return curvePassed ? Position.bit(square) : 0;
+            }
+
+            current = next;
+        }
+
+        return 0;
+    }
+
+    /**
+     * @param indices les indices occupés.
+     * @param index   un indice.
+     * @return l'indice occupé suivant, en revenant au début après le dernier.
+     */
+    private static int next(int indices, int index) {
+        int after = indices & -(2 << index);
+        return Integer.numberOfTrailingZeros(after != 0 ? after : indices);
+    }
+
+    /**
+     * @param indices les indices occupés.
+     * @param index   un indice.
+     * @return l'indice occupé précédent, en revenant à la fin avant le premier.
+     */
+    private static int previous(int indices, int index) {
+        int before = indices & ((1 << index) - 1);
+        return 31 - Integer.numberOfLeadingZeros(before != 0 ? before : indices);
+    }
+
+    /**
+     * Détermine si une courbe sépare deux indices d'un circuit parcouru de l'un à l'autre dans son sens.
+     * Les courbes relient les indices 5 et 6, 11 et 12, 17 et 18, 23 et 0 : elles séparent deux segments, ainsi que la fin du circuit de son début.
+     *
+     * @param from l'indice de départ.
+     * @param to   l'indice d'arrivée.
+     * @return {@code true} si une courbe est franchie.
+     */
+    private static boolean curve(int from, int to) {
+        return to <= from || from / SEGMENT != to / SEGMENT;
+    }
+}
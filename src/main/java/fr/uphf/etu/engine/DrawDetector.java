@@ -0,0 +1,311 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+
+/**
+ * Une classe détectant les parties nulles au fil des coups d'une partie : par répétition d'une même position, ou après un nombre de demi-coups sans prise.
+ * <p>
+ * Une prise retirant un pion, aucune position antérieure ne peut se répéter après elle : seules les empreintes ({@link Position#getKey()})
+ * des positions depuis la dernière prise sont conservées, dans un tampon circulaire, et comptées dans une table de hachage à adressage ouvert.
+ * Chaque coup coûte ainsi un nombre constant d'opérations, sans créer d'objet ni parcourir l'historique.
+ * <p>
+ * Les règles sont configurables, et désactivées par une valeur nulle ; {@link DrawDetector#fromProperties()} les lit dans les propriétés système
+ * {@code surakarta.draw.repetitions} et {@code surakarta.draw.plies}.
+ */
+public final class DrawDetector {
+    /**
+     * La partie n'est pas nulle.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * La partie est nulle par répétition de la position.
+     */
+    public static final int REPETITION = 1;
+
+    /**
+     * La partie est nulle faute de prise.
+     */
+    public static final int NO_CAPTURE = 2;
+
+    /**
+     * Le nombre d'apparitions d'une même position rendant la partie nulle, par défaut.
+     */
+    public static final int DEFAULT_REPETITIONS = 3;
+
+    /**
+     * Le nombre de demi-coups sans prise rendant la partie nulle, par défaut.
+     */
+    public static final int DEFAULT_NO_CAPTURE_PLIES = 100;
+
+    /**
+     * Le nombre de positions conservées lorsque la règle des demi-coups sans prise est désactivée : les répétitions plus lointaines sont ignorées.
+     */
+    private static final int UNBOUNDED_WINDOW = 1024;
+
+    /**
+     * Le nombre d'apparitions d'une même position rendant la partie nulle, <i>0</i> si la règle est désactivée.
+     */
+    private final int repetitions;
+
+    /**
+     * Le nombre de demi-coups sans prise rendant la partie nulle, <i>0</i> si la règle est désactivée.
+     */
+    private final int noCapturePlies;
+
+    /**
+     * Les empreintes des positions depuis la dernière prise, dans l'ordre des coups.
+     */
+    private final long[] window;
+
+    /**
+     * Les empreintes de la table de hachage.
+     */
+    private final long[] keys;
+
+    /**
+     * Le nombre d'apparitions de chaque empreinte de la table parmi les positions conservées.
+     */
+    private final int[] counts;
+
+    /**
+     * Vrai pour chaque case de la table utilisée depuis le dernier vidage, même si son empreinte n'apparaît plus.
+     */
+    private final boolean[] used;
+
+    /**
+     * Le nombre de positions conservées.
+     */
+    private int length;
+
+    /**
+     * L'indice de la prochaine position dans le tampon circulaire.
+     */
+    private int next;
+
+    /**
+     * Le nombre de cases utilisées de la table.
+     */
+    private int occupied;
+
+    /**
+     * Le nombre de demi-coups depuis la dernière prise.
+     */
+    private int pliesWithoutCapture;
+
+    /**
+     * Le résultat après le dernier coup.
+     */
+    private int result;
+
+    /**
+     * Constructeur du détecteur, avec les règles par défaut.
+     */
+    public DrawDetector() {
+        this(DEFAULT_REPETITIONS, DEFAULT_NO_CAPTURE_PLIES);
+    }
+
+    /**
+     * Constructeur du détecteur.
+     *
+     * @param repetitions    le nombre d'apparitions d'une même position rendant la partie nulle, <i>0</i> pour désactiver la règle.
+     * @param noCapturePlies le nombre de demi-coups sans prise rendant la partie nulle, <i>0</i> pour désactiver la règle.
+     * @throws IllegalArgumentException si une valeur est négative.
+     */
+    public DrawDetector(int repetitions, int noCapturePlies) {
+        if (repetitions < 0 || noCapturePlies < 0) {
+            throw new IllegalArgumentException("Règles de nulle invalides : " + repetitions + " répétitions, " + noCapturePlies + " demi-coups");
+        }
+
+        this.repetitions = repetitions;
+        this.noCapturePlies = noCapturePlies;
+
+        int capacity = Integer.highestOneBit(Math.max(2, noCapturePlies > 0 ? noCapturePlies + 1 : UNBOUNDED_WINDOW) - 1) << 1;
+        this.window = new long[capacity];
+        this.keys = new long[2 * capacity]; //La table n'est jamais remplie qu'à moitié par les positions conservées
+        this.counts = new int[2 * capacity];
+        this.used = new boolean[2 * capacity];
+    }
+
+    /**
+     * Crée un détecteur selon les propriétés système {@code surakarta.draw.repetitions} et {@code surakarta.draw.plies}, les règles par défaut s'appliquant sinon.
+     *
+     * @return le détecteur.
+     * @throws IllegalArgumentException si une propriété est négative.
+     */
+    public static DrawDetector fromProperties() {
+        return new DrawDetector(Integer.getInteger("surakarta.draw.repetitions", DEFAULT_REPETITIONS), Integer.getInteger("surakarta.draw.plies", DEFAULT_NO_CAPTURE_PLIES));
+    }
+
+    /**
+     * @return un détecteur vierge appliquant les mêmes règles.
+     */
+    public DrawDetector copy() {
+        return new DrawDetector(repetitions, noCapturePlies);
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public int getNoCapturePlies() {
+        return noCapturePlies;
+    }
+
+    /**
+     * @return le nombre de demi-coups depuis la dernière prise ou le début de la partie.
+     */
+    public int getPliesWithoutCapture() {
+        return pliesWithoutCapture;
+    }
+
+    /**
+     * @return le résultat après le dernier coup : {@link DrawDetector#NONE}, {@link DrawDetector#REPETITION} ou {@link DrawDetector#NO_CAPTURE}.
+     */
+    public int getResult() {
+        return result;
+    }
+
+    /**
+     * Recommence la détection depuis une position.
+     *
+     * @param position la position de départ.
+     */
+    public void reset(Position position) {
+        this.clear();
+        this.pliesWithoutCapture = 0;
+        this.result = NONE;
+        this.push(position.getKey());
+    }
+
+    /**
+     * Enregistre la position atteinte par un coup, et détermine si la partie est nulle.
+     *
+     * @param position la position après le coup.
+     * @param capture  {@code true} si le coup était une prise.
+     * @return {@link DrawDetector#NONE}, {@link DrawDetector#REPETITION} ou {@link DrawDetector#NO_CAPTURE}.
+     */
+    public int play(Position position, boolean capture) {
+        if (capture) { //Les positions précédentes ne peuvent plus se répéter
+            this.clear();
+            this.pliesWithoutCapture = 0;
+        } else {
+            this.pliesWithoutCapture++;
+        }
+
+        int count = this.push(position.getKey());
+
+        if (repetitions > 0 && count >= repetitions) {
+            this.result = REPETITION;
+        } else if (noCapturePlies > 0 && pliesWithoutCapture >= noCapturePlies) {
+            this.result = NO_CAPTURE;
+        } else {
+            this.result = NONE;
+        }
+
+        return result;
+    }
+
+    /**
+     * Ajoute une empreinte aux positions conservées, en oubliant la plus ancienne si le tampon est plein.
+     *
+     * @param key l'empreinte.
+     * @return le nombre d'apparitions de l'empreinte parmi les positions conservées.
+     */
+    private int push(long key) {
+        if (length == window.length) {
+            counts[this.find(window[(next - length) & (window.length - 1)])]--;
+            length--;
+        }
+
+        if (occupied >= keys.length * 3 / 4) { //Trop d'empreintes oubliées occupent encore la table
+            this.rebuild();
+        }
+
+        window[next++ & (window.length - 1)] = key;
+        length++;
+
+        int slot = this.find(key);
+
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            occupied++;
+        }
+
+        return ++counts[slot];
+    }
+
+    /**
+     * @param key une empreinte.
+     * @return la case de la table contenant l'empreinte, ou la case libre où l'insérer.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) key & mask;
+
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Reconstruit la table à partir des positions conservées, pour libérer les cases des empreintes oubliées.
+     */
+    private void rebuild() {
+        Arrays.fill(used, false);
+        Arrays.fill(counts, 0);
+        this.occupied = 0;
+
+        for (int i = next - length; i != next; i++) {
+            int slot = this.find(window[i & (window.length - 1)]);
+
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = window[i & (window.length - 1)];
+                occupied++;
+            }
+
+            counts[slot]++;
+        }
+    }
+
+    /**
+     * Oublie toutes les positions conservées.
+     */
+    private void clear() {
+        Arrays.fill(used, false);
+        Arrays.fill(counts, 0);
+        this.occupied = 0;
+        this.length = 0;
+    }
+
+    /**
+     * @param result un résultat de {@link DrawDetector#play(Position, boolean)}.
+     * @return la description du résultat.
+     */
+    public String describe(int result) {
+        switch (result) {
+            case REPETITION:
+                return repetitions + " répétitions de la position";
+            case NO_CAPTURE:
+                return noCapturePlies + " demi-coups sans prise";
+            default:
+                return "aucune nulle";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("repetitions", repetitions)
+                .add("noCapturePlies", noCapturePlies)
+                .add("pliesWithoutCapture", pliesWithoutCapture)
+                .add("result", result)
+                .toString();
+    }
+}
@@ -0,0 +1,54 @@
+package fr.uphf.etu.engine;
+
+/**
+ * Une interface commune aux moteurs capables de choisir un coup dans une position, quel que soit leur algorithme.
+ */
+public interface Engine {
+    /**
+     * Cherche le meilleur coup de la position.
+     *
+     * @param position la position.
+     * @param limits   le budget de la recherche.
+     * @return le résultat de la recherche.
+     */
+    SearchResult search(Position position, SearchLimits limits);
+
+    /**
+     * Demande l'arrêt de la recherche en cours, qui retournera son meilleur résultat dès que possible.
+     * Cette méthode peut être appelée depuis un autre fil d'exécution.
+     */
+    void stop();
+
+    /**
+     * Signale que l'adversaire a joué le coup prévu par une recherche d'anticipation ({@link SearchLimits#ponder(int)}) :
+     * elle devient la recherche du coup à jouer, et s'arrête après le temps donné compté à partir de maintenant.
+     * Cette méthode peut être appelée depuis un autre fil d'exécution, y compris juste avant que la recherche d'anticipation ne commence.
+     * <p>
+     * La recherche concernée est désignée par ses limites, l'instance même transmise à {@link Engine#search(Position, SearchLimits)} :
+     * une confirmation arrivant après la fin de cette recherche est ignorée, au lieu d'écourter la recherche suivante.
+     *
+     * @param limits les limites de la recherche d'anticipation confirmée.
+     * @param time   le temps restant en millisecondes, ou <i>0</i> pour un temps illimité.
+     */
+    void ponderhit(SearchLimits limits, long time);
+
+    /**
+     * Définit le nombre de variations principales suivies par les recherches suivantes : les meilleurs coups de la racine, chacun avec sa variation.
+     * Le résultat d'une recherche reste celui du meilleur coup ; les autres variations ne sont transmises qu'à l'observateur.
+     *
+     * @param lines le nombre de variations, au moins 1.
+     */
+    void setMultiPv(int lines);
+
+    /**
+     * Définit l'observateur notifié de la progression des recherches suivantes.
+     *
+     * @param listener l'observateur, ou {@code null} pour ne plus en notifier.
+     */
+    void setListener(SearchListener listener);
+
+    /**
+     * Libère les fils d'exécution du moteur. Le moteur ne doit plus être utilisé ensuite.
+     */
+    void shutdown();
+}
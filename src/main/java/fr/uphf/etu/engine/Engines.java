@@ -0,0 +1,87 @@
+package fr.uphf.etu.engine;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.BiConsumer;
+
+/**
+ * Une classe créant le moteur configuré par les propriétés système, partagée par l'interface graphique et par {@link Protocol} :
+ * <ul>
+ *     <li>{@code surakarta.ai.engine} : {@code mcts} pour la recherche Monte-Carlo, la recherche alpha-bêta sinon ;</li>
+ *     <li>{@code surakarta.ai.hash} : la mémoire du moteur en mégaoctets, {@link Engines#DEFAULT_HASH} par défaut ;</li>
+ *     <li>{@code surakarta.ai.threads} : le nombre de fils d'exécution, le nombre de processeurs par défaut ;</li>
+ *     <li>{@code surakarta.ai.weights} : le fichier des poids de l'évaluation alpha-bêta, les poids par défaut sinon ;</li>
+ *     <li>{@code surakarta.tablebase} : le dossier de la table de finales consultée par la recherche alpha-bêta, aucune sinon.</li>
+ * </ul>
+ */
+public final class Engines {
+    /**
+     * La mémoire du moteur par défaut, en mégaoctets.
+     */
+    public static final int DEFAULT_HASH = 64;
+
+    private Engines() {
+    }
+
+    /**
+     * Crée le moteur selon les propriétés système.
+     * Un fichier de poids ou une table de finales illisible n'empêche pas la création du moteur : l'erreur est transmise, et le moteur s'en passe.
+     *
+     * @param errors reçoit la description de chaque erreur de chargement et sa cause.
+     * @return le moteur.
+     */
+    public static Engine fromProperties(BiConsumer<String, Exception> errors) {
+        int megabytes = Integer.getInteger("surakarta.ai.hash", DEFAULT_HASH);
+        int threads = Integer.getInteger("surakarta.ai.threads", Runtime.getRuntime().availableProcessors());
+
+        if ("mcts".equalsIgnoreCase(System.getProperty("surakarta.ai.engine"))) {
+            return new Mcts(Mcts.capacity(megabytes), threads);
+        }
+
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(megabytes), threads, new WeightedEvaluator(loadWeights(errors)));
+        search.setTablebase(loadTablebase(errors));
+        return search;
+    }
+
+    /**
+     * Charge les poids de l'évaluation depuis le fichier donné par la propriété système {@code surakarta.ai.weights}.
+     *
+     * @param errors reçoit l'erreur de chargement éventuelle.
+     * @return les poids lus, ou les poids par défaut si la propriété n'est pas définie ou que le fichier est illisible.
+     */
+    private static EvaluationWeights loadWeights(BiConsumer<String, Exception> errors) {
+        String path = System.getProperty("surakarta.ai.weights");
+
+        if (path == null) {
+            return EvaluationWeights.DEFAULT;
+        }
+
+        try {
+            return EvaluationWeights.load(Paths.get(path));
+        } catch (IOException | IllegalArgumentException e) {
+            errors.accept("Impossible de charger les poids de l'évaluation depuis " + path, e);
+            return EvaluationWeights.DEFAULT;
+        }
+    }
+
+    /**
+     * Ouvre la table de finales du dossier donné par la propriété système {@code surakarta.tablebase}.
+     *
+     * @param errors reçoit l'erreur d'ouverture éventuelle.
+     * @return la table, ou {@code null} si la propriété n'est pas définie ou que le dossier est illisible.
+     */
+    private static Tablebase loadTablebase(BiConsumer<String, Exception> errors) {
+        String path = System.getProperty("surakarta.tablebase");
+
+        if (path == null) {
+            return null;
+        }
+
+        try {
+            return Tablebase.open(Paths.get(path));
+        } catch (IOException e) {
+            errors.accept("Impossible d'ouvrir la table de finales depuis " + path, e);
+            return null;
+        }
+    }
+}
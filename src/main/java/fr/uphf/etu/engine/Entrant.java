@@ -0,0 +1,117 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+/**
+ * Un participant d'un {@link Tournament} : un nom, une fabrique de moteurs et le budget accordé à chaque coup.
+ * <p>
+ * Chaque fil d'exécution du tournoi crée son propre moteur avec la fabrique, un moteur ne pouvant mener qu'une recherche à la fois.
+ */
+public final class Entrant {
+    /**
+     * La mémoire de chaque moteur créé par {@link Entrant#parse(String)}, en mégaoctets.
+     */
+    public static final int DEFAULT_HASH = 16;
+
+    /**
+     * Le nom du participant.
+     */
+    private final String name;
+
+    /**
+     * La fabrique des moteurs du participant.
+     */
+    private final Supplier<Engine> factory;
+
+    /**
+     * Le budget accordé à chaque coup.
+     */
+    private final SearchLimits limits;
+
+    /**
+     * Constructeur du participant.
+     *
+     * @param name    le nom du participant.
+     * @param factory la fabrique des moteurs du participant.
+     * @param limits  le budget accordé à chaque coup.
+     */
+    public Entrant(String name, Supplier<Engine> factory, SearchLimits limits) {
+        this.name = name;
+        this.factory = factory;
+        this.limits = limits;
+    }
+
+    /**
+     * Crée un participant à un seul fil d'exécution à partir de sa description {@code <moteur>[:<budget>[:<poids>]]}.
+     * Le moteur est {@code alphabeta} ou {@code mcts}, et le budget un temps en millisecondes ({@code 100}) ou une profondeur ({@code d4}).
+     * Le budget par défaut est de 100 millisecondes. Les poids, réservés à {@code alphabeta}, sont un fichier lu par {@link EvaluationWeights#load(java.nio.file.Path)} :
+     * deux jeux de poids peuvent ainsi s'affronter lors d'un tournoi.
+     *
+     * @param spec la description du participant, qui devient son nom.
+     * @return le participant.
+     * @throws IllegalArgumentException si la description est invalide.
+     */
+    public static Entrant parse(String spec) {
+        String[] parts = spec.split(":", 3);
+        SearchLimits limits;
+
+        try {
+            String budget = parts.length > 1 ? parts[1] : "100";
+            limits = budget.startsWith("d") ? SearchLimits.depth(Integer.parseInt(budget.substring(1))) : SearchLimits.time(Long.parseLong(budget));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Budget invalide : " + spec, e);
+        }
+
+        EvaluationWeights weights = EvaluationWeights.DEFAULT;
+
+        if (parts.length > 2) {
+            if (!parts[0].equals("alphabeta")) {
+                throw new IllegalArgumentException("Poids réservés au moteur alphabeta : " + spec);
+            }
+
+            try {
+                weights = EvaluationWeights.load(Paths.get(parts[2]));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Poids illisibles : " + spec, e);
+            }
+        }
+
+        EvaluationWeights evaluation = weights;
+
+        switch (parts[0]) {
+            case "alphabeta":
+                return new Entrant(spec, () -> new ParallelSearch(new TranspositionTable(DEFAULT_HASH), 1, new WeightedEvaluator(evaluation)), limits);
+            case "mcts":
+                return new Entrant(spec, () -> new Mcts(Mcts.capacity(DEFAULT_HASH), 1), limits);
+            default:
+                throw new IllegalArgumentException("Moteur inconnu : " + spec);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * @return un nouveau moteur pour ce participant.
+     */
+    public Engine createEngine() {
+        return factory.get();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("name", name)
+                .add("limits", limits)
+                .toString();
+    }
+}
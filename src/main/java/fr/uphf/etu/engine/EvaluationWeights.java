@@ -0,0 +1,167 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Les poids des termes de {@link WeightedEvaluator}, en centièmes de point de score.
+ * <p>
+ * Les poids se chargent depuis un fichier de propriétés ({@link EvaluationWeights#load(Path)}) pour être ajustés sans recompiler, par exemple :
+ * <pre>
+ * material = 100
+ * mobility = 2
+ * loop = 3
+ * entry = 2
+ * threat = 10
+ * defence = 6
+ * </pre>
+ * Les poids absents du fichier gardent leur valeur par défaut ({@link EvaluationWeights#DEFAULT}).
+ */
+public final class EvaluationWeights {
+    /**
+     * Les poids par défaut.
+     */
+    public static final EvaluationWeights DEFAULT = new EvaluationWeights(Search.PAWN, 2, 3, 2, 10, 6);
+
+    /**
+     * Le poids de chaque point de score d'avance.
+     */
+    private final int material;
+
+    /**
+     * Le poids de chaque déplacement simple possible.
+     */
+    private final int mobility;
+
+    /**
+     * Le poids de chaque passage d'un circuit par la case d'un pion.
+     */
+    private final int loop;
+
+    /**
+     * Le poids de chaque extrémité de courbe occupée par un pion, par laquelle il entre directement dans une boucle.
+     */
+    private final int entry;
+
+    /**
+     * Le poids de chaque pion adverse pouvant être pris.
+     */
+    private final int threat;
+
+    /**
+     * Le poids de chaque pion défendu, c'est-à-dire qu'un autre pion du même joueur pourrait reprendre s'il était pris.
+     */
+    private final int defence;
+
+    /**
+     * Constructeur des poids.
+     *
+     * @param material le poids d'un point de score d'avance.
+     * @param mobility le poids d'un déplacement simple possible.
+     * @param loop     le poids d'un passage de circuit par la case d'un pion.
+     * @param entry    le poids d'une extrémité de courbe occupée.
+     * @param threat   le poids d'un pion adverse pouvant être pris.
+     * @param defence  le poids d'un pion défendu.
+     */
+    public EvaluationWeights(int material, int mobility, int loop, int entry, int threat, int defence) {
+        this.material = material;
+        this.mobility = mobility;
+        this.loop = loop;
+        this.entry = entry;
+        this.threat = threat;
+        this.defence = defence;
+    }
+
+    /**
+     * Lit les poids depuis des propriétés, les poids absents gardant leur valeur par défaut.
+     *
+     * @param properties les propriétés.
+     * @return les poids.
+     * @throws IllegalArgumentException si un poids n'est pas un entier.
+     */
+    public static EvaluationWeights parse(Properties properties) {
+        return new EvaluationWeights(
+                weight(properties, "material", DEFAULT.material),
+                weight(properties, "mobility", DEFAULT.mobility),
+                weight(properties, "loop", DEFAULT.loop),
+                weight(properties, "entry", DEFAULT.entry),
+                weight(properties, "threat", DEFAULT.threat),
+                weight(properties, "defence", DEFAULT.defence));
+    }
+
+    /**
+     * Lit les poids depuis un fichier de propriétés.
+     *
+     * @param path le chemin du fichier.
+     * @return les poids.
+     * @throws IOException              si le fichier ne peut pas être lu.
+     * @throws IllegalArgumentException si un poids n'est pas un entier.
+     */
+    public static EvaluationWeights load(Path path) throws IOException {
+        Properties properties = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        return parse(properties);
+    }
+
+    /**
+     * @param properties   les propriétés.
+     * @param name         le nom du poids.
+     * @param defaultValue la valeur par défaut.
+     * @return la valeur du poids.
+     */
+    private static int weight(Properties properties, String name, int defaultValue) {
+        String value = properties.getProperty(name);
+
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Poids invalide : " + name + " = " + value, e);
+        }
+    }
+
+    public int getMaterial() {
+        return material;
+    }
+
+    public int getMobility() {
+        return mobility;
+    }
+
+    public int getLoop() {
+        return loop;
+    }
+
+    public int getEntry() {
+        return entry;
+    }
+
+    public int getThreat() {
+        return threat;
+    }
+
+    public int getDefence() {
+        return defence;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("material", material)
+                .add("mobility", mobility)
+                .add("loop", loop)
+                .add("entry", entry)
+                .add("threat", threat)
+                .add("defence", defence)
+                .toString();
+    }
+}
@@ -0,0 +1,53 @@
+package fr.uphf.etu.engine;
+
+/**
+ * Une interface commune aux fonctions d'évaluation utilisées par {@link Search}.
+ * <p>
+ * Une évaluation peut être mise à jour incrémentalement : la recherche appelle {@link Evaluator#reset(Position)} sur la position racine,
+ * puis {@link Evaluator#makeMove(Position, int)} et {@link Evaluator#unmakeMove(Position, int)} autour de chaque coup joué et annulé sur place.
+ * Une évaluation qui ne conserve aucun état peut ignorer ces appels.
+ * <p>
+ * Une instance n'est utilisée que par un fil d'exécution à la fois : chaque recherche travaille sur sa propre copie ({@link Evaluator#copy()}).
+ */
+public interface Evaluator {
+    /**
+     * Évalue une position du point de vue du joueur qui doit jouer.
+     *
+     * @param position la position, qui doit être celle suivie depuis le dernier {@link Evaluator#reset(Position)}.
+     * @return l'évaluation de la position, en centièmes de point de score.
+     */
+    int evaluate(Position position);
+
+    /**
+     * Recalcule entièrement l'état incrémental pour une position.
+     *
+     * @param position la position.
+     */
+    default void reset(Position position) {
+    }
+
+    /**
+     * Met à jour l'état incrémental pour un coup sur le point d'être joué.
+     *
+     * @param position la position avant le coup.
+     * @param move     le coup, au format de {@link Move}.
+     */
+    default void makeMove(Position position, int move) {
+    }
+
+    /**
+     * Restaure l'état incrémental après l'annulation d'un coup.
+     *
+     * @param position la position après l'annulation, c'est-à-dire avant le coup.
+     * @param move     le coup annulé, au format de {@link Move}.
+     */
+    default void unmakeMove(Position position, int move) {
+    }
+
+    /**
+     * @return une évaluation de mêmes paramètres et d'état indépendant, ou cette instance si elle ne conserve aucun état.
+     */
+    default Evaluator copy() {
+        return this;
+    }
+}
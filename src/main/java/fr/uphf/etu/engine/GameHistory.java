@@ -0,0 +1,262 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * L'historique des coups d'une partie, permettant d'annuler et de rétablir des coups, et de revenir à n'importe quel demi-coup.
+ * <p>
+ * Les coups sont stockés dans un tableau circulaire de {@code short} (deux octets par coup), et la position est mémorisée tous les {@link GameHistory#SNAPSHOT_INTERVAL} demi-coups
+ * dans des tableaux de primitives. Revenir à un demi-coup recharge la position mémorisée précédente puis rejoue au plus {@link GameHistory#SNAPSHOT_INTERVAL} - 1 coups : son coût ne dépend pas
+ * de la longueur de la partie. La mémoire est bornée par la capacité : au-delà, les coups les plus anciens sont oubliés par blocs.
+ * <p>
+ * Les demi-coups sont numérotés depuis le début de la partie, le demi-coup <i>n</i> étant la position après <i>n</i> coups.
+ */
+public final class GameHistory {
+    /**
+     * Le nombre de demi-coups entre deux positions mémorisées.
+     */
+    public static final int SNAPSHOT_INTERVAL = 32;
+
+    /**
+     * La capacité par défaut, en coups.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Les coups joués, le coup du demi-coup <i>n</i> étant à l'indice {@code n & mask}.
+     */
+    private final short[] moves;
+
+    /**
+     * Le masque appliqué aux demi-coups pour obtenir leur indice dans {@link GameHistory#moves}.
+     */
+    private final int mask;
+
+    /**
+     * Les pions du joueur 1 de chaque position mémorisée.
+     */
+    private final long[] snapshotPawnsP1;
+
+    /**
+     * Les pions du joueur 2 de chaque position mémorisée.
+     */
+    private final long[] snapshotPawnsP2;
+
+    /**
+     * Le joueur qui doit jouer (bit 0) et les scores (bits 1 à 4 et 5 à 8) de chaque position mémorisée.
+     */
+    private final int[] snapshotStates;
+
+    /**
+     * Le masque appliqué aux numéros de position mémorisée pour obtenir leur indice.
+     */
+    private final int snapshotMask;
+
+    /**
+     * Le premier demi-coup encore disponible, multiple de {@link GameHistory#SNAPSHOT_INTERVAL}.
+     */
+    private int first;
+
+    /**
+     * Le nombre de demi-coups enregistrés, coups annulés compris.
+     */
+    private int size;
+
+    /**
+     * Le demi-coup actuel.
+     */
+    private int ply;
+
+    /**
+     * La position du demi-coup actuel.
+     */
+    private Position current;
+
+    /**
+     * Constructeur de l'historique, avec la capacité par défaut.
+     *
+     * @param start la position de départ.
+     */
+    public GameHistory(Position start) {
+        this(start, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructeur de l'historique.
+     *
+     * @param start    la position de départ.
+     * @param capacity le nombre de coups conservés, arrondi à une puissance de 2 d'au moins 2 * {@link GameHistory#SNAPSHOT_INTERVAL}.
+     */
+    public GameHistory(Position start, int capacity) {
+        capacity = Math.max(2 * SNAPSHOT_INTERVAL, Integer.highestOneBit(capacity - 1) << 1);
+        int snapshots = 2 * capacity / SNAPSHOT_INTERVAL;
+
+        this.moves = new short[capacity];
+        this.mask = capacity - 1;
+        this.snapshotPawnsP1 = new long[snapshots];
+        this.snapshotPawnsP2 = new long[snapshots];
+        this.snapshotStates = new int[snapshots];
+        this.snapshotMask = snapshots - 1;
+        this.current = start.copy();
+
+        this.snapshot(0, this.current);
+    }
+
+    /**
+     * Enregistre un coup joué au demi-coup actuel. Les coups annulés qui le suivaient sont oubliés.
+     *
+     * @param move le coup, au format de {@link Move}.
+     */
+    public void record(int move) {
+        moves[ply & mask] = (short) move;
+        this.current = current.play(move);
+        this.ply++;
+        this.size = ply;
+
+        if (ply % SNAPSHOT_INTERVAL == 0) {
+            this.snapshot(ply, current);
+        }
+
+        if (size - first > moves.length) { //Le plus ancien bloc de coups a été écrasé
+            this.first += SNAPSHOT_INTERVAL;
+        }
+    }
+
+    /**
+     * @return {@code true} si un coup peut être annulé.
+     */
+    public boolean canUndo() {
+        return ply > first;
+    }
+
+    /**
+     * @return {@code true} si un coup annulé peut être rétabli.
+     */
+    public boolean canRedo() {
+        return ply < size;
+    }
+
+    /**
+     * Annule le dernier coup.
+     *
+     * @return la position précédant ce coup.
+     * @throws IllegalStateException si aucun coup ne peut être annulé.
+     */
+    public Position undo() {
+        if (!this.canUndo()) {
+            throw new IllegalStateException("Aucun coup à annuler");
+        }
+
+        return this.jump(ply - 1);
+    }
+
+    /**
+     * Rétablit le dernier coup annulé.
+     *
+     * @return la position suivant ce coup.
+     * @throws IllegalStateException si aucun coup ne peut être rétabli.
+     */
+    public Position redo() {
+        if (!this.canRedo()) {
+            throw new IllegalStateException("Aucun coup à rétablir");
+        }
+
+        return this.jump(ply + 1);
+    }
+
+    /**
+     * Revient à un demi-coup, sans oublier les coups qui le suivent.
+     *
+     * @param ply le demi-coup, entre {@link GameHistory#first()} et {@link GameHistory#size()}.
+     * @return la position de ce demi-coup.
+     */
+    public Position jump(int ply) {
+        this.current = this.position(ply);
+        this.ply = ply;
+
+        return current.copy();
+    }
+
+    /**
+     * Reconstruit la position d'un demi-coup à partir de la position mémorisée précédente.
+     *
+     * @param ply le demi-coup, entre {@link GameHistory#first()} et {@link GameHistory#size()}.
+     * @return la position de ce demi-coup.
+     * @throws IndexOutOfBoundsException si le demi-coup n'est pas disponible.
+     */
+    public Position position(int ply) {
+        if (ply < first || ply > size) {
+            throw new IndexOutOfBoundsException("Demi-coup " + ply + " hors de l'historique [" + first + ", " + size + "]");
+        }
+
+        int snapshot = ply / SNAPSHOT_INTERVAL;
+        int index = snapshot & snapshotMask;
+        int state = snapshotStates[index];
+        Position position = new Position(snapshotPawnsP1[index], snapshotPawnsP2[index], state & 1, (state >>> 1) & 0xF, (state >>> 5) & 0xF);
+
+        for (int i = snapshot * SNAPSHOT_INTERVAL; i < ply; i++) {
+            position = position.play(this.move(i));
+        }
+
+        return position;
+    }
+
+    /**
+     * @param ply le demi-coup, entre {@link GameHistory#first()} et {@link GameHistory#size()} exclu.
+     * @return le coup joué à ce demi-coup.
+     */
+    public int move(int ply) {
+        return moves[ply & mask] & 0xFFFF;
+    }
+
+    /**
+     * @return une copie de la position du demi-coup actuel.
+     */
+    public Position current() {
+        return current.copy();
+    }
+
+    /**
+     * @return le demi-coup actuel.
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * @return le premier demi-coup encore disponible, <i>0</i> tant que la capacité n'a pas été dépassée.
+     */
+    public int first() {
+        return first;
+    }
+
+    /**
+     * @return le nombre de demi-coups enregistrés, coups annulés compris.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Mémorise la position d'un demi-coup multiple de {@link GameHistory#SNAPSHOT_INTERVAL}.
+     *
+     * @param ply      le demi-coup.
+     * @param position la position.
+     */
+    private void snapshot(int ply, Position position) {
+        int index = (ply / SNAPSHOT_INTERVAL) & snapshotMask;
+
+        snapshotPawnsP1[index] = position.pawns(Position.P1);
+        snapshotPawnsP2[index] = position.pawns(Position.P2);
+        snapshotStates[index] = position.getSideToMove() | position.score(Position.P1) << 1 | position.score(Position.P2) << 5;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("first", first)
+                .add("ply", ply)
+                .add("size", size)
+                .toString();
+    }
+}
@@ -0,0 +1,273 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * L'enregistrement d'une partie jouée depuis la position de départ : le nom de chaque joueur, s'il s'agit d'une IA, le résultat et les coups.
+ * <p>
+ * Une partie s'archive au format binaire de {@link GameRecordWriter}, ou s'écrit en notation textuelle ({@link GameRecord#toText()}) :
+ * des étiquettes {@code [Nom "valeur"]}, puis les coups numérotés, par exemple {@code 1. b2-c3 e5-d4 2. a2xd4}, et enfin le résultat.
+ */
+public final class GameRecord {
+    /**
+     * Le résultat d'une partie non terminée. Les autres résultats sont {@link Position#P1}, {@link Position#P2}, et {@link Position#NONE} pour une partie nulle.
+     */
+    public static final int UNFINISHED = -2;
+
+    /**
+     * Une étiquette de la notation textuelle.
+     */
+    private static final Pattern TAG = Pattern.compile("\\[(\\w+)\\s+\"([^\"]*)\"]");
+
+    /**
+     * Le nom de chaque joueur.
+     */
+    private final String[] names;
+
+    /**
+     * Vrai pour chaque joueur contrôlé par une IA.
+     */
+    private final boolean[] ai;
+
+    /**
+     * Le résultat de la partie.
+     */
+    private final int result;
+
+    /**
+     * Les coups, au format de {@link Move}.
+     */
+    private final int[] moves;
+
+    /**
+     * Constructeur de l'enregistrement.
+     *
+     * @param nameP1 le nom du joueur 1.
+     * @param nameP2 le nom du joueur 2.
+     * @param aiP1   {@code true} si le joueur 1 est une IA.
+     * @param aiP2   {@code true} si le joueur 2 est une IA.
+     * @param result le résultat : {@link Position#P1}, {@link Position#P2}, {@link Position#NONE} ou {@link GameRecord#UNFINISHED}.
+     * @param moves  les coups, au format de {@link Move}.
+     * @throws IllegalArgumentException si le résultat est invalide.
+     */
+    public GameRecord(String nameP1, String nameP2, boolean aiP1, boolean aiP2, int result, int[] moves) {
+        if (result < UNFINISHED || result > Position.P2) {
+            throw new IllegalArgumentException("Résultat invalide : " + result);
+        }
+
+        this.names = new String[]{nameP1, nameP2};
+        this.ai = new boolean[]{aiP1, aiP2};
+        this.result = result;
+        this.moves = moves.clone();
+    }
+
+    /**
+     * @param player le joueur.
+     * @return le nom du joueur.
+     */
+    public String getName(int player) {
+        return names[player];
+    }
+
+    /**
+     * @param player le joueur.
+     * @return {@code true} si le joueur est une IA.
+     */
+    public boolean isAI(int player) {
+        return ai[player];
+    }
+
+    public int getResult() {
+        return result;
+    }
+
+    /**
+     * @return le nombre de coups.
+     */
+    public int size() {
+        return moves.length;
+    }
+
+    /**
+     * @param index l'indice du coup.
+     * @return le coup, au format de {@link Move}.
+     */
+    public int move(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @return une copie des coups.
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Rejoue la partie depuis la position de départ en vérifiant chaque coup.
+     *
+     * @return la position finale.
+     * @throws IllegalArgumentException si un coup est illégal.
+     */
+    public Position replay() {
+        Position position = Position.start();
+
+        for (int i = 0; i < moves.length; i++) {
+            if (!MoveGenerator.isLegal(position, moves[i])) {
+                throw new IllegalArgumentException("Coup " + (i + 1) + " illégal : " + Move.toString(moves[i]));
+            }
+
+            position = position.play(moves[i]);
+        }
+
+        return position;
+    }
+
+    /**
+     * Écrit la partie en notation textuelle.
+     *
+     * @return la partie, sur plusieurs lignes.
+     */
+    public String toText() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("[P1 \"").append(names[Position.P1]).append("\"]\n");
+        builder.append("[P2 \"").append(names[Position.P2]).append("\"]\n");
+        builder.append("[AIP1 \"").append(ai[Position.P1]).append("\"]\n");
+        builder.append("[AIP2 \"").append(ai[Position.P2]).append("\"]\n");
+        builder.append("[Result \"").append(resultText(result)).append("\"]\n\n");
+
+        for (int i = 0; i < moves.length; i++) {
+            if (i % 2 == 0) {
+                builder.append(i / 2 + 1).append(". ");
+            }
+
+            builder.append(Move.toString(moves[i])).append(i % 10 == 9 ? '\n' : ' ');
+        }
+
+        return builder.append(resultText(result)).append('\n').toString();
+    }
+
+    /**
+     * Lit une partie en notation textuelle. Les numéros de coups sont facultatifs, et les étiquettes absentes prennent une valeur par défaut.
+     *
+     * @param text la partie, au format de {@link GameRecord#toText()}.
+     * @return l'enregistrement de la partie.
+     * @throws IllegalArgumentException si un coup ou le résultat est invalide.
+     */
+    public static GameRecord parse(String text) {
+        String[] names = {"", ""};
+        boolean[] ai = new boolean[2];
+        int result = UNFINISHED;
+
+        Matcher matcher = TAG.matcher(text);
+
+        while (matcher.find()) {
+            String value = matcher.group(2);
+
+            switch (matcher.group(1)) {
+                case "P1":
+                    names[Position.P1] = value;
+                    break;
+                case "P2":
+                    names[Position.P2] = value;
+                    break;
+                case "AIP1":
+                    ai[Position.P1] = Boolean.parseBoolean(value);
+                    break;
+                case "AIP2":
+                    ai[Position.P2] = Boolean.parseBoolean(value);
+                    break;
+                case "Result":
+                    result = parseResult(value);
+                    break;
+                default: //Étiquette inconnue, ignorée
+            }
+        }
+
+        String[] tokens = TAG.matcher(text).replaceAll(" ").trim().split("\\s+");
+        int[] moves = new int[tokens.length];
+        int count = 0;
+
+        for (String token : tokens) {
+            if (token.isEmpty() || token.endsWith(".")) { //Numéro de coup
+                continue;
+            }
+
+            if (token.length() == 5) {
+                moves[count++] = Move.parse(token);
+            } else {
+                result = parseResult(token);
+            }
+        }
+
+        return new GameRecord(names[Position.P1], names[Position.P2], ai[Position.P1], ai[Position.P2], result, Arrays.copyOf(moves, count));
+    }
+
+    /**
+     * @param result le résultat.
+     * @return la notation du résultat : {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} ou {@code *}.
+     */
+    public static String resultText(int result) {
+        switch (result) {
+            case Position.P1:
+                return "1-0";
+            case Position.P2:
+                return "0-1";
+            case Position.NONE:
+                return "1/2-1/2";
+            default:
+                return "*";
+        }
+    }
+
+    /**
+     * @param text la notation d'un résultat.
+     * @return le résultat.
+     * @throws IllegalArgumentException si la notation est invalide.
+     */
+    private static int parseResult(String text) {
+        switch (text) {
+            case "1-0":
+                return Position.P1;
+            case "0-1":
+                return Position.P2;
+            case "1/2-1/2":
+                return Position.NONE;
+            case "*":
+                return UNFINISHED;
+            default:
+                throw new IllegalArgumentException("Résultat ou coup invalide : " + text);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameRecord)) return false;
+
+        GameRecord record = (GameRecord) o;
+        return result == record.result && Arrays.equals(names, record.names) && Arrays.equals(ai, record.ai) && Arrays.equals(moves, record.moves);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * Arrays.hashCode(names) + Arrays.hashCode(ai)) + result) + Arrays.hashCode(moves);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("nameP1", names[Position.P1])
+                .add("nameP2", names[Position.P2])
+                .add("aiP1", ai[Position.P1])
+                .add("aiP2", ai[Position.P2])
+                .add("result", resultText(result))
+                .add("moves", moves.length)
+                .toString();
+    }
+}
@@ -0,0 +1,234 @@
+package fr.uphf.etu.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lit une à une les parties d'une archive écrite par {@link GameRecordWriter}.
+ * <p>
+ * L'archive est projetée en mémoire par fenêtres successives de {@link GameRecordReader#WINDOW} octets : une archive de plusieurs gigaoctets se parcourt
+ * sans être chargée entièrement, le système ne lisant que les pages parcourues.
+ */
+public class GameRecordReader implements Iterator<GameRecord>, Closeable {
+    /**
+     * La taille d'une fenêtre de projection, en octets.
+     */
+    static final int WINDOW = 1 << 28;
+
+    /**
+     * La taille des fenêtres de projection de cette archive, en octets.
+     */
+    private final int window;
+
+    /**
+     * Le fichier de l'archive.
+     */
+    private final FileChannel channel;
+
+    /**
+     * La taille de l'archive, en octets.
+     */
+    private final long size;
+
+    /**
+     * La fenêtre actuelle.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * La position de la fenêtre actuelle dans l'archive.
+     */
+    private long offset;
+
+    /**
+     * Les coups de la partie en cours de lecture, réutilisés d'une partie à l'autre.
+     */
+    private int[] moves = new int[256];
+
+    /**
+     * Ouvre une archive.
+     *
+     * @param path le chemin de l'archive.
+     * @throws IOException si l'archive ne peut pas être ouverte ou si son en-tête est invalide.
+     */
+    public GameRecordReader(Path path) throws IOException {
+        this(path, WINDOW);
+    }
+
+    /**
+     * Ouvre une archive avec une taille de fenêtre donnée.
+     *
+     * @param path   le chemin de l'archive.
+     * @param window la taille des fenêtres de projection, en octets.
+     * @throws IOException si l'archive ne peut pas être ouverte ou si son en-tête est invalide.
+     */
+    GameRecordReader(Path path, int window) throws IOException {
+        this.window = window;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.map(0, 0);
+
+        byte[] magic = new byte[GameRecordWriter.MAGIC.length];
+
+        if (buffer.remaining() < magic.length + 1) {
+            channel.close();
+            throw new IOException("Archive invalide : " + path);
+        }
+
+        buffer.get(magic);
+        int version = buffer.get();
+
+        if (!Arrays.equals(magic, GameRecordWriter.MAGIC) || version != GameRecordWriter.VERSION) {
+            channel.close();
+            throw new IOException("Archive invalide ou version non prise en charge : " + path);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return offset + buffer.position() < size;
+    }
+
+    /**
+     * Lit la partie suivante.
+     *
+     * @return la partie.
+     * @throws NoSuchElementException s'il n'y a plus de partie.
+     * @throws UncheckedIOException si l'archive est tronquée ou ne peut pas être lue.
+     */
+    @Override
+    public GameRecord next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            this.ensure(5);
+            int length = this.readVarint();
+            this.ensure(length);
+
+            int flags = this.readVarint();
+            String nameP1 = this.readString();
+            String nameP2 = this.readString();
+            int count = this.readVarint();
+
+            if (count > moves.length) {
+                this.moves = new int[Math.max(count, moves.length * 2)];
+            }
+
+            for (int i = 0; i < count; i++) {
+                moves[i] = this.readVarint();
+            }
+
+            return new GameRecord(nameP1, nameP2, (flags & 1) != 0, (flags & 2) != 0, GameRecordWriter.decodeResult((flags >>> 2) & 3), Arrays.copyOf(moves, count));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compte les parties restantes en sautant leur contenu, sans les décoder.
+     *
+     * @return le nombre de parties restantes.
+     */
+    public long skipAll() {
+        long count = 0;
+
+        try {
+            while (this.hasNext()) {
+                this.ensure(5);
+                int length = this.readVarint();
+                this.ensure(length);
+
+                buffer.position(buffer.position() + length);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Déplace la fenêtre si elle contient moins d'octets que nécessaire avant sa fin, sans dépasser la fin de l'archive.
+     *
+     * @param bytes le nombre d'octets nécessaires.
+     * @throws IOException si l'archive est tronquée ou ne peut pas être lue.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes && offset + buffer.limit() < size) {
+            this.map(offset + buffer.position(), bytes);
+        }
+
+        if (bytes > GameRecordWriter.MAX_RECORD_SIZE || buffer.remaining() < Math.min(bytes, size - offset - buffer.position())) {
+            throw new IOException("Archive tronquée à l'octet " + (offset + buffer.position()));
+        }
+    }
+
+    /**
+     * Projette une fenêtre de l'archive en mémoire.
+     *
+     * @param position la position du début de la fenêtre dans l'archive.
+     * @param minimum  la taille minimale de la fenêtre, si l'archive est assez longue.
+     * @throws IOException si l'archive ne peut pas être lue.
+     */
+    private void map(long position, int minimum) throws IOException {
+        this.offset = position;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(window, minimum), size - position));
+    }
+
+    /**
+     * @return l'entier lu au format <i>varint</i>.
+     * @throws IOException si l'entier est invalide.
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                break;
+            }
+
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Entier invalide à l'octet " + (offset + buffer.position()));
+    }
+
+    /**
+     * @return la chaîne lue : sa taille puis ses octets UTF-8.
+     * @throws IOException si la chaîne est invalide.
+     */
+    private String readString() throws IOException {
+        int length = this.readVarint();
+
+        if (length > buffer.remaining()) {
+            throw new IOException("Chaîne invalide à l'octet " + (offset + buffer.position()));
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
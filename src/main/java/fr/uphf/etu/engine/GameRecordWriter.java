@@ -0,0 +1,178 @@
+package fr.uphf.etu.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Écrit des parties à la suite dans une archive binaire compacte, lisible par {@link GameRecordReader}.
+ * <p>
+ * L'archive commence par l'en-tête {@link GameRecordWriter#MAGIC} suivi de la version du format, puis contient les parties les unes après les autres.
+ * Chaque partie est précédée de sa taille en octets, ce qui permet de la sauter sans la décoder, puis contient :
+ * <ul>
+ * <li>un octet d'indicateurs : IA pour le joueur 1 (bit 0), IA pour le joueur 2 (bit 1), résultat (bits 2 et 3 : non terminée, joueur 1, joueur 2, nulle) ;</li>
+ * <li>le nom de chaque joueur : sa taille en octets puis ses octets UTF-8 ;</li>
+ * <li>le nombre de coups, puis chaque coup au format de {@link Move}.</li>
+ * </ul>
+ * Tous les entiers sont des <i>varints</i> : 7 bits par octet, le bit de poids fort indiquant qu'un octet suit. Un coup occupe ainsi un ou deux octets.
+ */
+public class GameRecordWriter implements Closeable {
+    /**
+     * Les premiers octets d'une archive.
+     */
+    static final byte[] MAGIC = {'S', 'K', 'G', 'R'};
+
+    /**
+     * La version du format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * La taille maximale d'une partie encodée, en octets.
+     */
+    static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /**
+     * Le flux de sortie.
+     */
+    private final OutputStream output;
+
+    /**
+     * Le tampon recevant chaque partie encodée, réutilisé d'une partie à l'autre.
+     */
+    private byte[] buffer = new byte[256];
+
+    /**
+     * La taille de la partie en cours d'encodage.
+     */
+    private int length;
+
+    /**
+     * Ouvre une archive en ajout, en écrivant l'en-tête si elle est vide ou n'existe pas.
+     *
+     * @param path le chemin de l'archive.
+     * @throws IOException si l'archive ne peut pas être ouverte.
+     */
+    public GameRecordWriter(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        boolean empty = Files.notExists(path) || Files.size(path) == 0;
+        this.output = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+
+        if (empty) {
+            this.output.write(MAGIC);
+            this.output.write(VERSION);
+        }
+    }
+
+    /**
+     * Ajoute une partie à l'archive.
+     * Cette méthode peut être appelée par plusieurs fils d'exécution.
+     *
+     * @param record la partie.
+     * @throws IOException si l'écriture échoue.
+     * @throws IllegalArgumentException si la partie encodée dépasse {@link GameRecordWriter#MAX_RECORD_SIZE}.
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        this.length = 0;
+
+        int flags = (record.isAI(Position.P1) ? 1 : 0) | (record.isAI(Position.P2) ? 2 : 0) | encodeResult(record.getResult()) << 2;
+        this.writeVarint(flags);
+        this.writeString(record.getName(Position.P1));
+        this.writeString(record.getName(Position.P2));
+        this.writeVarint(record.size());
+
+        for (int i = 0; i < record.size(); i++) {
+            this.writeVarint(record.move(i));
+        }
+
+        if (length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Partie trop longue : " + length + " octets");
+        }
+
+        int size = length;
+        this.writeVarint(size); //La taille est encodée à la suite, puis écrite en premier
+        output.write(buffer, size, length - size);
+        output.write(buffer, 0, size);
+    }
+
+    /**
+     * Force l'écriture des parties en attente.
+     *
+     * @throws IOException si l'écriture échoue.
+     */
+    public synchronized void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+
+    /**
+     * @param result le résultat d'une partie.
+     * @return le résultat sur 2 bits.
+     */
+    static int encodeResult(int result) {
+        return result == GameRecord.UNFINISHED ? 0 : result == Position.NONE ? 3 : result + 1;
+    }
+
+    /**
+     * @param bits le résultat sur 2 bits.
+     * @return le résultat d'une partie.
+     */
+    static int decodeResult(int bits) {
+        return bits == 0 ? GameRecord.UNFINISHED : bits == 3 ? Position.NONE : bits - 1;
+    }
+
+    /**
+     * Ajoute un entier positif au tampon, au format <i>varint</i>.
+     *
+     * @param value l'entier.
+     */
+    private void writeVarint(int value) {
+        this.ensure(5);
+
+        while ((value & ~0x7F) != 0) {
+            buffer[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+
+        buffer[length++] = (byte) value;
+    }
+
+    /**
+     * Ajoute une chaîne au tampon : sa taille puis ses octets UTF-8.
+     *
+     * @param value la chaîne.
+     */
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        this.writeVarint(bytes.length);
+        this.ensure(bytes.length);
+
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        this.length += bytes.length;
+    }
+
+    /**
+     * Agrandit le tampon si nécessaire.
+     *
+     * @param bytes le nombre d'octets à ajouter.
+     */
+    private void ensure(int bytes) {
+        if (length + bytes > buffer.length) {
+            this.buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+        }
+    }
+}
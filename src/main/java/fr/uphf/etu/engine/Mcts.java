@@ -0,0 +1,590 @@
+package fr.uphf.etu.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Un moteur cherchant le meilleur coup par une recherche arborescente Monte-Carlo (<i>MCTS</i>) guidée par la formule UCT.
+ * <p>
+ * L'arbre est stocké dans des tableaux préalloués plutôt que dans des objets : chaque noeud est un indice, et les fils d'un noeud occupent des indices consécutifs
+ * réservés d'un seul coup lors de son développement. Les parties simulées jouent des coups aléatoires, en privilégiant les prises :
+ * chaque fil d'exécution joue et annule les coups sur sa propre copie de la racine ({@link Position#makeMove(int)}), sans créer d'objet par demi-coup.
+ * <p>
+ * Plusieurs fils d'exécution développent le même arbre. Chaque noeud traversé reçoit une <i>perte virtuelle</i> jusqu'à la fin de sa simulation,
+ * ce qui pousse les autres fils vers d'autres branches. Le développement d'un noeud est réservé par une opération atomique à un seul fil.
+ * <p>
+ * L'évaluation retournée est le taux de victoire du meilleur coup ramené entre {@code -1000} et {@code 1000}, et le nombre de noeuds celui des simulations.
+ * Les variations principales suivies pour l'analyse sont celles des fils de la racine les plus visités, transmises à intervalles réguliers à un {@link SearchListener}.
+ */
+public class Mcts implements Engine {
+    /**
+     * La constante d'exploration de la formule UCT.
+     */
+    public static final double EXPLORATION = 1.4;
+
+    /**
+     * Le nombre de simulations d'une recherche sans limite de temps.
+     */
+    public static final int DEFAULT_PLAYOUTS = 100_000;
+
+    /**
+     * La mémoire occupée par un noeud, en octets : trois {@code int} et trois entiers atomiques.
+     */
+    public static final int NODE_SIZE = 6 * Integer.BYTES;
+
+    /**
+     * Le nombre maximal de noeuds, borné par la taille maximale d'un tableau Java.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    /**
+     * Le nombre de défaites ajoutées provisoirement à un noeud traversé par une simulation en cours.
+     */
+    private static final int VIRTUAL_LOSS = 3;
+
+    /**
+     * Le nombre maximal de demi-coups d'une simulation, au-delà duquel la partie est départagée au score.
+     */
+    private static final int MAX_PLAYOUT = 256;
+
+    /**
+     * La profondeur maximale d'une descente dans l'arbre.
+     */
+    private static final int MAX_TREE_DEPTH = 512;
+
+    /**
+     * Le nombre maximal de coups de la variation principale retournée.
+     */
+    private static final int MAX_PV = 16;
+
+    /**
+     * L'intervalle entre deux notifications de l'observateur, en nanosecondes.
+     */
+    private static final long REPORT_INTERVAL = 100_000_000;
+
+    /**
+     * État d'un noeud dont les fils n'ont pas été créés.
+     */
+    private static final int LEAF = 0;
+
+    /**
+     * État d'un noeud dont les fils sont en cours de création par un fil d'exécution.
+     */
+    private static final int EXPANDING = 1;
+
+    /**
+     * État d'un noeud dont les fils sont créés.
+     */
+    private static final int EXPANDED = 2;
+
+    /**
+     * Le coup menant à chaque noeud.
+     */
+    private final int[] moves;
+
+    /**
+     * L'indice du premier fils de chaque noeud.
+     */
+    private final int[] firstChild;
+
+    /**
+     * Le nombre de fils de chaque noeud.
+     */
+    private final int[] childCount;
+
+    /**
+     * Le nombre de simulations passées par chaque noeud, pertes virtuelles comprises.
+     */
+    private final AtomicIntegerArray visits;
+
+    /**
+     * Les demi-points gagnés par le joueur ayant joué le coup menant à chaque noeud : <i>2</i> par victoire, <i>1</i> par partie nulle.
+     */
+    private final AtomicIntegerArray wins;
+
+    /**
+     * L'état de développement de chaque noeud.
+     */
+    private final AtomicIntegerArray states;
+
+    /**
+     * Le nombre de noeuds utilisés.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Le nombre de simulations de la recherche en cours.
+     */
+    private final AtomicLong playouts = new AtomicLong();
+
+    /**
+     * Les fils d'exécution auxiliaires, ou {@code null} si un seul fil est utilisé.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Le nombre de fils d'exécution.
+     */
+    private final int threads;
+
+    /**
+     * Le nombre de variations principales suivies.
+     */
+    private int multiPv = 1;
+
+    /**
+     * L'observateur notifié pendant la recherche, ou {@code null}.
+     */
+    private SearchListener listener;
+
+    /**
+     * Le moment auquel la recherche en cours a commencé, en nanosecondes.
+     */
+    private long start;
+
+    /**
+     * Demande l'arrêt de la recherche en cours.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Le moment auquel la recherche d'anticipation confirmée doit s'arrêter, en nanosecondes.
+     */
+    private volatile long ponderDeadline = Long.MAX_VALUE;
+
+    /**
+     * Le nombre maximal de simulations de la recherche d'anticipation confirmée.
+     */
+    private volatile long ponderBudget = Long.MAX_VALUE;
+
+    /**
+     * Les limites de la recherche d'anticipation confirmée par le dernier {@link Mcts#ponderhit(SearchLimits, long)}, ou {@code null}.
+     * Écrites après {@link Mcts#ponderDeadline} et {@link Mcts#ponderBudget}, elles les publient aux fils de la recherche.
+     */
+    private volatile SearchLimits confirmed;
+
+    /**
+     * Constructeur du moteur.
+     *
+     * @param capacity le nombre maximal de noeuds de l'arbre ; une fois atteint, l'arbre cesse de grandir mais les simulations continuent.
+     * @param threads  le nombre de fils d'exécution, au moins 1.
+     */
+    public Mcts(int capacity, int threads) {
+        this.moves = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new int[capacity];
+        this.visits = new AtomicIntegerArray(capacity);
+        this.wins = new AtomicIntegerArray(capacity);
+        this.states = new AtomicIntegerArray(capacity);
+        this.threads = Math.max(1, threads);
+
+        this.executor = this.threads > 1 ? Executors.newFixedThreadPool(this.threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "surakarta-mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * @param megabytes la mémoire allouée à l'arbre, en mégaoctets.
+     * @return le nombre de noeuds de l'arbre tenant dans cette mémoire, calculé sans dépassement et borné à la taille maximale d'un tableau.
+     */
+    public static int capacity(int megabytes) {
+        return (int) Math.min(Math.max(1, (long) megabytes) * 1024 * 1024 / NODE_SIZE, MAX_CAPACITY);
+    }
+
+    /**
+     * @return le nombre de fils d'exécution.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param lines le nombre de variations, au moins 1.
+     */
+    @Override
+    public void setMultiPv(int lines) {
+        this.multiPv = Math.max(1, lines);
+    }
+
+    /**
+     * Définit l'observateur, notifié toutes les 100 millisecondes par le fil appelant la recherche, puis à la fin de la recherche.
+     *
+     * @param listener l'observateur, ou {@code null} pour ne plus en notifier.
+     */
+    @Override
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return le nombre de noeuds de l'arbre de la dernière recherche.
+     */
+    public int size() {
+        return Math.min(size.get(), moves.length);
+    }
+
+    /**
+     * Cherche le meilleur coup de la position : le coup le plus visité après épuisement du temps, ou après {@link Mcts#DEFAULT_PLAYOUTS} simulations sans limite de temps.
+     * Un nombre de noeuds limite le nombre de simulations, avec ou sans limite de temps. La profondeur des limites n'est pas utilisée ; une recherche d'anticipation n'a aucune limite avant {@link Mcts#ponderhit(SearchLimits, long)}.
+     *
+     * @param position la position.
+     * @param limits   le budget de la recherche.
+     * @return le résultat de la recherche.
+     */
+    @Override
+    public SearchResult search(Position position, SearchLimits limits) {
+        this.start = System.nanoTime();
+        SearchLimits ponder = limits.isPonder() ? limits : null;
+        long deadline = limits.getTime() > 0 && ponder == null ? start + limits.getTime() * 1_000_000 : Long.MAX_VALUE;
+        long budget = limits.getNodes() > 0 ? limits.getNodes() : limits.getTime() > 0 || ponder != null ? Long.MAX_VALUE : DEFAULT_PLAYOUTS;
+
+        this.stopRequested = false;
+        this.playouts.set(0);
+        this.size.set(1);
+        this.moves[0] = Move.NONE;
+        this.visits.set(0, 0);
+        this.wins.set(0, 0);
+        this.states.set(0, LEAF);
+
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int i = 1; i < threads; i++) {
+            workers.add(executor.submit(() -> this.work(position, deadline, budget, ponder, false, new SplittableRandom())));
+        }
+
+        this.work(position, deadline, budget, ponder, true, new SplittableRandom());
+        this.stopRequested = true;
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Erreur dans un fil de la recherche Monte-Carlo", e.getCause());
+            }
+        }
+
+        List<SearchResult> lines = this.lines(budget);
+        this.report(lines);
+
+        return !lines.isEmpty() ? lines.get(0) : new SearchResult(0, 0, Math.min(playouts.get(), budget), (System.nanoTime() - start) / 1_000_000, new int[0]);
+    }
+
+    /**
+     * Construit les variations principales des fils de la racine les plus visités.
+     *
+     * @param budget le nombre maximal de simulations.
+     * @return au plus {@link Mcts#multiPv} variations, de la plus visitée à la moins visitée.
+     */
+    private List<SearchResult> lines(long budget) {
+        List<SearchResult> lines = new ArrayList<>();
+
+        if (states.get(0) != EXPANDED) {
+            return lines;
+        }
+
+        List<Integer> children = new ArrayList<>();
+
+        for (int child = firstChild[0]; child < firstChild[0] + childCount[0]; child++) {
+            if (visits.get(child) > 0) {
+                children.add(child);
+            }
+        }
+
+        children.sort(Comparator.comparingInt(child -> -visits.get(child)));
+        long nodes = Math.min(playouts.get(), budget);
+        long time = (System.nanoTime() - start) / 1_000_000;
+
+        for (int child : children.subList(0, Math.min(multiPv, children.size()))) {
+            int[] pv = new int[MAX_PV];
+            int length = 0;
+            int score = (int) (1000L * (wins.get(child) - visits.get(child)) / Math.max(1, visits.get(child)));
+
+            for (int node = child; node >= 0 && length < MAX_PV; node = bestChild(node)) {
+                pv[length++] = moves[node];
+            }
+
+            lines.add(new SearchResult(score, length, nodes, time, Arrays.copyOf(pv, length)));
+        }
+
+        return lines;
+    }
+
+    /**
+     * Notifie l'observateur éventuel des variations principales.
+     *
+     * @param lines les variations principales.
+     */
+    private void report(List<SearchResult> lines) {
+        if (listener != null && !lines.isEmpty()) {
+            listener.update(Collections.unmodifiableList(lines), (int) Math.min(1000, 1000L * this.size() / moves.length));
+        }
+    }
+
+    /**
+     * Demande l'arrêt de la recherche en cours.
+     */
+    @Override
+    public void stop() {
+        this.stopRequested = true;
+    }
+
+    /**
+     * Limite la recherche d'anticipation désignée par ses limites, en cours ou sur le point de commencer, au temps donné à partir de maintenant,
+     * ou à {@link Mcts#DEFAULT_PLAYOUTS} simulations sans limite de temps. L'arbre déjà construit est conservé.
+     * Une recherche déjà terminée n'est pas concernée, ni aucune recherche suivante.
+     *
+     * @param limits les limites de la recherche d'anticipation confirmée.
+     * @param time   le temps restant en millisecondes, ou <i>0</i> pour un temps illimité.
+     */
+    @Override
+    public void ponderhit(SearchLimits limits, long time) {
+        this.ponderDeadline = time > 0 ? System.nanoTime() + time * 1_000_000 : Long.MAX_VALUE;
+        this.ponderBudget = time > 0 ? Long.MAX_VALUE : DEFAULT_PLAYOUTS;
+        this.confirmed = limits;
+    }
+
+    /**
+     * Arrête les fils d'exécution auxiliaires. Ce moteur ne doit plus être utilisé ensuite.
+     */
+    @Override
+    public void shutdown() {
+        this.stop();
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Enchaîne les simulations jusqu'à épuisement du budget.
+     *
+     * @param root     la position de la racine.
+     * @param deadline le moment auquel s'arrêter, en nanosecondes.
+     * @param budget   le nombre maximal de simulations.
+     * @param ponder   les limites d'une recherche d'anticipation, limitée en outre par {@link Mcts#ponderhit(SearchLimits, long)}, sinon {@code null}.
+     * @param main     {@code true} pour le fil appelant la recherche, qui notifie l'observateur.
+     * @param random   le générateur aléatoire propre à ce fil.
+     */
+    private void work(Position root, long deadline, long budget, SearchLimits ponder, boolean main, SplittableRandom random) {
+        Position position = root.copy(); //Copie propre à ce fil, ramenée à la racine après chaque simulation
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        int[] path = new int[MAX_TREE_DEPTH];
+        long nextReport = start + REPORT_INTERVAL;
+
+        while (!stopRequested && playouts.getAndIncrement() < budget) {
+            this.iterate(position, random, buffer, path);
+
+            if ((playouts.get() & 63) == 0) {
+                long now = System.nanoTime();
+
+                if (now >= deadline || ponder != null && confirmed == ponder && (now >= ponderDeadline || playouts.get() >= ponderBudget)) {
+                    this.stopRequested = true;
+                } else if (main && listener != null && now >= nextReport) {
+                    this.report(this.lines(budget));
+                    nextReport = now + REPORT_INTERVAL;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mène une simulation : descente dans l'arbre selon UCT, développement d'une feuille, partie aléatoire puis remontée du résultat.
+     * Les coups sont joués sur place, puis annulés pour ramener la position à la racine.
+     *
+     * @param root   la position de la racine, propre au fil appelant.
+     * @param random le générateur aléatoire.
+     * @param buffer le tableau recevant les coups générés.
+     * @param path   le tableau recevant les noeuds traversés.
+     */
+    private void iterate(Position root, SplittableRandom random, int[] buffer, int[] path) {
+        int base = root.undoSize();
+        int mover = Position.opponent(root.getSideToMove()); //Le joueur ayant joué le coup menant à la racine
+        int node = 0;
+        int length = 0;
+
+        visits.addAndGet(node, VIRTUAL_LOSS);
+        path[length++] = node;
+
+        boolean expanded = false;
+
+        while (!expanded && root.winner() == Position.NONE && length < path.length) {
+            int state = states.get(node);
+            expanded = state == LEAF && this.expand(node, root, buffer);
+
+            if (state == EXPANDING || state == LEAF && !expanded || childCount[node] == 0) { //Développé par un autre fil, arbre plein ou aucun coup
+                break;
+            }
+
+            node = this.select(node); //Après un développement, la simulation part d'un des nouveaux fils
+            root.makeMove(moves[node]);
+            visits.addAndGet(node, VIRTUAL_LOSS);
+            path[length++] = node;
+        }
+
+        int winner = this.playout(root, random, buffer);
+
+        while (root.undoSize() > base) {
+            root.unmakeMove();
+        }
+
+        for (int i = 0; i < length; i++) {
+            visits.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+            wins.addAndGet(path[i], winner == Position.NONE ? 1 : winner == mover ? 2 : 0);
+            mover = Position.opponent(mover);
+        }
+    }
+
+    /**
+     * Crée les fils d'une feuille, si aucun autre fil d'exécution ne l'a réservée et s'il reste de la place dans l'arbre.
+     *
+     * @param node     le noeud.
+     * @param position la position du noeud.
+     * @param buffer   le tableau recevant les coups générés.
+     * @return {@code true} si les fils ont été créés.
+     */
+    private boolean expand(int node, Position position, int[] buffer) {
+        if (!states.compareAndSet(node, LEAF, EXPANDING)) {
+            return false;
+        }
+
+        int count = MoveGenerator.generate(position, buffer);
+        int first = count > 0 ? this.reserve(count) : 0;
+
+        if (first < 0) { //Arbre plein, le noeud reste une feuille
+            states.set(node, LEAF);
+            return false;
+        }
+
+        for (int i = 0; i < count; i++) {
+            moves[first + i] = buffer[i];
+            childCount[first + i] = 0;
+            visits.set(first + i, 0);
+            wins.set(first + i, 0);
+            states.set(first + i, LEAF);
+        }
+
+        firstChild[node] = first;
+        childCount[node] = count;
+        states.set(node, EXPANDED); //Publie les fils aux autres fils d'exécution
+
+        return true;
+    }
+
+    /**
+     * Réserve des indices consécutifs pour les fils d'un noeud. Une réservation impossible ne modifie pas la taille de l'arbre,
+     * qui ne dépasse donc jamais sa capacité, même lorsqu'une longue analyse tente de développer des feuilles dans un arbre plein.
+     *
+     * @param count le nombre d'indices.
+     * @return le premier indice réservé, ou <i>-1</i> si l'arbre n'a plus la place.
+     */
+    private int reserve(int count) {
+        while (true) {
+            int first = size.get();
+
+            if (first + count > moves.length) {
+                return -1;
+            }
+
+            if (size.compareAndSet(first, first + count)) {
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Choisit le fil d'un noeud développé maximisant la formule UCT, un fils jamais visité étant choisi en priorité.
+     *
+     * @param node le noeud.
+     * @return le fils choisi.
+     */
+    private int select(int node) {
+        double logVisits = Math.log(Math.max(1, visits.get(node)));
+        int first = firstChild[node];
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (int child = first; child < first + childCount[node]; child++) {
+            int childVisits = visits.get(child);
+
+            if (childVisits == 0) {
+                return child;
+            }
+
+            double value = wins.get(child) / (2.0 * childVisits) + EXPLORATION * Math.sqrt(logVisits / childVisits);
+
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @param node le noeud.
+     * @return le fils le plus visité du noeud, ou <i>-1</i> s'il n'a aucun fils visité.
+     */
+    private int bestChild(int node) {
+        if (states.get(node) != EXPANDED) {
+            return -1;
+        }
+
+        int best = -1;
+
+        for (int child = firstChild[node]; child < firstChild[node] + childCount[node]; child++) {
+            if (visits.get(child) > 0 && (best < 0 || visits.get(child) > visits.get(best))) {
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Joue une partie aléatoire : une prise au hasard lorsqu'il y en a, un coup au hasard sinon.
+     * Au-delà de {@link Mcts#MAX_PLAYOUT} demi-coups, le joueur au meilleur score l'emporte.
+     *
+     * @param position la position de départ, sur laquelle les coups sont joués sans être annulés.
+     * @param random   le générateur aléatoire.
+     * @param buffer   le tableau recevant les coups générés.
+     * @return le gagnant, ou {@link Position#NONE} en cas de partie nulle.
+     */
+    private int playout(Position position, SplittableRandom random, int[] buffer) {
+        for (int ply = 0; ply < MAX_PLAYOUT && position.winner() == Position.NONE; ply++) {
+            int count = MoveGenerator.generate(position, MoveGenerator.CAPTURES, buffer, 0);
+
+            if (count == 0) {
+                count = MoveGenerator.generate(position, MoveGenerator.QUIETS, buffer, 0);
+            }
+
+            if (count == 0) { //Aucun coup possible, partie nulle
+                return Position.NONE;
+            }
+
+            position.makeMove(buffer[random.nextInt(count)]);
+        }
+
+        if (position.winner() != Position.NONE) {
+            return position.winner();
+        }
+
+        int difference = position.score(Position.P1) - position.score(Position.P2);
+        return difference > 0 ? Position.P1 : difference < 0 ? Position.P2 : Position.NONE;
+    }
+}
@@ -0,0 +1,120 @@
+package fr.uphf.etu.engine;
+
+/**
+ * Une classe utilitaire pour manipuler les coups encodés dans un {@code int}, sans créer d'objet.
+ * <p>
+ * Un coup contient la case de départ (bits 0 à 5), la case d'arrivée (bits 6 à 11) et un indicateur de prise (bit 12).
+ * Un coup tient donc sur 13 bits.
+ */
+public final class Move {
+    /**
+     * Une valeur ne représentant aucun coup, la case de départ étant égale à la case d'arrivée.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * L'indicateur de prise.
+     */
+    public static final int CAPTURE = 1 << 12;
+
+    /**
+     * Le masque d'une case.
+     */
+    private static final int SQUARE_MASK = 0x3F;
+
+    private Move() {
+    }
+
+    /**
+     * Encode un coup.
+     *
+     * @param from    la case de départ.
+     * @param to      la case d'arrivée.
+     * @param capture {@code true} si le coup est une prise.
+     * @return le coup encodé.
+     */
+    public static int of(int from, int to, boolean capture) {
+        return from | to << 6 | (capture ? CAPTURE : 0);
+    }
+
+    /**
+     * @param move le coup.
+     * @return la case de départ du coup.
+     */
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param move le coup.
+     * @return la case d'arrivée du coup.
+     */
+    public static int to(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @param move le coup.
+     * @return {@code true} si le coup est une prise.
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Retourne le nom d'une case, de {@code a1} à {@code f6} : la lettre correspond à la coordonnée X, le chiffre à la coordonnée Y.
+     *
+     * @param square la case.
+     * @return le nom de la case.
+     */
+    public static String squareName(int square) {
+        return String.valueOf((char) ('a' + Position.x(square))) + (char) ('1' + Position.y(square));
+    }
+
+    /**
+     * Retrouve une case à partir de son nom, de {@code a1} à {@code f6}.
+     *
+     * @param name le nom de la case.
+     * @return la case.
+     * @throws IllegalArgumentException si le nom n'est pas celui d'une case.
+     */
+    public static int parseSquare(CharSequence name) {
+        if (name.length() != 2) {
+            throw new IllegalArgumentException("Case invalide : " + name);
+        }
+
+        int x = name.charAt(0) - 'a';
+        int y = name.charAt(1) - '1';
+
+        if (x < 0 || x >= Position.SIZE || y < 0 || y >= Position.SIZE) {
+            throw new IllegalArgumentException("Case invalide : " + name);
+        }
+
+        return Position.square(x, y);
+    }
+
+    /**
+     * Décode la représentation lisible d'un coup, inverse de {@link Move#toString(int)}.
+     *
+     * @param text la représentation du coup, par exemple {@code b2-c3} ou {@code b2xe6}.
+     * @return le coup encodé.
+     * @throws IllegalArgumentException si la représentation est invalide.
+     */
+    public static int parse(String text) {
+        if (text.length() != 5 || text.charAt(2) != '-' && text.charAt(2) != 'x') {
+            throw new IllegalArgumentException("Coup invalide : " + text);
+        }
+
+        return of(parseSquare(text.subSequence(0, 2)), parseSquare(text.subSequence(3, 5)), text.charAt(2) == 'x');
+    }
+
+    /**
+     * Crée une représentation lisible d'un coup, par exemple {@code b2-c3} pour un déplacement ou {@code b2xe6} pour une prise.
+     *
+     * @param move le coup.
+     * @return la représentation du coup.
+     */
+    public static String toString(int move) {
+        return squareName(from(move)) + (isCapture(move) ? 'x' : '-') + squareName(to(move));
+    }
+}
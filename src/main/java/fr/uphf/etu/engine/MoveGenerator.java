@@ -0,0 +1,182 @@
+package fr.uphf.etu.engine;
+
+/**
+ * Une classe générant les coups légaux du joueur qui doit jouer, sans créer d'objet.
+ * <p>
+ * Les coups sont écrits dans un tableau fourni par l'appelant, au format de {@link Move}.
+ * Un déplacement simple mène sur l'une des 8 cases voisines libres, une prise parcourt un circuit de {@link Tracks} en franchissant au moins une courbe.
+ */
+public final class MoveGenerator {
+    /**
+     * Génère les prises et les déplacements simples.
+     */
+    public static final int ALL = 0;
+
+    /**
+     * Génère uniquement les prises.
+     */
+    public static final int CAPTURES = 1;
+
+    /**
+     * Génère uniquement les déplacements simples.
+     */
+    public static final int QUIETS = 2;
+
+    /**
+     * Le nombre maximal de coups dans une position : 12 pions avec au plus 8 déplacements et 4 prises (une par direction cardinale) chacun.
+     */
+    public static final int MAX_MOVES = 144;
+
+    /**
+     * Les cases voisines de chaque case, diagonales comprises.
+     */
+    private static final long[] NEIGHBOURS = new long[Position.SQUARES];
+
+    static {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int x = Position.x(square) + dx;
+                    int y = Position.y(square) + dy;
+
+                    if ((dx != 0 || dy != 0) && x >= 0 && x < Position.SIZE && y >= 0 && y < Position.SIZE) {
+                        NEIGHBOURS[square] |= Position.bit(Position.square(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * @param square la case.
+     * @return les cases voisines de la case, diagonales comprises.
+     */
+    public static long neighbours(int square) {
+        return NEIGHBOURS[square];
+    }
+
+    /**
+     * Génère tous les coups légaux du joueur qui doit jouer, les prises en premier.
+     *
+     * @param position la position.
+     * @param moves    le tableau recevant les coups, d'au moins {@link MoveGenerator#MAX_MOVES} cases.
+     * @return le nombre de coups générés.
+     */
+    public static int generate(Position position, int[] moves) {
+        return generate(position, ALL, moves, 0);
+    }
+
+    /**
+     * Génère les coups légaux du joueur qui doit jouer, à partir d'un indice du tableau.
+     * Cela permet de partager un même tableau entre plusieurs profondeurs de recherche.
+     * Si la partie est terminée, aucun coup n'est généré.
+     *
+     * @param position la position.
+     * @param mode     {@link MoveGenerator#ALL}, {@link MoveGenerator#CAPTURES} ou {@link MoveGenerator#QUIETS}.
+     * @param moves    le tableau recevant les coups.
+     * @param offset   l'indice du premier coup à écrire.
+     * @return l'indice suivant le dernier coup écrit.
+     */
+    public static int generate(Position position, int mode, int[] moves, int offset) {
+        if (position.winner() != Position.NONE) {
+            return offset;
+        }
+
+        int side = position.getSideToMove();
+        long own = position.pawns(side);
+        long enemy = position.pawns(Position.opponent(side));
+        long occupied = own | enemy;
+        int count = offset;
+
+        if (mode == CAPTURES && !hasCaptures(position)) { //Cas le plus fréquent de la recherche de repos, détecté sans parcourir les circuits depuis chaque pion
+            return count;
+        }
+
+        if (mode != QUIETS) {
+            for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+                int from = Long.numberOfTrailingZeros(pawns);
+                long targets = 0;
+
+                for (int direction = 0; direction < 4; direction++) {
+                    int entry = Tracks.entry(from, direction);
+
+                    if (entry != Tracks.NONE) {
+                        int to = Tracks.target(occupied, from, entry);
+
+                        if (to != Position.NONE) {
+                            targets |= Position.bit(to);
+                        }
+                    }
+                }
+
+                for (targets &= enemy; targets != 0; targets &= targets - 1) { //Une même prise peut être atteinte par plusieurs directions
+                    moves[count++] = Move.of(from, Long.numberOfTrailingZeros(targets), true);
+                }
+            }
+        }
+
+        if (mode != CAPTURES) {
+            long empty = position.empty();
+
+            for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+                int from = Long.numberOfTrailingZeros(pawns);
+
+                for (long targets = NEIGHBOURS[from] & empty; targets != 0; targets &= targets - 1) {
+                    moves[count++] = Move.of(from, Long.numberOfTrailingZeros(targets), false);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Détermine si le joueur qui doit jouer peut prendre un pion, à l'aide des {@link AttackMaps}.
+     *
+     * @param position la position.
+     * @return {@code true} si au moins une prise est possible.
+     */
+    public static boolean hasCaptures(Position position) {
+        return AttackMaps.threats(position, position.getSideToMove()) != 0;
+    }
+
+    /**
+     * Détermine si un coup est légal pour le joueur qui doit jouer, sans générer tous les coups.
+     *
+     * @param position la position.
+     * @param move     le coup.
+     * @return {@code true} si le coup est légal.
+     */
+    public static boolean isLegal(Position position, int move) {
+        int side = position.getSideToMove();
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        if (position.winner() != Position.NONE || position.player(from) != side) {
+            return false;
+        }
+
+        if (!Move.isCapture(move)) {
+            return (NEIGHBOURS[from] & position.empty() & Position.bit(to)) != 0;
+        }
+
+        if (position.player(to) != Position.opponent(side)) {
+            return false;
+        }
+
+        long occupied = position.occupied();
+
+        for (int direction = 0; direction < 4; direction++) {
+            int entry = Tracks.entry(from, direction);
+
+            if (entry != Tracks.NONE && Tracks.target(occupied, from, entry) == to) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
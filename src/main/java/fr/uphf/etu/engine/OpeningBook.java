@@ -0,0 +1,258 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Un livre d'ouverture : pour les positions des premiers demi-coups, les coups joués dans des parties archivées et leurs résultats, calculés par {@link OpeningBookBuilder}.
+ * <p>
+ * Le fichier commence par l'en-tête {@link OpeningBook#MAGIC}, la version du format, le nombre d'entrées et le nombre de demi-coups couverts,
+ * puis contient les entrées triées par empreinte de Zobrist ({@link Position#getKey()}) : l'empreinte sur 8 octets, le coup ({@link Move}),
+ * son poids et son score sur 2 octets chacun. Le fichier est projeté en mémoire et les coups d'une position sont trouvés par recherche dichotomique,
+ * sans charger le livre ni créer d'objet par entrée.
+ * <p>
+ * Le poids d'un coup est le nombre de points qu'il a rapportés au joueur l'ayant joué (2 par victoire, 1 par nulle) : un coup n'ayant mené qu'à des défaites n'est jamais choisi.
+ * Le score est le bilan du coup en millièmes, de -1000 (toujours perdu) à 1000 (toujours gagné).
+ */
+public final class OpeningBook {
+    /**
+     * Les premiers octets d'un livre.
+     */
+    static final byte[] MAGIC = {'S', 'K', 'O', 'B'};
+
+    /**
+     * La version du format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * La taille de l'en-tête.
+     */
+    static final int HEADER = 16;
+
+    /**
+     * La taille d'une entrée.
+     */
+    static final int ENTRY = 14;
+
+    /**
+     * Le contenu projeté du fichier.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Le nombre d'entrées.
+     */
+    private final int size;
+
+    /**
+     * Le nombre de demi-coups couverts.
+     */
+    private final int plies;
+
+    private OpeningBook(ByteBuffer buffer, int size, int plies) {
+        this.buffer = buffer;
+        this.size = size;
+        this.plies = plies;
+    }
+
+    /**
+     * Ouvre un livre écrit par {@link OpeningBookBuilder}.
+     *
+     * @param path le chemin du livre.
+     * @return le livre.
+     * @throws IOException si le fichier ne peut pas être lu ou est invalide.
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) { //La projection reste valide après la fermeture du fichier
+            if (channel.size() < HEADER) {
+                throw new IOException("Livre d'ouverture invalide : " + path);
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+
+            if (!Arrays.equals(magic, MAGIC) || buffer.getInt() != VERSION) {
+                throw new IOException("En-tête invalide : " + path);
+            }
+
+            int size = buffer.getInt();
+            int plies = buffer.getInt();
+
+            if (size < 0 || channel.size() != HEADER + (long) size * ENTRY) {
+                throw new IOException("Taille invalide pour " + path + " : " + channel.size() + " octets pour " + size + " entrées");
+            }
+
+            return new OpeningBook(buffer, size, plies);
+        }
+    }
+
+    /**
+     * @return le nombre d'entrées.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return le nombre de demi-coups couverts depuis la position de départ.
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * Cherche les coups du livre pour une position. Les coups illégaux dans la position, issus d'une collision d'empreintes, sont ignorés.
+     *
+     * @param position la position.
+     * @return les coups du livre, dans l'ordre du fichier, éventuellement aucun.
+     */
+    public List<Entry> probe(Position position) {
+        List<Entry> entries = new ArrayList<>();
+        long key = position.getKey();
+
+        for (int i = this.first(key); i < size && this.key(i) == key; i++) {
+            int offset = HEADER + i * ENTRY + Long.BYTES;
+            int move = buffer.getChar(offset);
+
+            if (MoveGenerator.isLegal(position, move)) {
+                entries.add(new Entry(move, buffer.getChar(offset + 2), buffer.getShort(offset + 4)));
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Choisit un coup du livre au hasard, chaque coup ayant une probabilité proportionnelle à son poids.
+     *
+     * @param position la position.
+     * @param random   le générateur aléatoire.
+     * @return le coup choisi, ou {@link Move#NONE} si la position n'est pas dans le livre ou qu'aucun de ses coups n'a de poids.
+     */
+    public int choose(Position position, SplittableRandom random) {
+        List<Entry> entries = this.probe(position);
+        int total = 0;
+
+        for (Entry entry : entries) {
+            total += entry.getWeight();
+        }
+
+        if (total == 0) {
+            return Move.NONE;
+        }
+
+        int draw = random.nextInt(total);
+
+        for (Entry entry : entries) {
+            draw -= entry.getWeight();
+
+            if (draw < 0) {
+                return entry.getMove();
+            }
+        }
+
+        return Move.NONE;
+    }
+
+    /**
+     * @param key une empreinte.
+     * @return l'indice de la première entrée dont l'empreinte n'est pas inférieure.
+     */
+    private int first(long key) {
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (this.key(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @param index l'indice d'une entrée.
+     * @return l'empreinte de l'entrée.
+     */
+    private long key(int index) {
+        return buffer.getLong(HEADER + index * ENTRY);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", size)
+                .add("plies", plies)
+                .toString();
+    }
+
+    /**
+     * Un coup du livre d'ouverture.
+     */
+    public static final class Entry {
+        /**
+         * Le coup, au format de {@link Move}.
+         */
+        private final int move;
+
+        /**
+         * Le poids du coup.
+         */
+        private final int weight;
+
+        /**
+         * Le score du coup, en millièmes.
+         */
+        private final int score;
+
+        /**
+         * Constructeur de l'entrée.
+         *
+         * @param move   le coup, au format de {@link Move}.
+         * @param weight le poids du coup.
+         * @param score  le score du coup, en millièmes.
+         */
+        public Entry(int move, int weight, int score) {
+            this.move = move;
+            this.weight = weight;
+            this.score = score;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("move", Move.toString(move))
+                    .add("weight", weight)
+                    .add("score", score)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package fr.uphf.etu.engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Une classe construisant un {@link OpeningBook} à partir de parties archivées par {@link GameRecordWriter} :
+ * les parties d'un tournoi ({@link Tournament}), en particulier d'un moteur contre lui-même, ou celles jouées dans l'interface.
+ * <p>
+ * Chaque partie terminée est rejouée sur ses premiers demi-coups, et chaque coup joué est crédité du résultat obtenu par le joueur l'ayant joué.
+ * Les positions sont identifiées par leur empreinte : les coups de deux ouvertures menant à la même position sont regroupés.
+ * <p>
+ * Utilisation en ligne de commande : {@code OpeningBookBuilder <livre> <demi-coups> <parties minimales> <archive>...}.
+ */
+public final class OpeningBookBuilder {
+    /**
+     * Le nombre de demi-coups retenus de chaque partie.
+     */
+    private final int plies;
+
+    /**
+     * Le nombre minimal de parties dans lesquelles un coup doit avoir été joué pour figurer dans le livre.
+     */
+    private final int minGames;
+
+    /**
+     * Les résultats de chaque coup, par empreinte de position puis par coup.
+     */
+    private final Map<Long, Map<Integer, Statistics>> positions = new HashMap<>();
+
+    /**
+     * Le nombre de parties ajoutées.
+     */
+    private int games;
+
+    /**
+     * Constructeur du livre.
+     *
+     * @param plies    le nombre de demi-coups retenus de chaque partie.
+     * @param minGames le nombre minimal de parties dans lesquelles un coup doit avoir été joué pour figurer dans le livre.
+     */
+    public OpeningBookBuilder(int plies, int minGames) {
+        this.plies = plies;
+        this.minGames = minGames;
+    }
+
+    /**
+     * Ajoute les coups d'une partie. Une partie non terminée est ignorée, une partie contenant un coup illégal n'est retenue que jusqu'à ce coup.
+     *
+     * @param record la partie.
+     */
+    public void add(GameRecord record) {
+        if (record.getResult() == GameRecord.UNFINISHED) {
+            return;
+        }
+
+        Position position = Position.start();
+        games++;
+
+        for (int i = 0; i < Math.min(plies, record.size()); i++) {
+            int move = record.move(i);
+
+            if (!MoveGenerator.isLegal(position, move)) {
+                return;
+            }
+
+            int side = position.getSideToMove();
+            Statistics statistics = positions.computeIfAbsent(position.getKey(), key -> new HashMap<>()).computeIfAbsent(move, key -> new Statistics());
+
+            if (record.getResult() == side) statistics.wins++;
+            else if (record.getResult() == Position.NONE) statistics.draws++;
+            else statistics.losses++;
+
+            position.makeMove(move);
+        }
+    }
+
+    /**
+     * Ajoute toutes les parties d'une archive.
+     *
+     * @param archive le chemin de l'archive.
+     * @throws IOException si l'archive ne peut pas être lue.
+     */
+    public void addAll(Path archive) throws IOException {
+        try (GameRecordReader reader = new GameRecordReader(archive)) {
+            while (reader.hasNext()) {
+                this.add(reader.next());
+            }
+        }
+    }
+
+    /**
+     * @return le nombre de parties ajoutées.
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Écrit le livre dans un fichier projeté en mémoire, en remplaçant le fichier existant.
+     *
+     * @param path le chemin du livre.
+     * @return le nombre d'entrées écrites.
+     * @throws IOException si le livre ne peut pas être écrit.
+     */
+    public int write(Path path) throws IOException {
+        List<long[]> entries = new ArrayList<>(); //{empreinte, coup, poids, score}
+
+        for (Map.Entry<Long, Map<Integer, Statistics>> position : positions.entrySet()) {
+            for (Map.Entry<Integer, Statistics> move : position.getValue().entrySet()) {
+                Statistics statistics = move.getValue();
+                int count = statistics.wins + statistics.draws + statistics.losses;
+
+                if (count >= minGames) {
+                    int weight = Math.min(Character.MAX_VALUE, 2 * statistics.wins + statistics.draws);
+                    int score = (statistics.wins - statistics.losses) * 1000 / count;
+                    entries.add(new long[]{position.getKey(), move.getKey(), weight, score});
+                }
+            }
+        }
+
+        entries.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, OpeningBook.HEADER + (long) entries.size() * OpeningBook.ENTRY);
+            buffer.put(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(entries.size()).putInt(plies);
+
+            for (long[] entry : entries) {
+                buffer.putLong(entry[0]).putChar((char) entry[1]).putChar((char) entry[2]).putShort((short) entry[3]);
+            }
+
+            buffer.force();
+        }
+
+        return entries.size();
+    }
+
+    /**
+     * Les résultats obtenus par le joueur ayant joué un coup.
+     */
+    private static final class Statistics {
+        private int wins;
+        private int draws;
+        private int losses;
+    }
+
+    /**
+     * Construit un livre d'ouverture.
+     *
+     * @param args le chemin du livre, le nombre de demi-coups retenus, le nombre minimal de parties par coup, puis les archives.
+     * @throws IOException si une archive ne peut pas être lue ou le livre écrit.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage : OpeningBookBuilder <livre> <demi-coups> <parties minimales> <archive>...");
+            System.exit(1);
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+
+        for (int i = 3; i < args.length; i++) {
+            builder.addAll(Paths.get(args[i]));
+        }
+
+        int entries = builder.write(Paths.get(args[0]));
+        System.out.printf("Parties : %d, positions : %d, entrées : %d%n", builder.getGames(), builder.positions.size(), entries);
+    }
+}
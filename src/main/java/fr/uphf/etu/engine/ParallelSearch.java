@@ -0,0 +1,242 @@
+package fr.uphf.etu.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Une classe menant une recherche sur plusieurs fils d'exécution selon le principe du <i>Lazy SMP</i>.
+ * <p>
+ * Chaque fil explore la même position avec sa propre {@link Search}, à des profondeurs décalées, en partageant une même {@link TranspositionTable} :
+ * les fils auxiliaires remplissent la table, ce qui accélère la recherche principale. Seul le résultat de la recherche principale est retourné,
+ * qui est donc identique à celui d'une {@link Search} seule lorsqu'un seul fil est utilisé.
+ * <p>
+ * Utilisation en ligne de commande : {@code ParallelSearch <profondeur> <fils>} mesure le temps pour atteindre la profondeur de 1 à N fils.
+ */
+public class ParallelSearch implements Engine {
+    /**
+     * La table de transposition partagée par tous les fils.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Les recherches de chaque fil, la première étant la recherche principale.
+     */
+    private final Search[] searches;
+
+    /**
+     * Les fils d'exécution des recherches auxiliaires, ou {@code null} si un seul fil est utilisé.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Le nombre de noeuds visités par chaque fil lors de la dernière recherche.
+     */
+    private final long[] threadNodes;
+
+    /**
+     * Constructeur de la recherche parallèle.
+     *
+     * @param table   la table de transposition partagée.
+     * @param threads le nombre de fils d'exécution, au moins 1.
+     */
+    public ParallelSearch(TranspositionTable table, int threads) {
+        this(table, threads, new WeightedEvaluator(EvaluationWeights.DEFAULT));
+    }
+
+    /**
+     * Constructeur de la recherche parallèle.
+     *
+     * @param table     la table de transposition partagée.
+     * @param threads   le nombre de fils d'exécution, au moins 1.
+     * @param evaluator la fonction d'évaluation, dont chaque fil utilise une copie.
+     */
+    public ParallelSearch(TranspositionTable table, int threads, Evaluator evaluator) {
+        this.table = table;
+        this.searches = new Search[Math.max(1, threads)];
+        this.threadNodes = new long[this.searches.length];
+
+        for (int i = 0; i < this.searches.length; i++) {
+            this.searches[i] = new Search(table, evaluator);
+            this.searches[i].setHelper(i);
+        }
+
+        this.executor = this.searches.length > 1 ? Executors.newFixedThreadPool(this.searches.length - 1, runnable -> {
+            Thread thread = new Thread(runnable, "surakarta-search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Définit la table de finales consultée par les recherches de tous les fils.
+     *
+     * @param tablebase la table de finales, ou {@code null} pour ne pas en consulter.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        for (Search search : searches) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Définit le nombre de variations principales suivies par la recherche principale ; les recherches auxiliaires n'en suivent qu'une.
+     *
+     * @param lines le nombre de variations, au moins 1.
+     */
+    @Override
+    public void setMultiPv(int lines) {
+        searches[0].setMultiPv(lines);
+    }
+
+    /**
+     * Définit l'observateur notifié à chaque profondeur terminée par la recherche principale, avec le nombre de noeuds visités par tous les fils.
+     *
+     * @param listener l'observateur, ou {@code null} pour ne plus en notifier.
+     */
+    @Override
+    public void setListener(SearchListener listener) {
+        searches[0].setListener(listener == null ? null : (lines, hashfull) -> {
+            long nodes = 0;
+
+            for (Search search : searches) {
+                nodes += search.getNodes(); //Approximatif pour les fils auxiliaires, toujours en cours
+            }
+
+            long total = nodes;
+            listener.update(lines.stream()
+                    .map(line -> new SearchResult(line.getScore(), line.getDepth(), total, line.getTime(), line.getPv()))
+                    .collect(Collectors.toList()), hashfull);
+        });
+    }
+
+    /**
+     * @return le nombre de fils d'exécution.
+     */
+    public int getThreads() {
+        return searches.length;
+    }
+
+    /**
+     * @return une copie du nombre de noeuds visités par chaque fil lors de la dernière recherche.
+     */
+    public long[] getThreadNodes() {
+        return threadNodes.clone();
+    }
+
+    /**
+     * Cherche le meilleur coup de la position.
+     * La recherche principale s'exécute dans le fil appelant ; dès qu'elle se termine, les recherches auxiliaires sont arrêtées.
+     *
+     * @param position la position.
+     * @param limits   le budget de la recherche principale.
+     * @return le résultat de la recherche principale, avec le nombre total de noeuds visités par tous les fils.
+     */
+    @Override
+    public SearchResult search(Position position, SearchLimits limits) {
+        table.newSearch();
+
+        for (Search search : searches) {
+            search.prepare();
+        }
+
+        List<Future<?>> helpers = new ArrayList<>();
+        SearchLimits helperLimits = new SearchLimits(SearchLimits.MAX_DEPTH, limits.isPonder() ? 0 : limits.getTime()); //Arrêtées avec la recherche principale
+
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            Position copy = position.copy();
+            helpers.add(executor.submit(() -> helper.run(copy, helperLimits)));
+        }
+
+        SearchResult result = searches[0].run(position, limits);
+
+        for (Search search : searches) {
+            search.stop();
+        }
+
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Erreur dans une recherche auxiliaire", e.getCause());
+            }
+        }
+
+        long nodes = 0;
+
+        for (int i = 0; i < searches.length; i++) {
+            threadNodes[i] = searches[i].getNodes();
+            nodes += threadNodes[i];
+        }
+
+        return new SearchResult(result.getScore(), result.getDepth(), nodes, result.getTime(), result.getPv());
+    }
+
+    /**
+     * Demande l'arrêt de la recherche en cours sur tous les fils.
+     */
+    @Override
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Transmet le coup confirmé à la recherche principale : les recherches auxiliaires s'arrêteront avec elle.
+     *
+     * @param limits les limites de la recherche d'anticipation confirmée, transmises telles quelles à la recherche principale.
+     * @param time   le temps restant en millisecondes, ou <i>0</i> pour un temps illimité.
+     */
+    @Override
+    public void ponderhit(SearchLimits limits, long time) {
+        searches[0].ponderhit(limits, time);
+    }
+
+    /**
+     * Arrête les fils d'exécution auxiliaires. Cette recherche ne doit plus être utilisée ensuite.
+     */
+    @Override
+    public void shutdown() {
+        this.stop();
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Mesure le passage à l'échelle : pour 1, 2, 4... fils, affiche le temps pour atteindre la profondeur depuis la position de départ,
+     * le nombre de noeuds par seconde (total et par fil) et l'accélération par rapport à un seul fil.
+     *
+     * @param args la profondeur (10 par défaut) et le nombre maximal de fils (le nombre de processeurs par défaut).
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long reference = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            ParallelSearch search = new ParallelSearch(new TranspositionTable(256), threads);
+            SearchResult result = search.search(Position.start(), SearchLimits.depth(depth));
+            search.shutdown();
+
+            long time = Math.max(1, result.getTime());
+            reference = threads == 1 ? time : reference;
+
+            System.out.printf("Fils : %d, temps : %d ms, noeuds : %d, noeuds/s : %d, noeuds/s par fil : %d, accélération : %.2f, coup : %s%n",
+                    threads, time, result.getNodes(), result.nps(), result.nps() / threads, (double) reference / time, Move.toString(result.getBestMove()));
+        }
+    }
+}
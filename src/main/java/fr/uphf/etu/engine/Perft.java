@@ -0,0 +1,103 @@
+package fr.uphf.etu.engine;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Une classe comptant les feuilles de l'arbre des coups légaux jusqu'à une profondeur donnée (<i>perft</i>).
+ * Ces comptes permettent de vérifier la génération des coups et d'en mesurer la vitesse.
+ * <p>
+ * Utilisation en ligne de commande : {@code Perft <profondeur> [position]}, la position étant écrite au format de {@link Position#toNotation()}.
+ */
+public final class Perft {
+    private Perft() {
+    }
+
+    /**
+     * Compte les feuilles de l'arbre des coups à partir d'une position.
+     * Une position dont la partie est terminée est une feuille.
+     *
+     * @param position la position de départ.
+     * @param depth    la profondeur, en demi-coups.
+     * @return le nombre de feuilles.
+     */
+    public static long perft(Position position, int depth) {
+        return depth <= 0 ? 1 : perft(position.copy(), depth, new int[depth * MoveGenerator.MAX_MOVES], 0);
+    }
+
+    /**
+     * Compte les feuilles de l'arbre des coups, chaque profondeur écrivant ses coups dans sa propre portion du tableau.
+     * Les coups sont joués puis annulés sur place.
+     *
+     * @param position la position, restaurée au retour.
+     * @param depth    la profondeur restante, au moins 1.
+     * @param moves    le tableau partagé recevant les coups.
+     * @param offset   l'indice du premier coup de cette profondeur.
+     * @return le nombre de feuilles.
+     */
+    private static long perft(Position position, int depth, int[] moves, int offset) {
+        int end = MoveGenerator.generate(position, MoveGenerator.ALL, moves, offset);
+
+        if (depth == 1) { //Les coups de la dernière profondeur n'ont pas besoin d'être joués
+            return end - offset;
+        }
+
+        long nodes = 0;
+
+        for (int i = offset; i < end; i++) {
+            position.makeMove(moves[i]);
+            nodes += perft(position, depth - 1, moves, end);
+            position.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Compte les feuilles de l'arbre des coups pour chaque coup de la position de départ.
+     *
+     * @param position la position de départ.
+     * @param depth    la profondeur, au moins 1.
+     * @return le nombre de feuilles associé à chaque coup, dans l'ordre de génération.
+     */
+    public static Map<Integer, Long> divide(Position position, int depth) {
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, moves);
+
+        for (int i = 0; i < count; i++) {
+            result.put(moves[i], perft(position.play(moves[i]), depth - 1));
+        }
+
+        return result;
+    }
+
+    /**
+     * Lance un perft et affiche le détail par coup, le total et la vitesse.
+     *
+     * @param args la profondeur (4 par défaut), puis éventuellement la position (la position de départ par défaut), en un ou plusieurs arguments.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Position position = args.length > 1 ? Position.parse(String.join(" ", Arrays.copyOfRange(args, 1, args.length))) : Position.start();
+
+        long start = System.nanoTime();
+        Map<Integer, Long> divide = divide(position, depth);
+        long elapsed = System.nanoTime() - start;
+
+        long nodes = 0;
+
+        for (Map.Entry<Integer, Long> entry : divide.entrySet()) {
+            System.out.println(Move.toString(entry.getKey()) + " : " + entry.getValue());
+            nodes += entry.getValue();
+        }
+
+        System.out.println();
+        System.out.println("Position : " + position.toNotation());
+        System.out.println("Profondeur : " + depth);
+        System.out.println("Noeuds : " + nodes);
+        System.out.println("Temps : " + elapsed / 1_000_000 + " ms");
+        System.out.println("Noeuds/s : " + (elapsed > 0 ? nodes * 1_000_000_000L / elapsed : nodes));
+    }
+}
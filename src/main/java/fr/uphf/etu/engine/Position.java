@@ -0,0 +1,556 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+
+/**
+ * Une classe représentant une position de jeu indépendante de JavaFX.
+ * Les 36 cases du plateau sont stockées dans un {@code long} par joueur (un bit par case), accompagnées du joueur qui doit jouer et des scores.
+ * <p>
+ * Une case est identifiée par l'indice {@code y * 6 + x}, où (x, y) sont les coordonnées utilisées par {@link fr.uphf.etu.model.Board}.
+ * Les joueurs sont identifiés par {@link Position#P1} et {@link Position#P2}.
+ * <p>
+ * Une position se modifie sur place par {@link Position#makeMove(int)} et {@link Position#unmakeMove()}, qui s'appuient sur une pile d'annulation préallouée,
+ * ou produit une nouvelle position par {@link Position#play(int)}.
+ * <p>
+ * Une position s'écrit sur une ligne ({@link Position#toNotation()}, {@link Position#parse(CharSequence)}) : les lignes du plateau de la 6 à la 1 séparées par {@code /},
+ * chacune décrite de la colonne a à la colonne f avec {@code x} pour un pion du joueur 1, {@code o} pour un pion du joueur 2 et un chiffre pour une suite de cases vides,
+ * puis le joueur qui doit jouer ({@code 1} ou {@code 2}) et le score de chaque joueur. La position de départ s'écrit ainsi {@value Position#START}.
+ * <p>
+ * Cette classe n'est pas partagée entre plusieurs fils d'exécution : chaque utilisateur travaille sur sa propre copie ({@link Position#copy()}).
+ */
+public final class Position {
+    /**
+     * L'identifiant du joueur 1.
+     */
+    public static final int P1 = 0;
+
+    /**
+     * L'identifiant du joueur 2.
+     */
+    public static final int P2 = 1;
+
+    /**
+     * L'identifiant d'une case vide, ou d'une absence de joueur.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * La largeur (et la hauteur) du plateau.
+     */
+    public static final int SIZE = 6;
+
+    /**
+     * Le nombre de cases du plateau.
+     */
+    public static final int SQUARES = SIZE * SIZE;
+
+    /**
+     * Le masque contenant toutes les cases du plateau.
+     */
+    public static final long BOARD = (1L << SQUARES) - 1;
+
+    /**
+     * Le score à atteindre pour gagner la partie.
+     */
+    public static final int WINNING_SCORE = 12;
+
+    /**
+     * La notation de la position de départ.
+     */
+    public static final String START = "oooooo/oooooo/6/6/xxxxxx/xxxxxx 1 0 0";
+
+    /**
+     * Le caractère d'un pion de chaque joueur dans la notation.
+     */
+    private static final char[] PAWN_CHARS = {'x', 'o'};
+
+    /**
+     * La capacité initiale de la pile d'annulation, suffisante pour une recherche ; elle double ensuite à chaque dépassement.
+     */
+    private static final int UNDO_CAPACITY = 128;
+
+    /**
+     * Les pions de chaque joueur, un bit par case.
+     */
+    private final long[] pawns;
+
+    /**
+     * Le score de chaque joueur.
+     */
+    private final int[] scores;
+
+    /**
+     * Le joueur qui doit jouer.
+     */
+    private int sideToMove;
+
+    /**
+     * L'empreinte de Zobrist de la position, mise à jour à chaque coup.
+     */
+    private long key;
+
+    /**
+     * Les coups joués par {@link Position#makeMove(int)}, du plus ancien au plus récent, ou {@code null} avant le premier coup.
+     */
+    private int[] undoMoves;
+
+    /**
+     * Les empreintes de la position avant chacun de ces coups.
+     */
+    private long[] undoKeys;
+
+    /**
+     * Le nombre de coups pouvant être annulés.
+     */
+    private int undoSize;
+
+    /**
+     * Constructeur de la position.
+     *
+     * @param pawnsP1    les pions du joueur 1.
+     * @param pawnsP2    les pions du joueur 2.
+     * @param sideToMove le joueur qui doit jouer.
+     * @param scoreP1    le score du joueur 1.
+     * @param scoreP2    le score du joueur 2.
+     * @throws IllegalArgumentException si les pions se chevauchent, dépassent du plateau, ou si le joueur ou les scores sont invalides.
+     */
+    public Position(long pawnsP1, long pawnsP2, int sideToMove, int scoreP1, int scoreP2) {
+        if ((pawnsP1 & pawnsP2) != 0 || ((pawnsP1 | pawnsP2) & ~BOARD) != 0) {
+            throw new IllegalArgumentException("Pions invalides");
+        }
+
+        if (sideToMove != P1 && sideToMove != P2) {
+            throw new IllegalArgumentException("Joueur invalide : " + sideToMove);
+        }
+
+        if (scoreP1 < 0 || scoreP1 > WINNING_SCORE || scoreP2 < 0 || scoreP2 > WINNING_SCORE) {
+            throw new IllegalArgumentException("Scores invalides : " + scoreP1 + ", " + scoreP2);
+        }
+
+        this.pawns = new long[]{pawnsP1, pawnsP2};
+        this.scores = new int[]{scoreP1, scoreP2};
+        this.sideToMove = sideToMove;
+        this.key = Zobrist.key(this);
+    }
+
+    /**
+     * Constructeur de copie.
+     *
+     * @param other       la position à copier.
+     * @param withHistory {@code true} pour copier aussi la pile d'annulation.
+     */
+    private Position(Position other, boolean withHistory) {
+        this.pawns = other.pawns.clone();
+        this.scores = other.scores.clone();
+        this.sideToMove = other.sideToMove;
+        this.key = other.key;
+
+        if (withHistory && other.undoMoves != null) {
+            this.undoMoves = other.undoMoves.clone();
+            this.undoKeys = other.undoKeys.clone();
+            this.undoSize = other.undoSize;
+        }
+    }
+
+    /**
+     * Crée la position de départ, identique à celle du constructeur de {@link fr.uphf.etu.model.Board} : le joueur 1 occupe les lignes 0 et 1, le joueur 2 les lignes 4 et 5.
+     *
+     * @return la position de départ.
+     */
+    public static Position start() {
+        long rows = (1L << (2 * SIZE)) - 1;
+        return new Position(rows, rows << (4 * SIZE), P1, 0, 0);
+    }
+
+    /**
+     * Lit une position écrite au format de {@link Position#toNotation()}.
+     *
+     * @param text la notation.
+     * @return la position.
+     * @throws IllegalArgumentException si la notation est invalide.
+     */
+    public static Position parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Lit une position écrite au format de {@link Position#toNotation()} dans une portion de texte, sans créer de sous-chaîne :
+     * un fichier de positions peut ainsi être lu ligne par ligne dans un même tampon.
+     *
+     * @param text  le texte.
+     * @param start l'indice du premier caractère de la notation.
+     * @param end   l'indice suivant le dernier caractère de la notation.
+     * @return la position.
+     * @throws IllegalArgumentException si la notation est invalide.
+     */
+    public static Position parse(CharSequence text, int start, int end) {
+        long[] pawns = new long[2];
+        int i = skipSpaces(text, start, end);
+        int x = 0;
+        int y = SIZE - 1;
+
+        for (; i < end && !Character.isWhitespace(text.charAt(i)); i++) {
+            char c = text.charAt(i);
+
+            if (c == '/') {
+                if (x != SIZE || y == 0) {
+                    throw invalid(text, start, end);
+                }
+
+                x = 0;
+                y--;
+            } else if (c >= '1' && c <= '6') {
+                x += c - '0';
+            } else if ((c == PAWN_CHARS[P1] || c == PAWN_CHARS[P2]) && x < SIZE) {
+                pawns[c == PAWN_CHARS[P1] ? P1 : P2] |= bit(square(x++, y));
+            } else {
+                throw invalid(text, start, end);
+            }
+
+            if (x > SIZE) {
+                throw invalid(text, start, end);
+            }
+        }
+
+        if (x != SIZE || y != 0) {
+            throw invalid(text, start, end);
+        }
+
+        int[] fields = new int[3]; //Joueur qui doit jouer, score du joueur 1, score du joueur 2
+        int count = 0;
+        i = skipSpaces(text, i, end);
+
+        while (i < end) {
+            int value = 0;
+            int digits = 0;
+
+            for (; i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9' && digits < 3; i++, digits++) {
+                value = value * 10 + text.charAt(i) - '0';
+            }
+
+            if (digits == 0 || count == fields.length || (i < end && !Character.isWhitespace(text.charAt(i)))) {
+                throw invalid(text, start, end);
+            }
+
+            fields[count++] = value;
+            i = skipSpaces(text, i, end);
+        }
+
+        if (count != fields.length || fields[0] < 1 || fields[0] > 2) {
+            throw invalid(text, start, end);
+        }
+
+        return new Position(pawns[P1], pawns[P2], fields[0] - 1, fields[1], fields[2]);
+    }
+
+    /**
+     * @param text  le texte.
+     * @param index l'indice du premier caractère.
+     * @param end   l'indice suivant le dernier caractère.
+     * @return l'indice du premier caractère qui n'est pas un espace, ou {@code end}.
+     */
+    private static int skipSpaces(CharSequence text, int index, int end) {
+        while (index < end && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * @param text  le texte.
+     * @param start l'indice du premier caractère de la notation.
+     * @param end   l'indice suivant le dernier caractère de la notation.
+     * @return l'exception signalant une notation invalide.
+     */
+    private static IllegalArgumentException invalid(CharSequence text, int start, int end) {
+        return new IllegalArgumentException("Position invalide : " + text.subSequence(start, end));
+    }
+
+    /**
+     * Retourne l'indice de la case de coordonnées (x, y).
+     *
+     * @param x la coordonnée X.
+     * @param y la coordonnée Y.
+     * @return l'indice de la case.
+     */
+    public static int square(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    /**
+     * @param square l'indice de la case.
+     * @return la coordonnée X de la case.
+     */
+    public static int x(int square) {
+        return square % SIZE;
+    }
+
+    /**
+     * @param square l'indice de la case.
+     * @return la coordonnée Y de la case.
+     */
+    public static int y(int square) {
+        return square / SIZE;
+    }
+
+    /**
+     * @param square l'indice de la case.
+     * @return le masque ne contenant que cette case.
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @param player le joueur.
+     * @return l'adversaire du joueur.
+     */
+    public static int opponent(int player) {
+        return player ^ 1;
+    }
+
+    /**
+     * @return une copie indépendante de cette position, pile d'annulation comprise.
+     */
+    public Position copy() {
+        return new Position(this, true);
+    }
+
+    /**
+     * Crée la position obtenue en jouant un coup, sans modifier cette position.
+     * Le coup doit être légal, voir {@link MoveGenerator}. La nouvelle position n'a aucun coup à annuler.
+     *
+     * @param move le coup, au format de {@link Move}.
+     * @return la nouvelle position.
+     */
+    public Position play(int move) {
+        Position position = new Position(this, false);
+        position.apply(move);
+        return position;
+    }
+
+    /**
+     * Joue un coup sur place, en le mémorisant dans la pile d'annulation.
+     * Le coup doit être légal, voir {@link MoveGenerator}.
+     *
+     * @param move le coup, au format de {@link Move}.
+     * @see Position#unmakeMove()
+     */
+    public void makeMove(int move) {
+        if (undoMoves == null) {
+            this.undoMoves = new int[UNDO_CAPACITY];
+            this.undoKeys = new long[UNDO_CAPACITY];
+        } else if (undoSize == undoMoves.length) {
+            this.undoMoves = Arrays.copyOf(undoMoves, undoSize * 2);
+            this.undoKeys = Arrays.copyOf(undoKeys, undoSize * 2);
+        }
+
+        undoMoves[undoSize] = move;
+        undoKeys[undoSize++] = key;
+
+        this.apply(move);
+    }
+
+    /**
+     * Annule le dernier coup joué par {@link Position#makeMove(int)} : le pion revient à sa case de départ, le pion pris est replacé,
+     * et le score, le joueur qui doit jouer et l'empreinte sont restaurés.
+     *
+     * @return le coup annulé.
+     * @throws IllegalStateException si aucun coup ne peut être annulé.
+     */
+    public int unmakeMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("Aucun coup à annuler");
+        }
+
+        int move = undoMoves[--undoSize];
+        int side = opponent(sideToMove);
+
+        pawns[side] ^= bit(Move.from(move)) | bit(Move.to(move));
+
+        if (Move.isCapture(move)) {
+            pawns[sideToMove] |= bit(Move.to(move));
+            scores[side]--;
+        }
+
+        this.sideToMove = side;
+        this.key = undoKeys[undoSize];
+
+        return move;
+    }
+
+    /**
+     * @return le nombre de coups pouvant être annulés par {@link Position#unmakeMove()}.
+     */
+    public int undoSize() {
+        return undoSize;
+    }
+
+    /**
+     * Applique un coup sur place et met à jour l'empreinte.
+     *
+     * @param move le coup.
+     */
+    private void apply(int move) {
+        int side = sideToMove;
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        pawns[side] ^= bit(from) | bit(to);
+        key ^= Zobrist.pawn(side, from) ^ Zobrist.pawn(side, to) ^ Zobrist.side();
+
+        if (Move.isCapture(move)) {
+            int opponent = opponent(side);
+            pawns[opponent] ^= bit(to);
+            key ^= Zobrist.pawn(opponent, to) ^ Zobrist.score(side, scores[side]) ^ Zobrist.score(side, scores[side] + 1);
+            scores[side]++;
+        }
+
+        this.sideToMove = opponent(side);
+    }
+
+    /**
+     * @param player le joueur.
+     * @return les pions du joueur, un bit par case.
+     */
+    public long pawns(int player) {
+        return pawns[player];
+    }
+
+    /**
+     * @return les cases occupées par un pion, quel que soit le joueur.
+     */
+    public long occupied() {
+        return pawns[P1] | pawns[P2];
+    }
+
+    /**
+     * @return les cases vides.
+     */
+    public long empty() {
+        return ~occupied() & BOARD;
+    }
+
+    /**
+     * Retourne le joueur possédant le pion situé sur la case.
+     *
+     * @param square l'indice de la case.
+     * @return le joueur, ou {@link Position#NONE} si la case est vide.
+     */
+    public int player(int square) {
+        long bit = bit(square);
+        return (pawns[P1] & bit) != 0 ? P1 : (pawns[P2] & bit) != 0 ? P2 : NONE;
+    }
+
+    /**
+     * @param player le joueur.
+     * @return le nombre de pions restants du joueur.
+     */
+    public int count(int player) {
+        return Long.bitCount(pawns[player]);
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * @return l'empreinte de Zobrist de la position.
+     * @see Zobrist
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @param player le joueur.
+     * @return le score du joueur.
+     */
+    public int score(int player) {
+        return scores[player];
+    }
+
+    /**
+     * Détermine quel joueur a atteint le score gagnant, à l'image de {@link fr.uphf.etu.controller.GameController#getWinner()}.
+     *
+     * @return le joueur gagnant, ou {@link Position#NONE} si la partie n'est pas terminée.
+     */
+    public int winner() {
+        return scores[P1] >= WINNING_SCORE ? P1 : scores[P2] >= WINNING_SCORE ? P2 : NONE;
+    }
+
+    /**
+     * Écrit la position sur une ligne, au format décrit par {@link Position}.
+     *
+     * @return la notation de la position.
+     */
+    public String toNotation() {
+        return this.toNotation(new StringBuilder(40)).toString();
+    }
+
+    /**
+     * Ajoute la notation de la position à la suite d'un texte, sans créer de chaîne intermédiaire.
+     *
+     * @param builder le texte.
+     * @return ce même texte.
+     */
+    public StringBuilder toNotation(StringBuilder builder) {
+        for (int y = SIZE - 1; y >= 0; y--) {
+            int empty = 0;
+
+            for (int x = 0; x < SIZE; x++) {
+                int player = this.player(square(x, y));
+
+                if (player == NONE) {
+                    empty++;
+                    continue;
+                }
+
+                if (empty > 0) {
+                    builder.append((char) ('0' + empty));
+                    empty = 0;
+                }
+
+                builder.append(PAWN_CHARS[player]);
+            }
+
+            if (empty > 0) {
+                builder.append((char) ('0' + empty));
+            }
+
+            if (y > 0) {
+                builder.append('/');
+            }
+        }
+
+        return builder.append(' ').append(sideToMove + 1).append(' ').append(scores[P1]).append(' ').append(scores[P2]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Position)) return false;
+
+        Position position = (Position) o;
+        return sideToMove == position.sideToMove && Arrays.equals(pawns, position.pawns) && Arrays.equals(scores, position.scores);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(pawns) + Arrays.hashCode(scores)) + sideToMove;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("pawnsP1", Long.toHexString(pawns[P1]))
+                .add("pawnsP2", Long.toHexString(pawns[P2]))
+                .add("sideToMove", sideToMove)
+                .add("scoreP1", scores[P1])
+                .add("scoreP2", scores[P2])
+                .toString();
+    }
+}
@@ -0,0 +1,413 @@
+package fr.uphf.etu.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Un protocole textuel, inspiré d'UCI, pour piloter un {@link Engine} sans interface graphique depuis un gestionnaire de tournois ou une autre interface.
+ * <p>
+ * Chaque ligne reçue est une commande :
+ * <ul>
+ *     <li>{@code uci} : identifie le moteur et ses options, puis répond {@code uciok} ;</li>
+ *     <li>{@code isready} : répond {@code readyok}, y compris pendant une recherche ;</li>
+ *     <li>{@code setoption name MultiPV value <n>} : le nombre de variations principales décrites ;</li>
+ *     <li>{@code ucinewgame} : revient à la position de départ ;</li>
+ *     <li>{@code position startpos|[fen] <notation> [moves <coup>...]} : la position de départ ou une position au format de {@link Position#toNotation()},
+ *     suivie des coups joués depuis, au format de {@link Move#toString(int)} ;</li>
+ *     <li>{@code go [depth <n>] [movetime <ms>] [nodes <n>] [infinite] [ponder]} : lance la recherche en arrière-plan ;</li>
+ *     <li>{@code stop} : arrête la recherche en cours ;</li>
+ *     <li>{@code ponderhit} : l'adversaire a joué le coup prévu, la recherche d'anticipation devient la recherche du coup à jouer ;</li>
+ *     <li>{@code quit} : arrête la recherche et termine le programme.</li>
+ * </ul>
+ * Pendant la recherche, chaque progression du moteur est décrite par une ligne {@code info} par variation (profondeur, évaluation, noeuds, vitesse,
+ * remplissage de la mémoire, temps et variation), puis le coup choisi par {@code bestmove <coup> [ponder <coup>]}.
+ * Comme avec UCI, {@code bestmove} n'est écrit qu'après {@code stop} pour {@code go infinite}, et qu'après {@code stop} ou {@code ponderhit} pour {@code go ponder}.
+ * <p>
+ * Ce programme ne dépend pas de JavaFX : il démarre sans charger l'interface. Le moteur est créé par {@link Engines#fromProperties}, comme celui de l'interface.
+ */
+public final class Protocol {
+    /**
+     * Le nom du moteur annoncé par {@code uci}.
+     */
+    public static final String NAME = "Surakarta";
+
+    /**
+     * Le coup annoncé lorsqu'aucun coup n'est possible.
+     */
+    public static final String NULL_MOVE = "0000";
+
+    /**
+     * Le moteur piloté.
+     */
+    private final Engine engine;
+
+    /**
+     * La sortie des réponses.
+     */
+    private final PrintStream out;
+
+    /**
+     * Le fil d'exécution des recherches.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "surakarta-protocol");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * La position fixée par la dernière commande {@code position}.
+     */
+    private Position position = Position.start();
+
+    /**
+     * Le nombre de variations principales décrites.
+     */
+    private int multiPv = 1;
+
+    /**
+     * La recherche en cours ou la dernière recherche, ou {@code null}.
+     */
+    private Future<?> search;
+
+    /**
+     * Les limites de la recherche en cours ou de la dernière recherche.
+     */
+    private SearchLimits limits;
+
+    /**
+     * Libérée par {@code stop} ou {@code ponderhit} : la recherche en cours n'écrit son coup qu'ensuite.
+     */
+    private CountDownLatch release = new CountDownLatch(0);
+
+    /**
+     * Vrai si la recherche en cours attend {@code ponderhit}.
+     */
+    private boolean pondering;
+
+    /**
+     * Constructeur du protocole.
+     *
+     * @param engine le moteur piloté, qui doit être libéré par l'appelant.
+     * @param out    la sortie des réponses.
+     */
+    public Protocol(Engine engine, PrintStream out) {
+        this.engine = engine;
+        this.out = out;
+        this.engine.setListener(this::info);
+    }
+
+    /**
+     * Exécute les commandes lues jusqu'à {@code quit} ou la fin de l'entrée.
+     *
+     * @param in l'entrée des commandes.
+     * @throws IOException si l'entrée ne peut pas être lue.
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+
+        while ((line = in.readLine()) != null) {
+            if (!this.execute(line)) {
+                return;
+            }
+        }
+
+        this.quit();
+    }
+
+    /**
+     * Exécute une commande. Une commande inconnue ou invalide est signalée par une ligne {@code info string}.
+     *
+     * @param line la commande.
+     * @return {@code false} après {@code quit}.
+     */
+    public boolean execute(String line) {
+        String[] tokens = line.trim().split("\\s+");
+
+        try {
+            switch (tokens[0]) {
+                case "":
+                    break;
+                case "uci":
+                    out.println("id name " + NAME);
+                    out.println("option name MultiPV type spin default 1 min 1 max " + MoveGenerator.MAX_MOVES);
+                    out.println("uciok");
+                    break;
+                case "isready":
+                    out.println("readyok");
+                    break;
+                case "setoption":
+                    this.setOption(tokens);
+                    break;
+                case "ucinewgame":
+                    this.position = Position.start();
+                    break;
+                case "position":
+                    this.position(tokens);
+                    break;
+                case "go":
+                    this.go(tokens);
+                    break;
+                case "stop":
+                    this.stop();
+                    break;
+                case "ponderhit":
+                    this.ponderhit();
+                    break;
+                case "quit":
+                    this.quit();
+                    return false;
+                default:
+                    out.println("info string Commande inconnue : " + line);
+            }
+        } catch (IllegalArgumentException e) {
+            out.println("info string " + e.getMessage());
+        }
+
+        return true;
+    }
+
+    /**
+     * Traite {@code setoption name <nom> value <valeur>}.
+     *
+     * @param tokens les mots de la commande.
+     * @throws IllegalArgumentException si l'option est inconnue ou sa valeur invalide.
+     */
+    private void setOption(String[] tokens) {
+        if (tokens.length != 5 || !tokens[1].equals("name") || !tokens[3].equals("value") || !tokens[2].equalsIgnoreCase("MultiPV")) {
+            throw new IllegalArgumentException("Option invalide : " + String.join(" ", tokens));
+        }
+
+        this.multiPv = Math.max(1, Math.min(parseNumber(tokens[4]), MoveGenerator.MAX_MOVES));
+    }
+
+    /**
+     * Traite {@code position startpos|[fen] <notation> [moves <coup>...]}.
+     *
+     * @param tokens les mots de la commande.
+     * @throws IllegalArgumentException si la position ou un coup est invalide : la position précédente est alors conservée.
+     */
+    private void position(String[] tokens) {
+        int moves = Arrays.asList(tokens).indexOf("moves");
+        int end = moves >= 0 ? moves : tokens.length;
+        int start = tokens.length > 1 && tokens[1].equals("fen") ? 2 : 1;
+
+        if (end <= start) {
+            throw new IllegalArgumentException("Position manquante");
+        }
+
+        Position next = tokens[start].equals("startpos") ? Position.start() : Position.parse(String.join(" ", Arrays.copyOfRange(tokens, start, end)));
+
+        for (int i = end + 1; i < tokens.length; i++) {
+            int move = Move.parse(tokens[i]);
+
+            if (!MoveGenerator.isLegal(next, move)) {
+                throw new IllegalArgumentException("Coup illégal : " + tokens[i]);
+            }
+
+            next = next.play(move);
+        }
+
+        this.position = next;
+    }
+
+    /**
+     * Traite {@code go [depth <n>] [movetime <ms>] [nodes <n>] [infinite] [ponder]} : la recherche est lancée dans son propre fil d'exécution.
+     * Sans limite, elle s'arrête après {@link SearchLimits#MAX_DEPTH} demi-coups ou, pour {@link Mcts}, après {@link Mcts#DEFAULT_PLAYOUTS} simulations.
+     *
+     * @param tokens les mots de la commande.
+     * @throws IllegalArgumentException si une recherche est déjà en cours ou qu'une limite est invalide.
+     */
+    private void go(String[] tokens) {
+        if (search != null && !search.isDone()) {
+            throw new IllegalArgumentException("Recherche déjà en cours");
+        }
+
+        int depth = SearchLimits.MAX_DEPTH;
+        long time = 0;
+        long nodes = 0;
+        boolean infinite = false;
+        boolean ponder = false;
+
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "depth":
+                    depth = parseNumber(++i < tokens.length ? tokens[i] : "");
+                    break;
+                case "movetime":
+                    time = parseNumber(++i < tokens.length ? tokens[i] : "");
+                    break;
+                case "nodes":
+                    nodes = parseNumber(++i < tokens.length ? tokens[i] : "");
+                    break;
+                case "infinite":
+                    infinite = true;
+                    break;
+                case "ponder":
+                    ponder = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Limite inconnue : " + tokens[i]);
+            }
+        }
+
+        //Une analyse infinie est une anticipation jamais confirmée, comme dans l'interface
+        SearchLimits searchLimits = new SearchLimits(depth, infinite ? 0 : time, nodes, infinite || ponder);
+        CountDownLatch searchRelease = new CountDownLatch(infinite || ponder ? 1 : 0);
+        Position root = position.copy();
+
+        this.limits = searchLimits;
+        this.release = searchRelease;
+        this.pondering = ponder && !infinite;
+        this.engine.setMultiPv(multiPv);
+
+        this.search = executor.submit(() -> {
+            SearchResult result = engine.search(root, searchLimits);
+
+            try {
+                searchRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            int[] pv = result.getPv();
+            out.println("bestmove " + (pv.length > 0 ? Move.toString(pv[0]) : NULL_MOVE) + (pv.length > 1 ? " ponder " + Move.toString(pv[1]) : ""));
+        });
+    }
+
+    /**
+     * Traite {@code stop} : la recherche en cours écrit son coup dès que possible.
+     */
+    private void stop() {
+        if (search == null || search.isDone()) {
+            return;
+        }
+
+        //Comme dans l'interface, ponderhit arrête aussi une anticipation qui n'a pas encore commencé, et donc pas encore reçu l'arrêt.
+        //Il ne concerne que cette recherche : déjà terminée, et attendant seulement stop pour écrire son coup, elle l'ignore
+        engine.stop();
+        engine.ponderhit(limits, 1);
+
+        this.pondering = false;
+        this.release.countDown();
+    }
+
+    /**
+     * Traite {@code ponderhit} : la recherche d'anticipation en cours dispose désormais du temps de sa commande {@code go}.
+     */
+    private void ponderhit() {
+        if (!pondering) {
+            return;
+        }
+
+        engine.ponderhit(limits, limits.getTime()); //Ignoré si l'anticipation a déjà atteint sa profondeur
+
+        this.pondering = false;
+        this.release.countDown();
+    }
+
+    /**
+     * Traite {@code quit} : arrête la recherche en cours et attend qu'elle écrive son coup.
+     */
+    private void quit() {
+        this.stop();
+        this.await();
+        this.executor.shutdown();
+    }
+
+    /**
+     * Attend la fin de la recherche en cours, s'il y en a une.
+     */
+    void await() {
+        if (search == null) {
+            return;
+        }
+
+        try {
+            search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur dans la recherche", e.getCause());
+        }
+    }
+
+    /**
+     * Décrit la progression du moteur, une ligne {@code info} par variation.
+     *
+     * @param lines    les variations principales.
+     * @param hashfull le remplissage de la mémoire du moteur, en pour mille.
+     */
+    private void info(List<SearchResult> lines, int hashfull) {
+        for (int i = 0; i < lines.size(); i++) {
+            SearchResult line = lines.get(i);
+            StringJoiner pv = new StringJoiner(" ");
+
+            for (int move : line.getPv()) {
+                pv.add(Move.toString(move));
+            }
+
+            out.println("info depth " + line.getDepth() + " multipv " + (i + 1) + " score " + formatScore(line.getScore())
+                    + " nodes " + line.getNodes() + " nps " + line.nps() + " hashfull " + hashfull + " time " + line.getTime() + " pv " + pv);
+        }
+    }
+
+    /**
+     * @param score une évaluation de {@link Search}.
+     * @return {@code cp <centièmes de pion>}, ou {@code mate <coups>} pour une fin de partie forcée, négatif pour une défaite.
+     */
+    static String formatScore(int score) {
+        if (Math.abs(score) >= Search.WIN_BOUND) {
+            int moves = (Search.WIN - Math.abs(score) + 1) / 2;
+            return "mate " + (score > 0 ? moves : -moves);
+        }
+
+        return "cp " + score * 100 / Search.PAWN;
+    }
+
+    /**
+     * @param text un nombre positif.
+     * @return le nombre.
+     * @throws IllegalArgumentException si le texte n'est pas un nombre positif.
+     */
+    private static int parseNumber(String text) {
+        try {
+            int value = Integer.parseInt(text);
+
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        throw new IllegalArgumentException("Nombre invalide : " + text);
+    }
+
+    /**
+     * Lit les commandes sur l'entrée standard et écrit les réponses sur la sortie standard.
+     *
+     * @param args inutilisés : le moteur est choisi par les propriétés système.
+     * @throws IOException si l'entrée standard ne peut pas être lue.
+     */
+    public static void main(String[] args) throws IOException {
+        Engine engine = Engines.fromProperties((message, e) -> System.err.println(message + " : " + e.getMessage())); //La sortie standard est réservée au protocole
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+
+        try {
+            new Protocol(engine, out).run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
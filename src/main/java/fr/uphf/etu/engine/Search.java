@@ -0,0 +1,632 @@
+package fr.uphf.etu.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Une classe cherchant le meilleur coup d'une position par un algorithme négamax avec élagage alpha-bêta.
+ * <p>
+ * La recherche s'approfondit itérativement jusqu'à épuisement du budget ({@link SearchLimits}) : le résultat de la dernière profondeur complètement explorée est alors retourné.
+ * Les prises sont explorées en premier, et les positions feuilles sont prolongées par une recherche de repos ne contenant que des prises.
+ * Les résultats sont mémorisés dans une {@link TranspositionTable}, qui fournit des coupures et le premier coup à explorer dans les positions déjà rencontrées.
+ * Les variations sont explorées sur place par {@link Position#makeMove(int)} et {@link Position#unmakeMove()}, sans copier de position,
+ * l'{@link Evaluator} étant mis à jour incrémentalement à chaque coup.
+ * Si une {@link Tablebase} est fournie, les positions qu'elle couvre sont évaluées exactement sans être explorées, et son meilleur coup est joué directement à la racine.
+ * Pour l'analyse, plusieurs variations principales peuvent être suivies ({@link Search#setMultiPv(int)}) : à chaque profondeur, la racine est explorée à nouveau
+ * en excluant les meilleurs coups déjà trouvés, et un {@link SearchListener} est notifié des variations obtenues.
+ * <p>
+ * Une instance ne peut mener qu'une recherche à la fois, mais {@link Search#stop()} et {@link Search#ponderhit(SearchLimits, long)} peuvent être appelées depuis un autre fil d'exécution.
+ */
+public class Search {
+    /**
+     * Une borne supérieure de toutes les évaluations.
+     */
+    public static final int INFINITY = 32000;
+
+    /**
+     * L'évaluation d'une partie gagnée, diminuée du nombre de demi-coups nécessaires pour la gagner.
+     */
+    public static final int WIN = 30000;
+
+    /**
+     * La valeur d'un point de score.
+     */
+    public static final int PAWN = 100;
+
+    /**
+     * Le seuil au-delà duquel une évaluation annonce une fin de partie forcée, trouvée par la recherche ou lue dans une {@link Tablebase}.
+     */
+    public static final int WIN_BOUND = WIN - 1000;
+
+    /**
+     * Le nombre maximal de demi-coups explorés, recherche de repos comprise : une prise retire un pion, il n'y en a donc pas plus de 23 à la suite.
+     */
+    public static final int MAX_PLY = SearchLimits.MAX_DEPTH + 2 * Position.WINNING_SCORE;
+
+    /**
+     * Le nombre de noeuds entre deux vérifications du temps écoulé.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * La table de transposition.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * La fonction d'évaluation, propre à cette recherche.
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * La table de finales consultée, ou {@code null}.
+     */
+    private Tablebase tablebase;
+
+    /**
+     * Les coups générés, chaque demi-coup utilisant sa propre portion du tableau.
+     */
+    private final int[] moves = new int[MAX_PLY * MoveGenerator.MAX_MOVES];
+
+    /**
+     * Les variations principales trouvées à chaque demi-coup.
+     */
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+
+    /**
+     * La longueur des variations principales de chaque demi-coup.
+     */
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    /**
+     * Les coups de la racine exclus de l'exploration, déjà retenus par une variation principale de la profondeur en cours.
+     */
+    private final int[] excludedMoves = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * Le nombre de coups exclus de la racine.
+     */
+    private int excluded;
+
+    /**
+     * Le nombre de variations principales suivies.
+     */
+    private int multiPv = 1;
+
+    /**
+     * L'observateur notifié à chaque profondeur terminée, ou {@code null}.
+     */
+    private SearchListener listener;
+
+    /**
+     * Demande l'arrêt de la recherche en cours.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Le moment auquel la recherche d'anticipation confirmée doit s'arrêter, en nanosecondes.
+     */
+    private volatile long ponderDeadline = Long.MAX_VALUE;
+
+    /**
+     * Les limites de la recherche d'anticipation confirmée par le dernier {@link Search#ponderhit(SearchLimits, long)}, ou {@code null}.
+     * Écrites après {@link Search#ponderDeadline}, elles le publient à la recherche.
+     */
+    private volatile SearchLimits confirmed;
+
+    /**
+     * Les limites de la recherche en cours si c'est une recherche d'anticipation, sinon {@code null}.
+     */
+    private SearchLimits ponderLimits;
+
+    /**
+     * Vrai tant que la première profondeur n'est pas terminée : elle doit l'être pour fournir un coup.
+     */
+    private boolean mustFinish;
+
+    /**
+     * Le moment auquel la recherche doit s'arrêter, en nanosecondes.
+     */
+    private long deadline;
+
+    /**
+     * Le nombre de noeuds au-delà duquel la recherche doit s'arrêter.
+     */
+    private long nodeLimit;
+
+    /**
+     * Le nombre de noeuds visités par la recherche en cours.
+     */
+    private long nodes;
+
+    /**
+     * Le meilleur coup de la profondeur précédente, exploré en premier.
+     */
+    private int rootMove;
+
+    /**
+     * L'indice de cette recherche parmi celles d'une {@link ParallelSearch}, <i>0</i> pour la recherche principale.
+     */
+    private int helper;
+
+    /**
+     * Constructeur de la recherche, avec l'évaluation par défaut.
+     *
+     * @param table la table de transposition, qui peut être partagée avec d'autres recherches.
+     */
+    public Search(TranspositionTable table) {
+        this(table, new WeightedEvaluator(EvaluationWeights.DEFAULT));
+    }
+
+    /**
+     * Constructeur de la recherche.
+     *
+     * @param table     la table de transposition, qui peut être partagée avec d'autres recherches.
+     * @param evaluator la fonction d'évaluation, dont une copie est utilisée.
+     */
+    public Search(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator.copy();
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    /**
+     * Définit la table de finales consultée par la recherche.
+     *
+     * @param tablebase la table de finales, ou {@code null} pour ne pas en consulter.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    /**
+     * Définit le nombre de variations principales suivies par les recherches suivantes.
+     *
+     * @param lines le nombre de variations, au moins 1.
+     * @see Engine#setMultiPv(int)
+     */
+    public void setMultiPv(int lines) {
+        this.multiPv = Math.max(1, Math.min(lines, MoveGenerator.MAX_MOVES));
+    }
+
+    /**
+     * Définit l'observateur notifié à chaque profondeur terminée par les recherches suivantes.
+     *
+     * @param listener l'observateur, ou {@code null} pour ne plus en notifier.
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Définit l'indice de cette recherche parmi celles d'une {@link ParallelSearch}.
+     * Une recherche auxiliaire (indice non nul) n'est pas tenue de terminer sa première profondeur, et décale ses profondeurs selon son indice.
+     *
+     * @param helper l'indice de la recherche, <i>0</i> pour la recherche principale.
+     */
+    void setHelper(int helper) {
+        this.helper = helper;
+    }
+
+    /**
+     * Cherche le meilleur coup de la position.
+     *
+     * @param position la position.
+     * @param limits   le budget de la recherche.
+     * @return le résultat de la dernière profondeur complètement explorée.
+     */
+    public SearchResult search(Position position, SearchLimits limits) {
+        this.prepare();
+        this.table.newSearch();
+        return this.run(position, limits);
+    }
+
+    /**
+     * Annule les demandes d'arrêt précédentes, avant de lancer {@link Search#run(Position, SearchLimits)}.
+     */
+    void prepare() {
+        this.stopRequested = false;
+    }
+
+    /**
+     * Cherche le meilleur coup de la position, sans annuler une demande d'arrêt postérieure à {@link Search#prepare()}.
+     * Cela permet à {@link ParallelSearch} de préparer les recherches avant de les lancer dans d'autres fils d'exécution sans perdre d'arrêt.
+     *
+     * @param position la position.
+     * @param limits   le budget de la recherche.
+     * @return le résultat de la dernière profondeur complètement explorée.
+     */
+    SearchResult run(Position position, SearchLimits limits) {
+        long start = System.nanoTime();
+        position = position.copy(); //Les coups sont joués et annulés sur place, sur une copie propre à cette recherche
+        evaluator.reset(position);
+
+        this.deadline = limits.getTime() > 0 && !limits.isPonder() ? start + limits.getTime() * 1_000_000 : Long.MAX_VALUE;
+        this.nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        this.ponderLimits = limits.isPonder() ? limits : null;
+        this.nodes = 0;
+        this.rootMove = Move.NONE;
+
+        SearchResult result = new SearchResult(0, 0, 0, 0, new int[0]);
+        int code = this.probe(position);
+
+        if (code != Tablebase.UNKNOWN) { //Position couverte par la table de finales : son meilleur coup est sûr
+            int move = tablebase.bestMove(position);
+
+            if (move != Move.NONE) {
+                return new SearchResult(Tablebase.score(code, 0), 1, 1, (System.nanoTime() - start) / 1_000_000, new int[]{move});
+            }
+        }
+
+        List<SearchResult> previous = Collections.emptyList();
+
+        for (int depth = 1 + helper % 2; depth <= limits.getDepth(); depth++) { //Les recherches auxiliaires impaires commencent une profondeur plus loin
+            List<SearchResult> lines = new ArrayList<>();
+            this.excluded = 0;
+
+            for (int line = 0; line < multiPv; line++) {
+                this.mustFinish = depth == 1 && helper == 0 && line == 0;
+                this.rootMove = line < previous.size() ? previous.get(line).getBestMove() : Move.NONE;
+                int score = negamax(position, depth, -INFINITY, INFINITY, 0);
+
+                if (this.stopped()) {
+                    break;
+                }
+
+                SearchResult lineResult = new SearchResult(score, depth, nodes, (System.nanoTime() - start) / 1_000_000, Arrays.copyOf(pv[0], pvLength[0]));
+
+                if (line > 0 && lineResult.getBestMove() == Move.NONE) { //Moins de coups que de variations demandées
+                    break;
+                }
+
+                lines.add(lineResult);
+                excludedMoves[excluded++] = lineResult.getBestMove();
+
+                if (lineResult.getBestMove() == Move.NONE) {
+                    break;
+                }
+            }
+
+            this.excluded = 0;
+
+            if (lines.isEmpty()) { //Profondeur incomplète, le résultat précédent est conservé
+                break;
+            }
+
+            result = lines.get(0);
+            this.rootMove = result.getBestMove();
+
+            if (this.stopped()) { //Variations secondaires incomplètes, seule la meilleure est conservée
+                break;
+            }
+
+            previous = lines;
+
+            if (listener != null) {
+                listener.update(Collections.unmodifiableList(lines), table.hashfull());
+            }
+
+            if (result.getBestMove() == Move.NONE || Math.abs(result.getScore()) >= WIN_BOUND) { //Aucun coup possible, ou fin de partie trouvée
+                break;
+            }
+        }
+
+        return new SearchResult(result.getScore(), result.getDepth(), nodes, (System.nanoTime() - start) / 1_000_000, result.getPv());
+    }
+
+    /**
+     * Demande l'arrêt de la recherche en cours, qui retournera son meilleur résultat dès que possible.
+     */
+    public void stop() {
+        this.stopRequested = true;
+    }
+
+    /**
+     * Limite la recherche d'anticipation désignée par ses limites, en cours ou sur le point de commencer, au temps donné à partir de maintenant.
+     * Une recherche déjà terminée n'est pas concernée, ni aucune recherche suivante.
+     *
+     * @param limits les limites de la recherche d'anticipation confirmée.
+     * @param time   le temps restant en millisecondes, ou <i>0</i> pour un temps illimité.
+     * @see Engine#ponderhit(SearchLimits, long)
+     */
+    public void ponderhit(SearchLimits limits, long time) {
+        this.ponderDeadline = time > 0 ? System.nanoTime() + time * 1_000_000 : Long.MAX_VALUE;
+        this.confirmed = limits;
+    }
+
+    /**
+     * @return le nombre de noeuds visités par la recherche en cours ou la dernière recherche.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Évalue une position du point de vue du joueur qui doit jouer.
+     *
+     * @param position la position.
+     * @return l'évaluation de la position.
+     */
+    protected int evaluate(Position position) {
+        return evaluator.evaluate(position);
+    }
+
+    /**
+     * Joue un coup sur place et met à jour l'évaluation.
+     *
+     * @param position la position.
+     * @param move     le coup.
+     */
+    private void makeMove(Position position, int move) {
+        evaluator.makeMove(position, move);
+        position.makeMove(move);
+    }
+
+    /**
+     * Annule le dernier coup joué sur place et restaure l'évaluation.
+     *
+     * @param position la position.
+     */
+    private void unmakeMove(Position position) {
+        evaluator.unmakeMove(position, position.unmakeMove());
+    }
+
+    /**
+     * Explore les coups de la position par négamax avec élagage alpha-bêta.
+     *
+     * @param position la position.
+     * @param depth    la profondeur restante.
+     * @param alpha    la borne inférieure.
+     * @param beta     la borne supérieure.
+     * @param ply      le nombre de demi-coups depuis la racine.
+     * @return l'évaluation de la position du point de vue du joueur qui doit jouer.
+     */
+    private int negamax(Position position, int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+
+        if (position.winner() != Position.NONE) { //L'adversaire vient de gagner
+            return -WIN + ply;
+        }
+
+        if (ply > 0) {
+            int code = this.probe(position);
+
+            if (code != Tablebase.UNKNOWN) {
+                nodes++;
+                return Tablebase.score(code, ply);
+            }
+        }
+
+        if (depth <= 0) {
+            return quiescence(position, alpha, beta, ply);
+        }
+
+        nodes++;
+
+        if (this.shouldStop()) {
+            return 0;
+        }
+
+        long key = position.getKey();
+        long entry = table.probe(key);
+        int hashMove = ply == 0 ? rootMove : TranspositionTable.move(entry);
+
+        if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = TranspositionTable.score(entry, ply);
+            int bound = TranspositionTable.bound(entry);
+
+            if (bound == TranspositionTable.EXACT || bound == TranspositionTable.LOWER && score >= beta || bound == TranspositionTable.UPPER && score <= alpha) {
+                return score;
+            }
+        }
+
+        int offset = ply * MoveGenerator.MAX_MOVES;
+        int end = MoveGenerator.generate(position, MoveGenerator.ALL, moves, offset);
+
+        if (end == offset) { //Aucun coup possible, partie nulle
+            return 0;
+        }
+
+        promote(offset, end, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+
+        for (int i = offset; i < end; i++) {
+            int move = moves[i];
+
+            if (ply == 0 && this.isExcluded(move)) { //Déjà retenu par une variation principale précédente
+                continue;
+            }
+
+            this.makeMove(position, move);
+            int score = -negamax(position, depth - 1, -beta, -alpha, ply + 1);
+            this.unmakeMove(position);
+
+            if (this.stopped()) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+
+                    if (alpha >= beta) { //Coupure bêta
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (ply > 0 || excluded == 0) { //L'évaluation de la racine privée de coups ne vaut pas pour la position
+            int bound = best >= beta ? TranspositionTable.LOWER : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(key, bestMove, best, depth, bound, ply);
+        }
+
+        return best;
+    }
+
+    /**
+     * Prolonge la recherche par les prises uniquement, jusqu'à atteindre une position calme.
+     *
+     * @param position la position.
+     * @param alpha    la borne inférieure.
+     * @param beta     la borne supérieure.
+     * @param ply      le nombre de demi-coups depuis la racine.
+     * @return l'évaluation de la position du point de vue du joueur qui doit jouer.
+     */
+    private int quiescence(Position position, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        nodes++;
+
+        if (position.winner() != Position.NONE) {
+            return -WIN + ply;
+        }
+
+        if (this.shouldStop()) {
+            return 0;
+        }
+
+        int code = this.probe(position);
+
+        if (code != Tablebase.UNKNOWN) {
+            return Tablebase.score(code, ply);
+        }
+
+        int standPat = evaluate(position);
+
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+
+        alpha = Math.max(alpha, standPat);
+
+        int offset = ply * MoveGenerator.MAX_MOVES;
+        int end = MoveGenerator.generate(position, MoveGenerator.CAPTURES, moves, offset);
+
+        for (int i = offset; i < end; i++) {
+            int move = moves[i];
+            this.makeMove(position, move);
+            int score = -quiescence(position, -beta, -alpha, ply + 1);
+            this.unmakeMove(position);
+
+            if (this.stopped()) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Consulte la table de finales, si la position compte assez peu de pions pour y figurer.
+     *
+     * @param position la position.
+     * @return le code de la position, ou {@link Tablebase#UNKNOWN} si elle n'est pas couverte.
+     */
+    private int probe(Position position) {
+        if (tablebase == null || Long.bitCount(position.occupied()) > tablebase.getMaxPawns()) {
+            return Tablebase.UNKNOWN;
+        }
+
+        return tablebase.probe(position);
+    }
+
+    /**
+     * Place un coup en tête de la liste des coups, s'il y figure.
+     *
+     * @param offset l'indice du premier coup.
+     * @param end    l'indice suivant le dernier coup.
+     * @param move   le coup à placer en tête.
+     */
+    private void promote(int offset, int end, int move) {
+        if (move == Move.NONE) {
+            return;
+        }
+
+        for (int i = offset; i < end; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, offset, moves, offset + 1, i - offset);
+                moves[offset] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param move un coup de la racine.
+     * @return {@code true} si le coup est déjà retenu par une variation principale de la profondeur en cours.
+     */
+    private boolean isExcluded(int move) {
+        for (int i = 0; i < excluded; i++) {
+            if (excludedMoves[i] == move) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Met à jour la variation principale d'un demi-coup avec le coup et la variation du demi-coup suivant.
+     *
+     * @param ply  le demi-coup.
+     * @param move le meilleur coup.
+     */
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = pvLength[ply + 1];
+    }
+
+    /**
+     * Vérifie régulièrement le temps écoulé et le nombre de noeuds visités, et détermine si la recherche doit s'arrêter.
+     *
+     * @return {@code true} si la recherche doit s'arrêter.
+     */
+    private boolean shouldStop() {
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            long now = System.nanoTime();
+
+            if (now >= deadline || nodes >= nodeLimit || ponderLimits != null && confirmed == ponderLimits && now >= ponderDeadline) {
+                this.stopRequested = true;
+            }
+        }
+
+        return this.stopped();
+    }
+
+    /**
+     * @return {@code true} si l'arrêt a été demandé et que la première profondeur est terminée.
+     */
+    private boolean stopped() {
+        return this.stopRequested && !this.mustFinish;
+    }
+}
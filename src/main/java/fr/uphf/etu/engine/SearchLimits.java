@@ -0,0 +1,140 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Une classe décrivant le budget accordé à une recherche : une profondeur maximale, un temps maximal et/ou un nombre maximal de noeuds.
+ * <p>
+ * Une recherche d'anticipation ({@link SearchLimits#ponder(int)}) explore la position attendue après le coup prévu de l'adversaire, pendant qu'il réfléchit :
+ * son temps n'est pas compté avant que {@link Engine#ponderhit(SearchLimits, long)} ne confirme le coup.
+ * Chaque instance désigne la recherche qui l'a reçue : une recherche d'anticipation doit donc recevoir ses propres limites, que créent toutes les fabriques.
+ */
+public final class SearchLimits {
+    /**
+     * La profondeur maximale d'une recherche, en demi-coups.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * La profondeur maximale de la recherche, en demi-coups.
+     */
+    private final int depth;
+
+    /**
+     * Le temps maximal de la recherche en millisecondes, ou <i>0</i> pour un temps illimité.
+     */
+    private final long time;
+
+    /**
+     * Le nombre maximal de noeuds visités, ou <i>0</i> pour un nombre illimité.
+     */
+    private final long nodes;
+
+    /**
+     * Vrai pour une recherche d'anticipation.
+     */
+    private final boolean ponder;
+
+    /**
+     * Constructeur des limites.
+     *
+     * @param depth la profondeur maximale, bornée à {@link SearchLimits#MAX_DEPTH}.
+     * @param time  le temps maximal en millisecondes, ou <i>0</i> pour un temps illimité.
+     */
+    public SearchLimits(int depth, long time) {
+        this(depth, time, false);
+    }
+
+    /**
+     * Constructeur des limites.
+     *
+     * @param depth  la profondeur maximale, bornée à {@link SearchLimits#MAX_DEPTH}.
+     * @param time   le temps maximal en millisecondes, ou <i>0</i> pour un temps illimité.
+     * @param ponder {@code true} pour une recherche d'anticipation, dont le temps n'est pas compté avant {@link Engine#ponderhit(SearchLimits, long)}.
+     */
+    public SearchLimits(int depth, long time, boolean ponder) {
+        this(depth, time, 0, ponder);
+    }
+
+    /**
+     * Constructeur des limites.
+     *
+     * @param depth  la profondeur maximale, bornée à {@link SearchLimits#MAX_DEPTH}.
+     * @param time   le temps maximal en millisecondes, ou <i>0</i> pour un temps illimité.
+     * @param nodes  le nombre maximal de noeuds, ou <i>0</i> pour un nombre illimité : les simulations pour {@link Mcts},
+     *               les noeuds de la recherche principale pour {@link ParallelSearch}. Il est compté dès le début d'une recherche d'anticipation.
+     * @param ponder {@code true} pour une recherche d'anticipation, dont le temps n'est pas compté avant {@link Engine#ponderhit(SearchLimits, long)}.
+     */
+    public SearchLimits(int depth, long time, long nodes, boolean ponder) {
+        this.depth = Math.max(1, Math.min(depth, MAX_DEPTH));
+        this.time = Math.max(0, time);
+        this.nodes = Math.max(0, nodes);
+        this.ponder = ponder;
+    }
+
+    /**
+     * @param depth la profondeur maximale.
+     * @return des limites ne portant que sur la profondeur.
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0);
+    }
+
+    /**
+     * @param time le temps maximal en millisecondes.
+     * @return des limites ne portant que sur le temps.
+     */
+    public static SearchLimits time(long time) {
+        return new SearchLimits(MAX_DEPTH, time);
+    }
+
+    /**
+     * @param nodes le nombre maximal de noeuds.
+     * @return des limites ne portant que sur le nombre de noeuds, indépendantes de la vitesse de la machine.
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, 0, nodes, false);
+    }
+
+    /**
+     * @param depth la profondeur maximale.
+     * @return des limites d'anticipation, sans limite de temps jusqu'à {@link Engine#ponderhit(SearchLimits, long)}.
+     */
+    public static SearchLimits ponder(int depth) {
+        return new SearchLimits(depth, 0, true);
+    }
+
+    /**
+     * @return des limites sans fin, pour une analyse : la recherche ne s'arrête que sur demande, ou pour une recherche alpha-bêta à la profondeur maximale.
+     * Ce sont des limites d'anticipation dont le coup n'est jamais confirmé.
+     */
+    public static SearchLimits infinite() {
+        return ponder(MAX_DEPTH);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean isPonder() {
+        return ponder;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("depth", depth)
+                .add("time", time)
+                .add("nodes", nodes)
+                .add("ponder", ponder)
+                .toString();
+    }
+}
@@ -0,0 +1,19 @@
+package fr.uphf.etu.engine;
+
+import java.util.List;
+
+/**
+ * Un observateur de la progression d'une recherche, notifié depuis le fil d'exécution de la recherche :
+ * il doit rendre la main rapidement, par exemple en confiant les informations reçues à un autre fil.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    /**
+     * Appelée à chaque étape de la recherche : chaque profondeur terminée pour la recherche alpha-bêta, à intervalles réguliers pour la recherche Monte-Carlo.
+     *
+     * @param lines    les variations principales demandées ({@link Engine#setMultiPv(int)}), de la meilleure à la moins bonne,
+     *                 avec le nombre total de noeuds visités et la durée écoulée depuis le début de la recherche.
+     * @param hashfull le taux de remplissage de la mémoire du moteur, en pour mille.
+     */
+    void update(List<SearchResult> lines, int hashfull);
+}
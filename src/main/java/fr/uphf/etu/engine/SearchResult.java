@@ -0,0 +1,107 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Une classe contenant le résultat d'une recherche : le meilleur coup, son évaluation et la variation principale.
+ */
+public final class SearchResult {
+    /**
+     * Le meilleur coup, ou {@link Move#NONE} si aucun coup n'est possible.
+     */
+    private final int bestMove;
+
+    /**
+     * L'évaluation du meilleur coup, du point de vue du joueur qui doit jouer.
+     */
+    private final int score;
+
+    /**
+     * La profondeur complètement explorée.
+     */
+    private final int depth;
+
+    /**
+     * Le nombre de noeuds visités.
+     */
+    private final long nodes;
+
+    /**
+     * La durée de la recherche, en millisecondes.
+     */
+    private final long time;
+
+    /**
+     * La variation principale, commençant par le meilleur coup.
+     */
+    private final int[] pv;
+
+    /**
+     * Constructeur du résultat.
+     *
+     * @param score l'évaluation du meilleur coup.
+     * @param depth la profondeur complètement explorée.
+     * @param nodes le nombre de noeuds visités.
+     * @param time  la durée de la recherche, en millisecondes.
+     * @param pv    la variation principale, commençant par le meilleur coup.
+     */
+    public SearchResult(int score, int depth, long nodes, long time, int[] pv) {
+        this.bestMove = pv.length > 0 ? pv[0] : Move.NONE;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.time = time;
+        this.pv = pv;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return une copie de la variation principale.
+     */
+    public int[] getPv() {
+        return pv.clone();
+    }
+
+    /**
+     * @return le nombre de noeuds visités par seconde.
+     */
+    public long nps() {
+        return time > 0 ? nodes * 1000 / time : nodes;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(" ");
+        Arrays.stream(pv).mapToObj(Move::toString).forEach(joiner::add);
+
+        return MoreObjects.toStringHelper(this)
+                .add("score", score)
+                .add("depth", depth)
+                .add("nodes", nodes)
+                .add("time", time)
+                .add("pv", joiner)
+                .toString();
+    }
+}
@@ -0,0 +1,225 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Une table de finales : le résultat parfait de chaque position comptant peu de pions, calculé à l'avance par {@link TablebaseGenerator}.
+ * <p>
+ * Chaque classe de matériel (<i>a</i> pions contre <i>b</i>) est stockée dans son propre fichier, projeté en mémoire à l'ouverture : consulter la table ne coûte
+ * que le calcul de l'indice de la position ({@link TablebaseIndex}) et la lecture d'une case projetée, le système ne chargeant que les pages lues.
+ * <p>
+ * Chaque position est décrite par un code sur 16 bits : {@link Tablebase#DRAW} si aucun joueur ne peut forcer la victoire, sinon la distance en demi-coups
+ * jusqu'à la prise du dernier pion adverse, le meilleur jeu étant supposé des deux côtés. Le joueur qui prend le dernier pion jouant le dernier coup,
+ * une distance impaire est une victoire du joueur qui doit jouer, une distance paire une défaite.
+ * <p>
+ * Seules les positions dont les scores correspondent aux pions pris sont couvertes : le score de chaque joueur plus le nombre de pions adverses restants vaut
+ * {@link Position#WINNING_SCORE}, gagner revenant alors à prendre tous les pions adverses.
+ */
+public final class Tablebase {
+    /**
+     * Le code retourné pour une position absente de la table.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Le code d'une position où aucun joueur ne peut forcer la victoire.
+     */
+    public static final int DRAW = 0;
+
+    /**
+     * Les premiers octets d'un fichier de la table.
+     */
+    static final byte[] MAGIC = {'S', 'K', 'T', 'B'};
+
+    /**
+     * La version du format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * La taille de l'en-tête d'un fichier : {@link Tablebase#MAGIC}, la version, le nombre de pions de chaque joueur et la plus grande distance de la classe, puis un entier réservé.
+     */
+    static final int HEADER = 24;
+
+    /**
+     * Les codes de chaque classe de matériel, indexés par le nombre de pions de chaque joueur, ou {@code null} si la classe est absente.
+     */
+    private final CharBuffer[][] tables;
+
+    /**
+     * Le nombre total de pions jusqu'auquel toutes les classes de matériel sont présentes.
+     */
+    private final int maxPawns;
+
+    /**
+     * Constructeur de la table.
+     *
+     * @param tables les codes de chaque classe de matériel.
+     */
+    private Tablebase(CharBuffer[][] tables) {
+        this.tables = tables;
+
+        int complete = 1;
+
+        for (int total = 2; total <= 2 * Position.WINNING_SCORE && complete == total - 1; total++) {
+            boolean present = true;
+
+            for (int a = Math.max(1, total - Position.WINNING_SCORE); a <= Math.min(total - 1, Position.WINNING_SCORE); a++) {
+                present &= tables[a][total - a] != null;
+            }
+
+            if (present) {
+                complete = total;
+            }
+        }
+
+        this.maxPawns = complete < 2 ? 0 : complete;
+    }
+
+    /**
+     * Ouvre les fichiers d'une table de finales présents dans un dossier.
+     *
+     * @param directory le dossier contenant les fichiers écrits par {@link TablebaseGenerator}.
+     * @return la table.
+     * @throws IOException si un fichier ne peut pas être lu ou est invalide.
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        CharBuffer[][] tables = new CharBuffer[Position.WINNING_SCORE + 1][Position.WINNING_SCORE + 1];
+
+        for (int a = 1; a <= Position.WINNING_SCORE; a++) {
+            for (int b = 1; b <= Position.WINNING_SCORE; b++) {
+                Path file = file(directory, a, b);
+
+                if (Files.exists(file)) {
+                    tables[a][b] = map(file, a, b);
+                }
+            }
+        }
+
+        return new Tablebase(tables);
+    }
+
+    /**
+     * @param directory le dossier de la table.
+     * @param pawnsP1   le nombre de pions du joueur 1.
+     * @param pawnsP2   le nombre de pions du joueur 2.
+     * @return le chemin du fichier de la classe de matériel.
+     */
+    static Path file(Path directory, int pawnsP1, int pawnsP2) {
+        return directory.resolve(pawnsP1 + "v" + pawnsP2 + ".sktb");
+    }
+
+    /**
+     * Projette en mémoire le fichier d'une classe de matériel.
+     *
+     * @param file    le fichier.
+     * @param pawnsP1 le nombre de pions du joueur 1 attendu.
+     * @param pawnsP2 le nombre de pions du joueur 2 attendu.
+     * @return les codes de la classe.
+     * @throws IOException si le fichier ne peut pas être lu ou est invalide.
+     */
+    static CharBuffer map(Path file, int pawnsP1, int pawnsP2) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) { //La projection reste valide après la fermeture du fichier
+            long expected = HEADER + 2 * TablebaseIndex.size(pawnsP1, pawnsP2);
+
+            if (channel.size() != expected) {
+                throw new IOException("Taille invalide pour " + file + " : " + channel.size() + " octets au lieu de " + expected);
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+
+            if (!Arrays.equals(magic, MAGIC) || buffer.getInt() != VERSION || buffer.getInt() != pawnsP1 || buffer.getInt() != pawnsP2) {
+                throw new IOException("En-tête invalide : " + file);
+            }
+
+            return buffer.position(HEADER).slice().asCharBuffer();
+        }
+    }
+
+    /**
+     * @return le nombre total de pions jusqu'auquel toutes les positions sont couvertes, <i>0</i> si la table est vide.
+     */
+    public int getMaxPawns() {
+        return maxPawns;
+    }
+
+    /**
+     * Consulte la table pour une position.
+     *
+     * @param position la position.
+     * @return le code de la position, ou {@link Tablebase#UNKNOWN} si elle n'est pas couverte.
+     */
+    public int probe(Position position) {
+        int pawnsP1 = position.count(Position.P1);
+        int pawnsP2 = position.count(Position.P2);
+
+        if (pawnsP1 == 0 || pawnsP2 == 0 || pawnsP1 + pawnsP2 > maxPawns
+                || position.score(Position.P1) + pawnsP2 != Position.WINNING_SCORE || position.score(Position.P2) + pawnsP1 != Position.WINNING_SCORE) {
+            return UNKNOWN;
+        }
+
+        return tables[pawnsP1][pawnsP2].get((int) TablebaseIndex.index(position.pawns(Position.P1), position.pawns(Position.P2), position.getSideToMove()));
+    }
+
+    /**
+     * Choisit le meilleur coup d'une position couverte : la victoire la plus rapide, sinon la nulle, sinon la défaite la plus lente.
+     *
+     * @param position la position.
+     * @return le meilleur coup, ou {@link Move#NONE} si la position n'est pas couverte ou qu'aucun coup n'est possible.
+     */
+    public int bestMove(Position position) {
+        if (this.probe(position) == UNKNOWN) {
+            return Move.NONE;
+        }
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, moves);
+        int best = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            Position child = position.play(moves[i]);
+            int score = child.winner() != Position.NONE ? score(1, 0) : -score(this.probe(child), 1);
+
+            if (score > bestScore) {
+                best = moves[i];
+                bestScore = score;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Convertit un code en évaluation de {@link Search}, du point de vue du joueur qui doit jouer.
+     *
+     * @param code le code de la position, connu.
+     * @param ply  le nombre de demi-coups depuis la racine de la recherche.
+     * @return l'évaluation de la position.
+     */
+    public static int score(int code, int ply) {
+        if (code == DRAW) {
+            return 0;
+        }
+
+        return (code & 1) != 0 ? Search.WIN - ply - code : -Search.WIN + ply + code;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("maxPawns", maxPawns)
+                .toString();
+    }
+}
@@ -0,0 +1,471 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Une classe calculant les fichiers d'une {@link Tablebase} par analyse rétrograde, pour toutes les positions comptant jusqu'à un nombre total de pions.
+ * <p>
+ * Les classes de matériel sont calculées par nombre total de pions croissant : une prise mène toujours dans une classe déjà calculée, dont le fichier est relu par projection en mémoire.
+ * Les codes d'une classe sont ensuite établis par passes successives, la passe <i>n</i> attribuant la distance <i>n</i> :
+ * <ul>
+ *     <li>si <i>n</i> est impair, aux positions dont un coup mène à une défaite en <i>n - 1</i> (ou prend le dernier pion adverse si <i>n</i> vaut 1) ;</li>
+ *     <li>si <i>n</i> est pair, aux positions dont tous les coups mènent à une victoire adverse, la plus lente en <i>n - 1</i>.</li>
+ * </ul>
+ * Une passe n'attribuant qu'une parité de codes et ne lisant que l'autre, les positions sont traitées sur place et en parallèle,
+ * par tranches d'indices réparties sur un {@link ForkJoinPool}. Les positions restées sans code quand plus aucune distance ne peut apparaître sont nulles.
+ * Les coups sont générés directement depuis les pions de chaque indice, sans créer de {@link Position}.
+ */
+public final class TablebaseGenerator {
+    /**
+     * Le nombre de positions en dessous duquel une tranche d'indices n'est plus divisée.
+     */
+    private static final int CHUNK = 1 << 14;
+
+    /**
+     * Le dossier recevant les fichiers.
+     */
+    private final Path directory;
+
+    /**
+     * Les fils d'exécution calculant les passes.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Les codes des classes de matériel déjà calculées, indexés par le nombre de pions de chaque joueur.
+     */
+    private final CharBuffer[][] tables = new CharBuffer[Position.WINNING_SCORE + 1][Position.WINNING_SCORE + 1];
+
+    /**
+     * La plus grande distance de chaque classe de matériel déjà calculée.
+     */
+    private final int[][] maxDistances = new int[Position.WINNING_SCORE + 1][Position.WINNING_SCORE + 1];
+
+    /**
+     * Constructeur du générateur.
+     *
+     * @param directory le dossier recevant les fichiers, créé si nécessaire.
+     * @param threads   le nombre de fils d'exécution.
+     */
+    public TablebaseGenerator(Path directory, int threads) {
+        this.directory = directory;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Calcule toutes les classes de matériel jusqu'à un nombre total de pions.
+     *
+     * @param maxPawns le nombre total de pions maximal.
+     * @return les statistiques des classes calculées, dans l'ordre du calcul.
+     * @throws IOException si un fichier ne peut pas être écrit.
+     */
+    public List<Statistics> generate(int maxPawns) throws IOException {
+        Files.createDirectories(directory);
+        List<Statistics> statistics = new ArrayList<>();
+
+        for (int total = 2; total <= maxPawns; total++) {
+            for (int pawnsP1 = Math.max(1, total - Position.WINNING_SCORE); pawnsP1 <= Math.min(total - 1, Position.WINNING_SCORE); pawnsP1++) {
+                statistics.add(this.generate(pawnsP1, total - pawnsP1));
+            }
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Calcule une classe de matériel, dont les classes accessibles par une prise doivent déjà être calculées, et écrit son fichier.
+     *
+     * @param pawnsP1 le nombre de pions du joueur 1.
+     * @param pawnsP2 le nombre de pions du joueur 2.
+     * @return les statistiques de la classe.
+     * @throws IOException si le fichier ne peut pas être écrit.
+     */
+    private Statistics generate(int pawnsP1, int pawnsP2) throws IOException {
+        long start = System.nanoTime();
+        long size = TablebaseIndex.size(pawnsP1, pawnsP2);
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Classe de matériel trop grande : " + pawnsP1 + "v" + pawnsP2);
+        }
+
+        char[] codes = new char[(int) size];
+        int maxSub = Math.max(maxDistances[pawnsP1 - 1][pawnsP2], maxDistances[pawnsP1][pawnsP2 - 1]);
+        int maxDistance = 0;
+        int idle = 0;
+        int n = 1;
+
+        //Deux passes consécutives sans nouveau code au-delà des distances des classes inférieures : plus aucune distance ne peut apparaître
+        for (; idle < 2 || n <= maxSub + 1; n++) {
+            if (n > Character.MAX_VALUE) {
+                throw new IllegalStateException("Distance trop grande pour " + pawnsP1 + "v" + pawnsP2);
+            }
+
+            long assigned = pool.invoke(new Pass(codes, pawnsP1, pawnsP2, n, 0, codes.length));
+
+            if (assigned > 0) {
+                maxDistance = n;
+                idle = 0;
+            } else {
+                idle++;
+            }
+        }
+
+        Path file = Tablebase.file(directory, pawnsP1, pawnsP2);
+        this.write(file, codes, pawnsP1, pawnsP2, maxDistance);
+        this.tables[pawnsP1][pawnsP2] = Tablebase.map(file, pawnsP1, pawnsP2);
+        this.maxDistances[pawnsP1][pawnsP2] = maxDistance;
+
+        long wins = 0;
+        long draws = 0;
+
+        for (char code : codes) {
+            if (code == Tablebase.DRAW) draws++;
+            else if ((code & 1) != 0) wins++;
+        }
+
+        return new Statistics(pawnsP1, pawnsP2, size, wins, draws, maxDistance, n - 1, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Écrit les codes d'une classe de matériel dans un fichier projeté en mémoire.
+     *
+     * @param file        le fichier.
+     * @param codes       les codes.
+     * @param pawnsP1     le nombre de pions du joueur 1.
+     * @param pawnsP2     le nombre de pions du joueur 2.
+     * @param maxDistance la plus grande distance de la classe.
+     * @throws IOException si le fichier ne peut pas être écrit.
+     */
+    private void write(Path file, char[] codes, int pawnsP1, int pawnsP2, int maxDistance) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Tablebase.HEADER + 2L * codes.length);
+            buffer.put(Tablebase.MAGIC).putInt(Tablebase.VERSION).putInt(pawnsP1).putInt(pawnsP2).putInt(maxDistance).putInt(0);
+            buffer.asCharBuffer().put(codes);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Arrête les fils d'exécution. Le générateur ne doit plus être utilisé ensuite.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Les statistiques d'une classe de matériel calculée.
+     */
+    public static final class Statistics {
+        /**
+         * Le nombre de pions du joueur 1.
+         */
+        private final int pawnsP1;
+
+        /**
+         * Le nombre de pions du joueur 2.
+         */
+        private final int pawnsP2;
+
+        /**
+         * Le nombre de positions de la classe.
+         */
+        private final long positions;
+
+        /**
+         * Le nombre de positions gagnées par le joueur au trait.
+         */
+        private final long wins;
+
+        /**
+         * Le nombre de positions nulles.
+         */
+        private final long draws;
+
+        /**
+         * La plus grande distance de la classe.
+         */
+        private final int maxDistance;
+
+        /**
+         * Le nombre de passes effectuées.
+         */
+        private final int passes;
+
+        /**
+         * Le temps de calcul en millisecondes.
+         */
+        private final long time;
+
+        private Statistics(int pawnsP1, int pawnsP2, long positions, long wins, long draws, int maxDistance, int passes, long time) {
+            this.pawnsP1 = pawnsP1;
+            this.pawnsP2 = pawnsP2;
+            this.positions = positions;
+            this.wins = wins;
+            this.draws = draws;
+            this.maxDistance = maxDistance;
+            this.passes = passes;
+            this.time = time;
+        }
+
+        public int getPawnsP1() {
+            return pawnsP1;
+        }
+
+        public int getPawnsP2() {
+            return pawnsP2;
+        }
+
+        public long getPositions() {
+            return positions;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        /**
+         * @return le nombre de positions perdues par le joueur au trait.
+         */
+        public long getLosses() {
+            return positions - wins - draws;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public int getMaxDistance() {
+            return maxDistance;
+        }
+
+        public int getPasses() {
+            return passes;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("pawnsP1", pawnsP1)
+                    .add("pawnsP2", pawnsP2)
+                    .add("positions", positions)
+                    .add("wins", wins)
+                    .add("draws", draws)
+                    .add("maxDistance", maxDistance)
+                    .add("passes", passes)
+                    .add("time", time)
+                    .toString();
+        }
+    }
+
+    /**
+     * Une passe sur une tranche d'indices d'une classe de matériel, divisée en deux tant qu'elle est assez grande.
+     * Les tâches ne sont jamais sérialisées.
+     */
+    @SuppressWarnings("serial")
+    private final class Pass extends RecursiveTask<Long> {
+        /**
+         * Les codes de la classe, mis à jour sur place.
+         */
+        private final char[] codes;
+
+        /**
+         * Le nombre de pions du joueur 1.
+         */
+        private final int pawnsP1;
+
+        /**
+         * Le nombre de pions du joueur 2.
+         */
+        private final int pawnsP2;
+
+        /**
+         * La distance attribuée par la passe.
+         */
+        private final int distance;
+
+        /**
+         * Le premier indice de la tranche.
+         */
+        private final int from;
+
+        /**
+         * L'indice suivant le dernier de la tranche.
+         */
+        private final int to;
+
+        private Pass(char[] codes, int pawnsP1, int pawnsP2, int distance, int from, int to) {
+            this.codes = codes;
+            this.pawnsP1 = pawnsP1;
+            this.pawnsP2 = pawnsP2;
+            this.distance = distance;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return le nombre de positions auxquelles la distance a été attribuée.
+         */
+        @Override
+        protected Long compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                Pass left = new Pass(codes, pawnsP1, pawnsP2, distance, from, middle);
+                left.fork();
+                long right = new Pass(codes, pawnsP1, pawnsP2, distance, middle, to).compute();
+                return left.join() + right;
+            }
+
+            long[] pawns = new long[2];
+            long assigned = 0;
+
+            for (int index = from; index < to; index++) {
+                if (codes[index] == Tablebase.DRAW && this.resolves(index, pawns)) {
+                    codes[index] = (char) distance;
+                    assigned++;
+                }
+            }
+
+            return assigned;
+        }
+
+        /**
+         * Détermine si la distance de la passe est celle d'une position encore sans code.
+         *
+         * @param index l'indice de la position.
+         * @param pawns un tableau de travail recevant les pions de la position.
+         * @return {@code true} si la position est une victoire (distance impaire) ou une défaite (distance paire) à cette distance.
+         */
+        private boolean resolves(int index, long[] pawns) {
+            TablebaseIndex.pawns(index, pawnsP1, pawnsP2, pawns);
+
+            int side = index & 1;
+            int opponent = Position.opponent(side);
+            long own = pawns[side];
+            long enemy = pawns[opponent];
+            long occupied = own | enemy;
+            boolean win = (distance & 1) != 0;
+            boolean lastPawn = Long.bitCount(enemy) == 1;
+            boolean moves = false;
+            int longest = 0;
+
+            for (long remaining = own; remaining != 0; remaining &= remaining - 1) {
+                int from = Long.numberOfTrailingZeros(remaining);
+                long targets = 0;
+
+                for (int direction = 0; direction < 4; direction++) {
+                    int entry = Tracks.entry(from, direction);
+
+                    if (entry != Tracks.NONE) {
+                        int to = Tracks.target(occupied, from, entry);
+
+                        if (to != Position.NONE) {
+                            targets |= Position.bit(to);
+                        }
+                    }
+                }
+
+                for (targets &= enemy; targets != 0; targets &= targets - 1) {
+                    moves = true;
+
+                    if (lastPawn) { //La prise du dernier pion gagne immédiatement
+                        if (win) {
+                            return distance == 1;
+                        }
+
+                        return false;
+                    }
+
+                    long target = targets & -targets;
+                    int code = this.child(own ^ Position.bit(from) ^ target, enemy ^ target, side, true);
+
+                    if (win) {
+                        if (distance > 1 && code == distance - 1) return true;
+                    } else {
+                        if (code == Tablebase.DRAW || (code & 1) == 0) return false;
+                        longest = Math.max(longest, code);
+                    }
+                }
+
+                for (long quiets = MoveGenerator.neighbours(from) & ~occupied; quiets != 0; quiets &= quiets - 1) {
+                    moves = true;
+
+                    int code = this.child(own ^ Position.bit(from) ^ (quiets & -quiets), enemy, side, false);
+
+                    if (win) {
+                        if (distance > 1 && code == distance - 1) return true;
+                    } else {
+                        if (code == Tablebase.DRAW || (code & 1) == 0) return false;
+                        longest = Math.max(longest, code);
+                    }
+                }
+            }
+
+            return !win && moves && longest == distance - 1;
+        }
+
+        /**
+         * Lit le code de la position atteinte par un coup, l'adversaire devant alors jouer.
+         *
+         * @param own     les pions du joueur ayant joué.
+         * @param enemy   les pions de l'adversaire.
+         * @param side    le joueur ayant joué.
+         * @param capture {@code true} si le coup est une prise, la position appartenant alors à une classe inférieure.
+         * @return le code de la position.
+         */
+        private int child(long own, long enemy, int side, boolean capture) {
+            long pawnsP1 = side == Position.P1 ? own : enemy;
+            long pawnsP2 = side == Position.P1 ? enemy : own;
+            int index = (int) TablebaseIndex.index(pawnsP1, pawnsP2, Position.opponent(side));
+
+            if (!capture) {
+                return codes[index];
+            }
+
+            return tables[Long.bitCount(pawnsP1)][Long.bitCount(pawnsP2)].get(index);
+        }
+    }
+
+    /**
+     * Calcule une table de finales.
+     *
+     * @param args le dossier recevant les fichiers, le nombre total de pions maximal (4 par défaut) et le nombre de fils d'exécution (le nombre de processeurs par défaut).
+     * @throws IOException si un fichier ne peut pas être écrit.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage : TablebaseGenerator <dossier> [pions] [fils]");
+            System.exit(1);
+        }
+
+        int maxPawns = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        TablebaseGenerator generator = new TablebaseGenerator(Paths.get(args[0]), threads);
+
+        try {
+            for (Statistics statistics : generator.generate(maxPawns)) {
+                System.out.printf("%dv%d : %d positions, %d gains, %d pertes, %d nulles, distance maximale : %d, passes : %d, temps : %d ms%n",
+                        statistics.getPawnsP1(), statistics.getPawnsP2(), statistics.getPositions(), statistics.getWins(), statistics.getLosses(),
+                        statistics.getDraws(), statistics.getMaxDistance(), statistics.getPasses(), statistics.getTime());
+            }
+        } finally {
+            generator.shutdown();
+        }
+    }
+}
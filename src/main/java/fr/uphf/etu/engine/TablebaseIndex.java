@@ -0,0 +1,120 @@
+package fr.uphf.etu.engine;
+
+/**
+ * L'indexation parfaite des positions d'une classe de matériel d'une {@link Tablebase} : toutes les positions où le joueur 1 a <i>a</i> pions et le joueur 2 <i>b</i> pions.
+ * <p>
+ * Les cases des pions du joueur 1 sont numérotées parmi les 36 cases du plateau, puis celles du joueur 2 parmi les 36 - <i>a</i> cases restantes,
+ * chaque ensemble de cases étant numéroté par le système combinatoire (rang colexicographique). Le joueur qui doit jouer forme le bit de poids faible.
+ * Chaque position de la classe a ainsi un indice unique entre <i>0</i> et {@link TablebaseIndex#size(int, int)} exclu, sans trou.
+ */
+final class TablebaseIndex {
+    /**
+     * Les coefficients binomiaux C(n, k), pour n et k jusqu'à 36.
+     */
+    private static final long[][] BINOMIALS = new long[Position.SQUARES + 1][Position.SQUARES + 1];
+
+    static {
+        for (int n = 0; n <= Position.SQUARES; n++) {
+            BINOMIALS[n][0] = 1;
+
+            for (int k = 1; k <= n; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+            }
+        }
+    }
+
+    private TablebaseIndex() {
+    }
+
+    /**
+     * @param pawnsP1 le nombre de pions du joueur 1.
+     * @param pawnsP2 le nombre de pions du joueur 2.
+     * @return le nombre de positions de la classe de matériel, joueur qui doit jouer compris.
+     */
+    static long size(int pawnsP1, int pawnsP2) {
+        return BINOMIALS[Position.SQUARES][pawnsP1] * BINOMIALS[Position.SQUARES - pawnsP1][pawnsP2] * 2;
+    }
+
+    /**
+     * Calcule l'indice d'une position dans sa classe de matériel.
+     *
+     * @param pawnsP1    les pions du joueur 1.
+     * @param pawnsP2    les pions du joueur 2.
+     * @param sideToMove le joueur qui doit jouer.
+     * @return l'indice de la position.
+     */
+    static long index(long pawnsP1, long pawnsP2, int sideToMove) {
+        long rankP1 = 0;
+        int i = 1;
+
+        for (long pawns = pawnsP1; pawns != 0; pawns &= pawns - 1) {
+            rankP1 += BINOMIALS[Long.numberOfTrailingZeros(pawns)][i++];
+        }
+
+        long rankP2 = 0;
+        i = 1;
+
+        for (long pawns = pawnsP2; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            int compressed = square - Long.bitCount(pawnsP1 & ((1L << square) - 1)); //Rang de la case parmi celles laissées libres par le joueur 1
+            rankP2 += BINOMIALS[compressed][i++];
+        }
+
+        return (rankP1 * BINOMIALS[Position.SQUARES - Long.bitCount(pawnsP1)][Long.bitCount(pawnsP2)] + rankP2) * 2 + sideToMove;
+    }
+
+    /**
+     * Reconstruit les pions d'une position à partir de son indice. Le joueur qui doit jouer est le bit de poids faible de l'indice.
+     *
+     * @param index   l'indice de la position.
+     * @param pawnsP1 le nombre de pions du joueur 1.
+     * @param pawnsP2 le nombre de pions du joueur 2.
+     * @param pawns   le tableau recevant les pions de chaque joueur, indexé par {@link Position#P1} et {@link Position#P2}.
+     */
+    static void pawns(long index, int pawnsP1, int pawnsP2, long[] pawns) {
+        long combinations = BINOMIALS[Position.SQUARES - pawnsP1][pawnsP2];
+        long position = index >>> 1;
+
+        pawns[Position.P1] = unrank(position / combinations, pawnsP1, Position.SQUARES);
+
+        long compressed = unrank(position % combinations, pawnsP2, Position.SQUARES - pawnsP1);
+        long p2 = 0;
+        int next = 0;
+
+        for (int square = 0; square < Position.SQUARES && compressed != 0; square++) { //Redistribue les rangs sur les cases laissées libres par le joueur 1
+            if ((pawns[Position.P1] & Position.bit(square)) == 0) {
+                if ((compressed & 1L << next) != 0) {
+                    p2 |= Position.bit(square);
+                    compressed &= ~(1L << next);
+                }
+
+                next++;
+            }
+        }
+
+        pawns[Position.P2] = p2;
+    }
+
+    /**
+     * @param rank  le rang colexicographique d'un ensemble.
+     * @param count le nombre d'éléments de l'ensemble.
+     * @param range le nombre d'éléments possibles.
+     * @return l'ensemble, un bit par élément.
+     */
+    private static long unrank(long rank, int count, int range) {
+        long set = 0;
+        int element = range - 1;
+
+        for (int k = count; k > 0; k--) {
+            while (BINOMIALS[element][k] > rank) {
+                element--;
+            }
+
+            set |= 1L << element;
+            rank -= BINOMIALS[element][k];
+            element--;
+        }
+
+        return set;
+    }
+}
@@ -0,0 +1,487 @@
+package fr.uphf.etu.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Un tournoi toutes rondes entre moteurs, joué sans interface graphique sur plusieurs fils d'exécution.
+ * <p>
+ * Chaque paire de participants joue le même nombre de parties. Les parties vont par deux : elles partent de la même ouverture aléatoire, chaque participant jouant une fois
+ * chaque couleur, ce qui compense l'avantage éventuel d'une ouverture. Une partie sans vainqueur après {@link Tournament#MAX_PLIES} demi-coups, ou sans coup possible, est nulle,
+ * de même qu'une partie nulle selon les règles d'un {@link DrawDetector} (par répétition ou faute de prise).
+ * <p>
+ * Utilisation en ligne de commande : {@code Tournament <parties par paire> <fils> <participant> <participant>...}, chaque participant étant décrit comme dans {@link Entrant#parse(String)}.
+ * Les parties sont archivées dans le fichier donné par la propriété système {@code surakarta.games}, si elle est définie,
+ * et les règles de nulle sont lues dans les propriétés système décrites par {@link DrawDetector#fromProperties()}.
+ */
+public final class Tournament {
+    /**
+     * Le nombre maximal de demi-coups d'une partie, au-delà duquel elle est nulle.
+     */
+    public static final int MAX_PLIES = 300;
+
+    /**
+     * Le nombre de demi-coups aléatoires de chaque ouverture.
+     */
+    public static final int OPENING_PLIES = 4;
+
+    /**
+     * Le quantile de la loi normale des intervalles de confiance à 95 %.
+     */
+    private static final double Z95 = 1.96;
+
+    /**
+     * Les participants.
+     */
+    private final List<Entrant> entrants;
+
+    /**
+     * Le nombre de parties de chaque paire de participants.
+     */
+    private final int gamesPerPair;
+
+    /**
+     * Le nombre de fils d'exécution.
+     */
+    private final int threads;
+
+    /**
+     * La graine des ouvertures aléatoires.
+     */
+    private final long seed;
+
+    /**
+     * Les paires de participants, sous la forme {i, j} avec i < j.
+     */
+    private final List<int[]> pairs = new ArrayList<>();
+
+    /**
+     * Le nombre de victoires de chaque participant contre chaque autre.
+     */
+    private final int[][] wins;
+
+    /**
+     * Le nombre de parties nulles entre chaque paire de participants.
+     */
+    private final int[][] draws;
+
+    /**
+     * L'archive recevant les parties jouées, ou {@code null}.
+     */
+    private GameRecordWriter writer;
+
+    /**
+     * Les règles de nulle, dont chaque fil utilise une copie.
+     */
+    private DrawDetector drawDetector = new DrawDetector();
+
+    /**
+     * La durée du dernier tournoi, en millisecondes.
+     */
+    private long time;
+
+    /**
+     * Constructeur du tournoi.
+     *
+     * @param entrants     les participants, au moins 2.
+     * @param gamesPerPair le nombre de parties de chaque paire de participants, arrondi au nombre pair supérieur.
+     * @param threads      le nombre de fils d'exécution, au moins 1.
+     * @param seed         la graine des ouvertures aléatoires.
+     */
+    public Tournament(List<Entrant> entrants, int gamesPerPair, int threads, long seed) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("Un tournoi nécessite au moins 2 participants");
+        }
+
+        this.entrants = List.copyOf(entrants);
+        this.gamesPerPair = Math.max(2, gamesPerPair + gamesPerPair % 2);
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+        this.wins = new int[entrants.size()][entrants.size()];
+        this.draws = new int[entrants.size()][entrants.size()];
+
+        for (int i = 0; i < entrants.size(); i++) {
+            for (int j = i + 1; j < entrants.size(); j++) {
+                this.pairs.add(new int[]{i, j});
+            }
+        }
+    }
+
+    /**
+     * Joue une partie entre deux moteurs.
+     *
+     * @param position la position de départ.
+     * @param engines  le moteur de chaque joueur, indexé par {@link Position#P1} et {@link Position#P2}.
+     * @param limits   le budget de chaque joueur, indexé de la même manière.
+     * @param maxPlies le nombre maximal de demi-coups.
+     * @return le vainqueur, ou {@link Position#NONE} en cas de partie nulle.
+     */
+    public static int play(Position position, Engine[] engines, SearchLimits[] limits, int maxPlies) {
+        return play(position, engines, limits, maxPlies, move -> {
+        });
+    }
+
+    /**
+     * Joue une partie entre deux moteurs, en signalant chaque coup joué.
+     *
+     * @param position la position de départ.
+     * @param engines  le moteur de chaque joueur, indexé par {@link Position#P1} et {@link Position#P2}.
+     * @param limits   le budget de chaque joueur, indexé de la même manière.
+     * @param maxPlies le nombre maximal de demi-coups.
+     * @param moves    reçoit chaque coup joué.
+     * @return le vainqueur, ou {@link Position#NONE} en cas de partie nulle.
+     */
+    public static int play(Position position, Engine[] engines, SearchLimits[] limits, int maxPlies, IntConsumer moves) {
+        return play(position, engines, limits, maxPlies, new DrawDetector(), moves);
+    }
+
+    /**
+     * Joue une partie entre deux moteurs, en signalant chaque coup joué et en appliquant des règles de nulle.
+     *
+     * @param position la position de départ.
+     * @param engines  le moteur de chaque joueur, indexé par {@link Position#P1} et {@link Position#P2}.
+     * @param limits   le budget de chaque joueur, indexé de la même manière.
+     * @param maxPlies le nombre maximal de demi-coups.
+     * @param draws    le détecteur de nulles, recommencé depuis la position de départ.
+     * @param moves    reçoit chaque coup joué.
+     * @return le vainqueur, ou {@link Position#NONE} en cas de partie nulle.
+     */
+    public static int play(Position position, Engine[] engines, SearchLimits[] limits, int maxPlies, DrawDetector draws, IntConsumer moves) {
+        draws.reset(position);
+
+        for (int ply = 0; ply < maxPlies && position.winner() == Position.NONE; ply++) {
+            int side = position.getSideToMove();
+            int move = engines[side].search(position, limits[side]).getBestMove();
+
+            if (move == Move.NONE) { //Aucun coup possible, partie nulle
+                return Position.NONE;
+            }
+
+            moves.accept(move);
+            position = position.play(move);
+
+            if (draws.play(position, Move.isCapture(move)) != DrawDetector.NONE) {
+                return Position.NONE;
+            }
+        }
+
+        return position.winner();
+    }
+
+    /**
+     * Tire une ouverture aléatoire depuis la position de départ.
+     *
+     * @param random  le générateur aléatoire.
+     * @param opening reçoit les coups de l'ouverture, au moins {@link Tournament#OPENING_PLIES}.
+     * @return le nombre de coups de l'ouverture.
+     */
+    private static int opening(SplittableRandom random, int[] opening) {
+        Position position = Position.start();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int ply = 0;
+
+        while (ply < OPENING_PLIES) {
+            int count = MoveGenerator.generate(position, moves);
+
+            if (count == 0) {
+                break;
+            }
+
+            opening[ply] = moves[random.nextInt(count)];
+            position = position.play(opening[ply++]);
+        }
+
+        return ply;
+    }
+
+    /**
+     * Définit l'archive recevant les parties jouées.
+     *
+     * @param writer l'archive, ou {@code null} pour ne pas archiver les parties.
+     */
+    public void setWriter(GameRecordWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Définit les règles de nulle des parties.
+     *
+     * @param drawDetector le détecteur de nulles, dont chaque fil utilise une copie.
+     */
+    public void setDrawDetector(DrawDetector drawDetector) {
+        this.drawDetector = drawDetector;
+    }
+
+    /**
+     * Joue toutes les parties du tournoi. Les résultats d'un tournoi précédent sont effacés.
+     */
+    public void run() {
+        for (int i = 0; i < entrants.size(); i++) {
+            for (int j = 0; j < entrants.size(); j++) {
+                wins[i][j] = 0;
+                draws[i][j] = 0;
+            }
+        }
+
+        long start = System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "surakarta-tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> this.work(next)));
+        }
+
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur lors d'une partie du tournoi", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        this.time = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Joue des parties jusqu'à ce qu'il n'en reste plus, avec des moteurs propres à ce fil d'exécution.
+     *
+     * @param next l'indice de la prochaine partie à jouer, partagé par tous les fils.
+     */
+    private void work(AtomicInteger next) {
+        Engine[] engines = new Engine[entrants.size()];
+        DrawDetector detector = drawDetector.copy();
+        int[] moves = new int[OPENING_PLIES + MAX_PLIES];
+
+        try {
+            for (int game = next.getAndIncrement(); game < this.getGames(); game = next.getAndIncrement()) {
+                int[] pair = pairs.get(game / gamesPerPair);
+                int round = game % gamesPerPair;
+                int first = pair[round % 2]; //Le joueur 1, qui change à chaque partie d'une même ouverture
+                int second = pair[1 - round % 2];
+
+                for (int entrant : pair) {
+                    if (engines[entrant] == null) {
+                        engines[entrant] = entrants.get(entrant).createEngine();
+                    }
+                }
+
+                int[] count = {opening(new SplittableRandom(seed + (long) game / 2 * 0x9E37_79B9L), moves)};
+                Position position = Position.start();
+
+                for (int i = 0; i < count[0]; i++) {
+                    position = position.play(moves[i]);
+                }
+
+                int winner = play(position,
+                        new Engine[]{engines[first], engines[second]},
+                        new SearchLimits[]{entrants.get(first).getLimits(), entrants.get(second).getLimits()},
+                        MAX_PLIES,
+                        detector,
+                        move -> moves[count[0]++] = move);
+
+                this.record(first, second, winner);
+
+                if (writer != null) {
+                    writer.write(new GameRecord(entrants.get(first).getName(), entrants.get(second).getName(), true, true, winner, Arrays.copyOf(moves, count[0])));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de l'archivage d'une partie", e);
+        } finally {
+            for (Engine engine : engines) {
+                if (engine != null) {
+                    engine.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Enregistre le résultat d'une partie.
+     *
+     * @param first  le participant jouant le joueur 1.
+     * @param second le participant jouant le joueur 2.
+     * @param winner le vainqueur de la partie, ou {@link Position#NONE}.
+     */
+    private synchronized void record(int first, int second, int winner) {
+        if (winner == Position.P1) {
+            wins[first][second]++;
+        } else if (winner == Position.P2) {
+            wins[second][first]++;
+        } else {
+            draws[first][second]++;
+            draws[second][first]++;
+        }
+    }
+
+    /**
+     * @return le nombre total de parties du tournoi.
+     */
+    public int getGames() {
+        return pairs.size() * gamesPerPair;
+    }
+
+    /**
+     * @return la durée du dernier tournoi, en millisecondes.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @param i un participant.
+     * @param j un autre participant.
+     * @return le nombre de victoires de {@code i} contre {@code j}.
+     */
+    public synchronized int getWins(int i, int j) {
+        return wins[i][j];
+    }
+
+    /**
+     * @param i un participant.
+     * @param j un autre participant.
+     * @return le nombre de parties nulles entre {@code i} et {@code j}.
+     */
+    public synchronized int getDraws(int i, int j) {
+        return draws[i][j];
+    }
+
+    /**
+     * Convertit une proportion de points marqués en différence de classement Elo.
+     *
+     * @param score la proportion de points marqués, entre <i>0</i> et <i>1</i>.
+     * @return la différence de classement Elo, infinie pour un score de <i>0</i> ou <i>1</i>.
+     */
+    public static double elo(double score) {
+        return score <= 0 ? Double.NEGATIVE_INFINITY : score >= 1 ? Double.POSITIVE_INFINITY : -400 * Math.log10(1 / score - 1) + 0.0; //+ 0.0 évite d'afficher -0
+    }
+
+    /**
+     * Estime la différence de classement Elo entre deux résultats, avec un intervalle de confiance à 95 %.
+     *
+     * @param wins   le nombre de victoires.
+     * @param draws  le nombre de parties nulles.
+     * @param losses le nombre de défaites.
+     * @return la borne inférieure, l'estimation et la borne supérieure de la différence de classement.
+     */
+    public static double[] elo(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+
+        if (games == 0) {
+            return new double[]{Double.NEGATIVE_INFINITY, 0, Double.POSITIVE_INFINITY};
+        }
+
+        double score = (wins + draws / 2.0) / games;
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) + losses * Math.pow(score, 2)) / games;
+        double margin = Z95 * Math.sqrt(variance / games);
+
+        return new double[]{elo(score - margin), elo(score), elo(score + margin)};
+    }
+
+    /**
+     * Affiche les résultats du dernier tournoi : le détail de chaque paire, le bilan de chaque participant et la vitesse.
+     */
+    public synchronized void print() {
+        System.out.println("Paire : victoires / nulles / défaites, score, Elo [intervalle à 95 %]");
+
+        for (int[] pair : pairs) {
+            this.printLine(entrants.get(pair[0]).getName() + " contre " + entrants.get(pair[1]).getName(),
+                    wins[pair[0]][pair[1]], draws[pair[0]][pair[1]], wins[pair[1]][pair[0]]);
+        }
+
+        System.out.println();
+        System.out.println("Participant : bilan contre tous les autres");
+
+        for (int i = 0; i < entrants.size(); i++) {
+            int won = 0;
+            int drawn = 0;
+            int lost = 0;
+
+            for (int j = 0; j < entrants.size(); j++) {
+                won += wins[i][j];
+                drawn += draws[i][j];
+                lost += wins[j][i];
+            }
+
+            this.printLine(entrants.get(i).getName(), won, drawn, lost);
+        }
+
+        System.out.println();
+        System.out.println("Parties : " + this.getGames());
+        System.out.println("Temps : " + time + " ms");
+        System.out.printf("Parties/s : %.2f%n", this.getGames() * 1000.0 / Math.max(1, time));
+    }
+
+    /**
+     * Affiche une ligne de résultats.
+     *
+     * @param label  le libellé de la ligne.
+     * @param wins   le nombre de victoires.
+     * @param draws  le nombre de parties nulles.
+     * @param losses le nombre de défaites.
+     */
+    private void printLine(String label, int wins, int draws, int losses) {
+        double[] elo = elo(wins, draws, losses);
+        double score = (wins + draws / 2.0) / Math.max(1, wins + draws + losses);
+
+        System.out.printf("%s : +%d =%d -%d, %.1f %%, Elo %+.0f [%+.0f, %+.0f]%n", label, wins, draws, losses, score * 100, elo[1], elo[0], elo[2]);
+    }
+
+    /**
+     * Lance un tournoi et affiche ses résultats.
+     *
+     * @param args le nombre de parties par paire (100 par défaut), le nombre de fils (le nombre de processeurs par défaut),
+     *             puis les participants ({@code alphabeta:100 mcts:100} par défaut).
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        List<Entrant> entrants = new ArrayList<>();
+
+        for (int i = 2; i < args.length; i++) {
+            entrants.add(Entrant.parse(args[i]));
+        }
+
+        if (entrants.isEmpty()) {
+            entrants.add(Entrant.parse("alphabeta:100"));
+            entrants.add(Entrant.parse("mcts:100"));
+        }
+
+        Tournament tournament = new Tournament(entrants, games, threads, System.nanoTime());
+        tournament.setDrawDetector(DrawDetector.fromProperties());
+        String archive = System.getProperty("surakarta.games");
+
+        if (archive == null) {
+            tournament.run();
+        } else {
+            try (GameRecordWriter writer = new GameRecordWriter(Paths.get(archive))) {
+                tournament.setWriter(writer);
+                tournament.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible d'ouvrir l'archive " + archive, e);
+            }
+        }
+
+        tournament.print();
+    }
+}
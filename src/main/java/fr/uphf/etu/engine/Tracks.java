@@ -0,0 +1,171 @@
+package fr.uphf.etu.engine;
+
+import fr.uphf.etu.model.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Une classe contenant les deux circuits du plateau, précalculés au chargement du programme.
+ * <p>
+ * Chaque circuit est une suite cyclique de 24 cases : la piste rouge parcourt les lignes et colonnes 1 et 4, la piste bleue les lignes et colonnes 2 et 3.
+ * Un circuit enchaîne une ligne vers l'Est, une colonne vers le Sud, une ligne vers l'Ouest et une colonne vers le Nord, reliées par les courbes des coins du plateau.
+ * Une courbe est donc franchie à chaque passage d'un multiple de 6 au suivant dans le circuit.
+ * <p>
+ * Une entrée encode un point de départ sur un circuit : le circuit, l'indice dans le circuit et le sens de parcours.
+ */
+public final class Tracks {
+    /**
+     * L'identifiant de la piste rouge.
+     */
+    public static final int RED = 0;
+
+    /**
+     * L'identifiant de la piste bleue.
+     */
+    public static final int BLUE = 1;
+
+    /**
+     * Le nombre de cases parcourues par un circuit.
+     */
+    public static final int LENGTH = 24;
+
+    /**
+     * Le nombre de cases entre deux courbes d'un circuit.
+     */
+    private static final int SEGMENT = 6;
+
+    /**
+     * L'entrée retournée lorsqu'aucun circuit ne passe par une case dans une direction.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Les cases de chaque circuit, dans l'ordre de parcours.
+     */
+    private static final int[][] CIRCUITS = new int[2][LENGTH];
+
+    /**
+     * Les cases appartenant à chaque circuit.
+     */
+    private static final long[] MASKS = new long[2];
+
+    /**
+     * Les entrées de chaque case, indexées par direction cardinale (Nord, Est, Sud, Ouest).
+     */
+    private static final int[][] ENTRIES = new int[Position.SQUARES][4];
+
+    static {
+        for (int[] entries : ENTRIES) {
+            Arrays.fill(entries, NONE);
+        }
+
+        //Directions de parcours de chaque segment : ligne vers l'Est, colonne vers le Sud, ligne vers l'Ouest, colonne vers le Nord
+        Direction[] segments = {Direction.EAST, Direction.SOUTH, Direction.WEST, Direction.NORTH};
+
+        for (int circuit = RED; circuit <= BLUE; circuit++) {
+            int line = circuit == RED ? 1 : 2;
+            int index = 0;
+
+            for (int i = 0; i < SEGMENT; i++) CIRCUITS[circuit][index++] = Position.square(i, line);
+            for (int i = 0; i < SEGMENT; i++) CIRCUITS[circuit][index++] = Position.square(5 - line, i);
+            for (int i = 0; i < SEGMENT; i++) CIRCUITS[circuit][index++] = Position.square(5 - i, 5 - line);
+            for (int i = 0; i < SEGMENT; i++) CIRCUITS[circuit][index++] = Position.square(line, 5 - i);
+
+            for (int i = 0; i < LENGTH; i++) {
+                int square = CIRCUITS[circuit][i];
+                Direction direction = segments[i / SEGMENT];
+
+                MASKS[circuit] |= Position.bit(square);
+                ENTRIES[square][cardinal(direction)] = encode(circuit, i, false);
+                ENTRIES[square][cardinal(direction.opposite())] = encode(circuit, i, true);
+            }
+        }
+    }
+
+    private Tracks() {
+    }
+
+    /**
+     * Retourne l'indice d'une direction cardinale : 0 pour le Nord, 1 pour l'Est, 2 pour le Sud et 3 pour l'Ouest.
+     *
+     * @param direction la direction cardinale.
+     * @return l'indice de la direction.
+     */
+    public static int cardinal(Direction direction) {
+        return (direction.ordinal() - 1) / 2;
+    }
+
+    /**
+     * Encode une entrée.
+     *
+     * @param circuit  le circuit.
+     * @param index    l'indice dans le circuit.
+     * @param backward {@code true} si le circuit est parcouru à rebours.
+     * @return l'entrée.
+     */
+    private static int encode(int circuit, int index, boolean backward) {
+        return circuit << 6 | index << 1 | (backward ? 1 : 0);
+    }
+
+    /**
+     * Retourne l'entrée permettant de parcourir un circuit depuis la case dans la direction donnée.
+     *
+     * @param square    la case de départ.
+     * @param direction l'indice de la direction cardinale, voir {@link Tracks#cardinal(Direction)}.
+     * @return l'entrée, ou {@link Tracks#NONE} si aucun circuit ne passe par cette case dans cette direction.
+     */
+    public static int entry(int square, int direction) {
+        return ENTRIES[square][direction];
+    }
+
+    /**
+     * @param circuit le circuit.
+     * @return les cases appartenant au circuit.
+     */
+    public static long mask(int circuit) {
+        return MASKS[circuit];
+    }
+
+    /**
+     * @param circuit le circuit.
+     * @param index   l'indice dans le circuit.
+     * @return la case située à cet indice du circuit.
+     */
+    public static int square(int circuit, int index) {
+        return CIRCUITS[circuit][index];
+    }
+
+    /**
+     * Parcourt un circuit à partir d'une entrée jusqu'à la première case occupée, la case d'origine étant considérée libre.
+     * Une prise n'est possible que si une courbe a été franchie avant d'atteindre cette case.
+     *
+     * @param occupied les cases occupées.
+     * @param origin   la case de départ.
+     * @param entry    l'entrée sur le circuit, voir {@link Tracks#entry(int, int)}.
+     * @return la première case occupée si une courbe a été franchie pour l'atteindre, sinon {@link Position#NONE}.
+     */
+    public static int target(long occupied, int origin, int entry) {
+        int[] circuit = CIRCUITS[entry >>> 6];
+        int index = (entry >>> 1) & 31;
+        boolean backward = (entry & 1) != 0;
+        boolean curvePassed = false;
+
+        for (int i = 1; i < LENGTH; i++) {
+            int next = backward ? (index == 0 ? LENGTH - 1 : index - 1) : (index == LENGTH - 1 ? 0 : index + 1);
+
+            if ((backward ? index : next) % SEGMENT == 0) { //Passage par une courbe
+                curvePassed = true;
+            }
+
+            int square = circuit[next];
+
+            if (square != origin && (occupied & Position.bit(square)) != 0) { //Première case occupée
+                return curvePassed ? square : Position.NONE;
+            }
+
+            index = next;
+        }
+
+        return Position.NONE;
+    }
+}
@@ -0,0 +1,230 @@
+package fr.uphf.etu.engine;
+
+import java.util.Arrays;
+
+/**
+ * Une table de transposition mémorisant les résultats de recherche de chaque position, indexée par son empreinte de Zobrist.
+ * <p>
+ * La table est un tableau de {@code long} dont la taille est une puissance de 2, chaque entrée occupant deux {@code long} : l'empreinte combinée par OU exclusif avec les données, puis les données.
+ * Une entrée n'est acceptée que si les deux valeurs sont cohérentes, ce qui permet à plusieurs fils d'exécution de partager la table sans verrou :
+ * une entrée à moitié écrite par un autre fil est simplement ignorée.
+ * <p>
+ * Les données contiennent le meilleur coup (bits 0 à 15), l'évaluation (bits 16 à 31), la profondeur (bits 32 à 39), le type de borne (bits 40 à 41) et la génération de recherche (bits 42 à 49).
+ * Une entrée n'est remplacée que par une recherche plus profonde, sauf si elle provient d'une recherche précédente.
+ */
+public final class TranspositionTable {
+    /**
+     * Le type de borne d'une entrée vide.
+     */
+    public static final int EMPTY = 0;
+
+    /**
+     * L'évaluation mémorisée est exacte.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * L'évaluation mémorisée est une borne inférieure (coupure bêta).
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * L'évaluation mémorisée est une borne supérieure (aucun coup n'a amélioré alpha).
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * La taille d'une entrée, en octets.
+     */
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+
+    /**
+     * Le nombre maximal d'entrées : la plus grande puissance de 2 dont les deux {@code long} par entrée tiennent dans un tableau Java, soit 8 Go.
+     */
+    static final int MAX_ENTRIES = 1 << 29;
+
+    /**
+     * Les entrées de la table.
+     */
+    private final long[] table;
+
+    /**
+     * Le masque appliqué aux empreintes pour obtenir l'indice d'une entrée.
+     */
+    private final long mask;
+
+    /**
+     * La génération de la recherche actuelle, incrémentée à chaque nouvelle recherche.
+     */
+    private volatile int age;
+
+    /**
+     * Constructeur de la table.
+     *
+     * @param megabytes la mémoire allouée à la table, en mégaoctets, arrondie à la puissance de 2 inférieure et bornée à {@link TranspositionTable#MAX_ENTRIES} entrées.
+     */
+    public TranspositionTable(int megabytes) {
+        int entries = entries(megabytes);
+
+        this.table = new long[2 * entries];
+        this.mask = entries - 1;
+    }
+
+    /**
+     * @param megabytes la mémoire allouée à la table, en mégaoctets.
+     * @return le nombre d'entrées de la table : une puissance de 2 entre 1 et {@link TranspositionTable#MAX_ENTRIES}, calculée sans dépassement quelle que soit la mémoire.
+     */
+    static int entries(int megabytes) {
+        long entries = Long.highestOneBit(Math.max(1, (long) megabytes) * 1024 * 1024 / ENTRY_SIZE);
+        return (int) Math.min(entries, MAX_ENTRIES);
+    }
+
+    /**
+     * Ajuste une évaluation de victoire ou de défaite pour qu'elle soit relative à la position mémorisée plutôt qu'à la racine.
+     *
+     * @param score l'évaluation relative à la racine.
+     * @param ply   le nombre de demi-coups depuis la racine.
+     * @return l'évaluation relative à la position.
+     */
+    private static int toTable(int score, int ply) {
+        return score >= Search.WIN_BOUND ? score + ply : score <= -Search.WIN_BOUND ? score - ply : score;
+    }
+
+    /**
+     * @param data les données d'une entrée.
+     * @return le meilleur coup mémorisé.
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * @param data les données d'une entrée.
+     * @param ply  le nombre de demi-coups depuis la racine.
+     * @return l'évaluation mémorisée, relative à la racine.
+     */
+    public static int score(long data, int ply) {
+        int score = (short) (data >>> 16);
+        return score >= Search.WIN_BOUND ? score - ply : score <= -Search.WIN_BOUND ? score + ply : score;
+    }
+
+    /**
+     * @param data les données d'une entrée.
+     * @return la profondeur de la recherche mémorisée.
+     */
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    /**
+     * @param data les données d'une entrée.
+     * @return le type de borne de l'évaluation mémorisée.
+     */
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 0x3);
+    }
+
+    /**
+     * @param data les données d'une entrée.
+     * @return la génération de la recherche ayant écrit l'entrée.
+     */
+    private static int age(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+
+    /**
+     * @param key l'empreinte.
+     * @return l'indice de la première valeur de l'entrée associée à l'empreinte.
+     */
+    private int index(long key) {
+        return (int) (key & mask) << 1;
+    }
+
+    /**
+     * Cherche l'entrée associée à une empreinte.
+     *
+     * @param key l'empreinte de la position.
+     * @return les données de l'entrée, ou <i>0</i> si aucune entrée valide n'est associée à cette empreinte.
+     */
+    public long probe(long key) {
+        int index = index(key);
+        long data = table[index + 1];
+
+        return (table[index] ^ data) == key && bound(data) != EMPTY ? data : 0;
+    }
+
+    /**
+     * Mémorise le résultat de la recherche d'une position, si l'entrée existante est moins profonde ou provient d'une recherche précédente.
+     *
+     * @param key   l'empreinte de la position.
+     * @param move  le meilleur coup, ou {@link Move#NONE}.
+     * @param score l'évaluation, relative à la racine.
+     * @param depth la profondeur de la recherche.
+     * @param bound le type de borne de l'évaluation.
+     * @param ply   le nombre de demi-coups depuis la racine.
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        int index = index(key);
+        long oldData = table[index + 1];
+        boolean sameKey = (table[index] ^ oldData) == key;
+
+        if (bound(oldData) != EMPTY && age(oldData) == age && depth < depth(oldData) && !(sameKey && bound == EXACT)) { //Profondeur privilégiée
+            return;
+        }
+
+        if (move == Move.NONE && sameKey) { //Conserver le meilleur coup connu
+            move = move(oldData);
+        }
+
+        long data = (move & 0xFFFFL)
+                | (toTable(score, ply) & 0xFFFFL) << 16
+                | (long) Math.min(depth, 0xFF) << 32
+                | (long) bound << 40
+                | (long) age << 42;
+
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    /**
+     * Signale le début d'une nouvelle recherche : les entrées des recherches précédentes deviennent remplaçables.
+     */
+    public void newSearch() {
+        this.age = (this.age + 1) & 0xFF;
+    }
+
+    /**
+     * Vide la table.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        this.age = 0;
+    }
+
+    /**
+     * Estime le remplissage de la table sur ses premières entrées.
+     *
+     * @return la proportion d'entrées écrites par la recherche actuelle, en pour mille.
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, this.size());
+        int used = 0;
+
+        for (int i = 0; i < sample; i++) {
+            long data = table[2 * i + 1];
+
+            if (bound(data) != EMPTY && age(data) == age) {
+                used++;
+            }
+        }
+
+        return used * 1000 / sample;
+    }
+
+    /**
+     * @return le nombre d'entrées de la table.
+     */
+    public int size() {
+        return table.length / 2;
+    }
+}
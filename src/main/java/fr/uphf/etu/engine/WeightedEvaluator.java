@@ -0,0 +1,153 @@
+package fr.uphf.etu.engine;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * L'évaluation par défaut : une somme pondérée ({@link EvaluationWeights}) de termes calculés pour chaque joueur, puis soustraits.
+ * <ul>
+ * <li>le matériel : le score de chaque joueur, c'est-à-dire sa progression vers les {@link Position#WINNING_SCORE} points qui font gagner ;</li>
+ * <li>la mobilité : le nombre de déplacements simples possibles ;</li>
+ * <li>le contrôle des boucles : le nombre de passages de circuit par les cases des pions, et les extrémités de courbe occupées ;</li>
+ * <li>les menaces et défenses : les pions adverses pouvant être pris, et les pions qu'un autre pion du même joueur pourrait reprendre.</li>
+ * </ul>
+ * Le contrôle des boucles ne dépend que des cases des pions : il est tenu à jour incrémentalement à chaque coup.
+ * Le matériel est lu dans la position, la mobilité est calculée sur les masques de bits de la position, et les menaces et défenses sur les {@link AttackMaps}.
+ */
+public final class WeightedEvaluator implements Evaluator {
+    /**
+     * Les poids des termes.
+     */
+    private final EvaluationWeights weights;
+
+    /**
+     * La valeur de contrôle des boucles d'un pion sur chaque case.
+     */
+    private final int[] squareValues;
+
+    /**
+     * La valeur de contrôle des boucles de chaque joueur, tenue à jour incrémentalement.
+     */
+    private final int[] placement = new int[2];
+
+    /**
+     * Les cartes d'attaque de chaque joueur, recalculées à chaque évaluation.
+     */
+    private final long[] targets = new long[2];
+
+    /**
+     * Constructeur de l'évaluation.
+     *
+     * @param weights les poids des termes.
+     */
+    public WeightedEvaluator(EvaluationWeights weights) {
+        this.weights = weights;
+        this.squareValues = new int[Position.SQUARES];
+
+        for (int circuit = Tracks.RED; circuit <= Tracks.BLUE; circuit++) {
+            for (int i = 0; i < Tracks.LENGTH; i++) {
+                int index = i % Position.SIZE;
+                boolean curveEnd = index == 0 || index == Position.SIZE - 1; //Case reliée directement à une courbe
+
+                squareValues[Tracks.square(circuit, i)] += weights.getLoop() + (curveEnd ? weights.getEntry() : 0);
+            }
+        }
+    }
+
+    /**
+     * Constructeur de copie.
+     *
+     * @param other l'évaluation à copier.
+     */
+    private WeightedEvaluator(WeightedEvaluator other) {
+        this.weights = other.weights;
+        this.squareValues = other.squareValues;
+        this.placement[Position.P1] = other.placement[Position.P1];
+        this.placement[Position.P2] = other.placement[Position.P2];
+    }
+
+    public EvaluationWeights getWeights() {
+        return weights;
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        int side = position.getSideToMove();
+        int opponent = Position.opponent(side);
+        long empty = position.empty();
+
+        int value = weights.getMaterial() * (position.score(side) - position.score(opponent))
+                + weights.getMobility() * (mobility(position.pawns(side), empty) - mobility(position.pawns(opponent), empty))
+                + placement[side] - placement[opponent];
+
+        if (weights.getThreat() != 0 || weights.getDefence() != 0) {
+            long own = position.pawns(side);
+            long enemy = position.pawns(opponent);
+            AttackMaps.compute(position, targets);
+
+            value += weights.getThreat() * (Long.bitCount(targets[side] & enemy) - Long.bitCount(targets[opponent] & own))
+                    + weights.getDefence() * (Long.bitCount(targets[side] & own) - Long.bitCount(targets[opponent] & enemy));
+        }
+
+        return value;
+    }
+
+    @Override
+    public void reset(Position position) {
+        for (int player = Position.P1; player <= Position.P2; player++) {
+            placement[player] = 0;
+
+            for (long pawns = position.pawns(player); pawns != 0; pawns &= pawns - 1) {
+                placement[player] += squareValues[Long.numberOfTrailingZeros(pawns)];
+            }
+        }
+    }
+
+    @Override
+    public void makeMove(Position position, int move) {
+        int side = position.getSideToMove();
+        placement[side] += squareValues[Move.to(move)] - squareValues[Move.from(move)];
+
+        if (Move.isCapture(move)) {
+            placement[Position.opponent(side)] -= squareValues[Move.to(move)];
+        }
+    }
+
+    @Override
+    public void unmakeMove(Position position, int move) {
+        int side = position.getSideToMove();
+        placement[side] -= squareValues[Move.to(move)] - squareValues[Move.from(move)];
+
+        if (Move.isCapture(move)) {
+            placement[Position.opponent(side)] += squareValues[Move.to(move)];
+        }
+    }
+
+    @Override
+    public Evaluator copy() {
+        return new WeightedEvaluator(this);
+    }
+
+    /**
+     * @param pawns les pions d'un joueur.
+     * @param empty les cases vides.
+     * @return le nombre de déplacements simples possibles de ces pions.
+     */
+    private static int mobility(long pawns, long empty) {
+        int count = 0;
+
+        for (; pawns != 0; pawns &= pawns - 1) {
+            count += Long.bitCount(MoveGenerator.neighbours(Long.numberOfTrailingZeros(pawns)) & empty);
+        }
+
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("weights", weights)
+                .add("placementP1", placement[Position.P1])
+                .add("placementP2", placement[Position.P2])
+                .toString();
+    }
+}
@@ -0,0 +1,90 @@
+package fr.uphf.etu.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Une classe contenant les clés aléatoires de Zobrist, permettant de calculer une empreinte de 64 bits pour chaque position.
+ * <p>
+ * L'empreinte est le OU exclusif des clés de chaque pion (case et joueur), du score de chaque joueur et du joueur qui doit jouer.
+ * Elle se met donc à jour incrémentalement à chaque coup. Les clés sont tirées avec une graine fixe, pour que les empreintes soient identiques d'une exécution à l'autre.
+ */
+public final class Zobrist {
+    /**
+     * Les clés de chaque pion, par joueur et par case.
+     */
+    private static final long[][] PAWNS = new long[2][Position.SQUARES];
+
+    /**
+     * Les clés de chaque score, par joueur.
+     */
+    private static final long[][] SCORES = new long[2][Position.WINNING_SCORE + 1];
+
+    /**
+     * La clé ajoutée lorsque le joueur 2 doit jouer.
+     */
+    private static final long SIDE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5A4B_3C2D_1E0FL);
+
+        for (int player = Position.P1; player <= Position.P2; player++) {
+            for (int square = 0; square < Position.SQUARES; square++) {
+                PAWNS[player][square] = random.nextLong();
+            }
+
+            for (int score = 0; score <= Position.WINNING_SCORE; score++) {
+                SCORES[player][score] = random.nextLong();
+            }
+        }
+
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param player le joueur.
+     * @param square la case.
+     * @return la clé d'un pion du joueur sur la case.
+     */
+    public static long pawn(int player, int square) {
+        return PAWNS[player][square];
+    }
+
+    /**
+     * @param player le joueur.
+     * @param score  le score, entre <i>0</i> et {@link Position#WINNING_SCORE}.
+     * @return la clé du score du joueur.
+     */
+    public static long score(int player, int score) {
+        return SCORES[player][score];
+    }
+
+    /**
+     * @return la clé du joueur 2 devant jouer.
+     */
+    public static long side() {
+        return SIDE;
+    }
+
+    /**
+     * Calcule entièrement l'empreinte d'une position.
+     *
+     * @param position la position.
+     * @return l'empreinte de la position.
+     */
+    public static long key(Position position) {
+        long key = position.getSideToMove() == Position.P2 ? SIDE : 0;
+
+        for (int player = Position.P1; player <= Position.P2; player++) {
+            for (long pawns = position.pawns(player); pawns != 0; pawns &= pawns - 1) {
+                key ^= PAWNS[player][Long.numberOfTrailingZeros(pawns)];
+            }
+
+            key ^= SCORES[player][position.score(player)];
+        }
+
+        return key;
+    }
+}
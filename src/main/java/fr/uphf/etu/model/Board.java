@@ -1,9 +1,8 @@
 package fr.uphf.etu.model;
 
+import fr.uphf.etu.engine.Position;
 import javafx.scene.paint.Color;
 
-import java.util.stream.Stream;
-
 /**
  * Une classe représentant le plateau du jeu avec les noeuds, les pions et les courbes.
  */
@@ -18,6 +17,11 @@ public class Board {
      */
     private final Curve[] curves;
 
+    /**
+     * Associe à chaque case la courbe dont elle est une extrémité, précalculé pour éviter de parcourir les courbes.
+     */
+    private final Curve[] curveByNode;
+
     /**
      * Constructeur du plateau.
      * Crée les noeuds et les courbes, et place les pions des joueurs.
@@ -49,6 +53,27 @@ public class Board {
         this.curves[5] = new Curve(nodes[5][5], nodes[5][3], nodes[3][5], Color.LIGHTSKYBLUE);
         this.curves[6] = new Curve(nodes[0][5], nodes[0][4], nodes[1][5], Color.LIGHTCORAL);
         this.curves[7] = new Curve(nodes[0][5], nodes[0][3], nodes[2][5], Color.LIGHTSKYBLUE);
+
+        this.curveByNode = new Curve[Position.SQUARES];
+
+        for (Curve curve : this.curves) {
+            this.curveByNode[Position.square(curve.getNodeA().getX(), curve.getNodeA().getY())] = curve;
+            this.curveByNode[Position.square(curve.getNodeB().getX(), curve.getNodeB().getY())] = curve;
+        }
+    }
+
+    /**
+     * Crée un plateau dont les pions sont placés selon une position écrite au format de {@link Position#toNotation()}.
+     * Le joueur qui doit jouer et les scores ne concernent pas le plateau : ils s'appliquent par {@link fr.uphf.etu.controller.GameController#load(Position)}.
+     *
+     * @param notation la notation de la position.
+     * @return le plateau.
+     * @throws IllegalArgumentException si la notation est invalide.
+     */
+    public static Board of(CharSequence notation) {
+        Board board = new Board();
+        board.load(Position.parse(notation));
+        return board;
     }
 
     public Node[][] nodes() {
@@ -87,12 +112,76 @@ public class Board {
         return node(node.getX() + direction.getOffsetX(), node.getY() + direction.getOffsetY());
     }
 
+    /**
+     * Construit la position sans JavaFX correspondant aux pions présents sur le plateau.
+     *
+     * @param sideToMove le joueur qui doit jouer, {@link Player#NONE} étant considéré comme le joueur 1.
+     * @param scoreP1    le score du joueur 1.
+     * @param scoreP2    le score du joueur 2.
+     * @return la position correspondant au plateau.
+     */
+    public Position toPosition(Player sideToMove, int scoreP1, int scoreP2) {
+        long[] pawns = new long[2];
+
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 6; j++) {
+                Player player = nodes[i][j].getPlayer();
+
+                if (player != Player.NONE) {
+                    pawns[player.index()] |= Position.bit(Position.square(i, j));
+                }
+            }
+        }
+
+        int side = sideToMove == Player.NONE ? Position.P1 : sideToMove.index();
+        return new Position(pawns[Position.P1], pawns[Position.P2], side, scoreP1, scoreP2);
+    }
+
+    /**
+     * Replace les pions du plateau selon la position passée en paramètre.
+     * De nouveaux pions sont créés : les éléments graphiques doivent être reconstruits ensuite.
+     *
+     * @param position la position à appliquer.
+     */
+    public void load(Position position) {
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 6; j++) {
+                int player = position.player(Position.square(i, j));
+
+                if (player == Position.NONE) {
+                    nodes[i][j].setPawn(null);
+                } else {
+                    nodes[i][j].setPlayer(Player.fromIndex(player));
+                }
+            }
+        }
+    }
+
     /**
      * Retourne la courbe qui a pour extrémité le noeud passé en paramètre.
      * @param node le noeud.
      * @return la courbe auquelle est associé le noeud, sinon {@code null}.
      */
     public Curve curve(Node node) {
-        return Stream.of(curves).filter(c -> c.getNodeA() == node || c.getNodeB() == node).findFirst().orElse(null);
+        return curveByNode[Position.square(node.getX(), node.getY())];
+    }
+
+    /**
+     * Construit le masque des cases occupées par un pion, sans créer d'objet.
+     *
+     * @return les cases occupées, au format de {@link Position#occupied()}.
+     */
+    public long occupied() {
+        long occupied = 0;
+
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 6; j++) {
+                if (nodes[i][j].getPawn() != null) {
+                    occupied |= Position.bit(Position.square(i, j));
+                }
+            }
+        }
+
+        return occupied;
     }
 }
\ No newline at end of file
@@ -9,6 +9,28 @@ import javafx.scene.shape.Circle;
  * Un noeud peut contenir un pion ou non.
  */
 public class Node extends Circle {
+    /**
+     * Les mises en évidence possibles d'un noeud.
+     */
+    public enum Highlight {
+        /**
+         * Aucune mise en évidence.
+         */
+        NONE,
+        /**
+         * Destination légale d'un déplacement simple du pion sélectionné.
+         */
+        DESTINATION,
+        /**
+         * Pion adverse pouvant être pris par le pion sélectionné.
+         */
+        CAPTURE,
+        /**
+         * Destination du coup conseillé par l'IA.
+         */
+        HINT
+    }
+
     /**
      * La coordonnée x sur le plateau.
      */
@@ -37,6 +59,35 @@ public class Node extends Circle {
         this.y = y;
     }
 
+    /**
+     * Met le noeud en évidence. Un pion occupant le noeud étant plus petit que lui, le contour du noeud reste visible autour du pion à prendre.
+     *
+     * @param highlight la mise en évidence, {@link Highlight#NONE} pour revenir à l'apparence normale.
+     */
+    public void setHighlight(Highlight highlight) {
+        switch (highlight) {
+            case DESTINATION:
+                this.setFill(Color.PALEGREEN);
+                this.setStroke(Color.SEAGREEN);
+                this.setStrokeWidth(2);
+                break;
+            case CAPTURE:
+                this.setFill(Color.WHITESMOKE);
+                this.setStroke(Color.CRIMSON);
+                this.setStrokeWidth(4);
+                break;
+            case HINT:
+                this.setFill(Color.GOLD);
+                this.setStroke(Color.DARKGOLDENROD);
+                this.setStrokeWidth(4);
+                break;
+            default:
+                this.setFill(Color.WHITESMOKE);
+                this.setStroke(Color.GRAY);
+                this.setStrokeWidth(1);
+        }
+    }
+
     public Pawn getPawn() {
         return pawn;
     }
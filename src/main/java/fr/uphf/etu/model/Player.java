@@ -1,5 +1,6 @@
 package fr.uphf.etu.model;
 
+import fr.uphf.etu.engine.Position;
 import javafx.scene.paint.Color;
 
 /**
@@ -55,6 +56,25 @@ public enum Player {
         return Player.values()[index];
     }
 
+    /**
+     * Retourne l'identifiant du joueur utilisé par {@link Position}.
+     *
+     * @return {@link Position#P1} ou {@link Position#P2}, ou {@link Position#NONE} pour {@link Player#NONE}.
+     */
+    public int index() {
+        return ordinal() - 1;
+    }
+
+    /**
+     * Retourne le joueur associé à un identifiant utilisé par {@link Position}.
+     *
+     * @param index l'identifiant du joueur.
+     * @return le joueur, ou {@link Player#NONE} si l'identifiant ne correspond à aucun joueur.
+     */
+    public static Player fromIndex(int index) {
+        return index == Position.P1 ? P1 : index == Position.P2 ? P2 : NONE;
+    }
+
     /**
      * Crée une chaîne de caractères contenant le numéro du joueur et une indication si ce joueur est une IA.
      *
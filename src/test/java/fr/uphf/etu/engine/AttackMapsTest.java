@@ -0,0 +1,87 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class AttackMapsTest {
+    @Test
+    public void testDepart() {
+        long[] targets = new long[2];
+        AttackMaps.compute(Position.start(), targets);
+
+        assertEquals(0, targets[Position.P1] & Position.start().pawns(Position.P2));
+        assertEquals(0, AttackMaps.threats(Position.start(), Position.P2));
+    }
+
+    @Test
+    public void testParcoursIndividuels() {
+        //Les cartes d'attaque sont identiques aux parcours de chaque pion dans chaque direction, sur des positions aléatoires de toutes densités
+        SplittableRandom random = new SplittableRandom(17);
+        long[] targets = new long[2];
+
+        for (int i = 0; i < 20000; i++) {
+            long pawnsP1 = 0;
+            long pawnsP2 = 0;
+            int density = 1 + random.nextInt(12);
+
+            for (int square = 0; square < Position.SQUARES; square++) {
+                int draw = random.nextInt(24);
+
+                if (draw < density) {
+                    pawnsP1 |= Position.bit(square);
+                } else if (draw < 2 * density) {
+                    pawnsP2 |= Position.bit(square);
+                }
+            }
+
+            AttackMaps.compute(pawnsP1, pawnsP2, targets);
+
+            assertEquals(expected(pawnsP1, pawnsP1 | pawnsP2), targets[Position.P1]);
+            assertEquals(expected(pawnsP2, pawnsP1 | pawnsP2), targets[Position.P2]);
+        }
+    }
+
+    @Test
+    public void testPrises() {
+        //Les pions menacés sont exactement les cibles des prises générées
+        SplittableRandom random = new SplittableRandom(18);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Position position = Position.start();
+
+        for (int ply = 0; ply < 200 && position.winner() == Position.NONE; ply++) {
+            long captured = 0;
+            int captures = MoveGenerator.generate(position, MoveGenerator.CAPTURES, moves, 0);
+
+            for (int i = 0; i < captures; i++) {
+                captured |= Position.bit(Move.to(moves[i]));
+            }
+
+            assertEquals(captured, AttackMaps.threats(position, position.getSideToMove()));
+
+            int count = MoveGenerator.generate(position, moves);
+            if (count == 0) break;
+            position = position.play(moves[random.nextInt(count)]);
+        }
+    }
+
+    private static long expected(long pawns, long occupied) {
+        long targets = 0;
+
+        for (; pawns != 0; pawns &= pawns - 1) {
+            int from = Long.numberOfTrailingZeros(pawns);
+
+            for (int direction = 0; direction < 4; direction++) {
+                int entry = Tracks.entry(from, direction);
+
+                if (entry != Tracks.NONE && Tracks.target(occupied, from, entry) != Position.NONE) {
+                    targets |= Position.bit(Tracks.target(occupied, from, entry));
+                }
+            }
+        }
+
+        return targets;
+    }
+}
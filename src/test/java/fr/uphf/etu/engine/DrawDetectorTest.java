@@ -0,0 +1,86 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class DrawDetectorTest {
+    /**
+     * Deux allers-retours ramenant à la position de départ.
+     */
+    private static final String[] SHUFFLE = {"b2-c3", "b5-c4", "c3-b2", "c4-b5"};
+
+    @Test
+    public void testRepetition() {
+        DrawDetector detector = new DrawDetector();
+        Position position = Position.start();
+        detector.reset(position);
+
+        for (int ply = 0; ply < 2 * SHUFFLE.length; ply++) {
+            int move = Move.parse(SHUFFLE[ply % SHUFFLE.length]);
+            position = position.play(move);
+
+            //La position de départ apparaît une deuxième fois au 4e demi-coup, une troisième au 8e
+            assertEquals(ply == 7 ? DrawDetector.REPETITION : DrawDetector.NONE, detector.play(position, false));
+        }
+    }
+
+    @Test
+    public void testSansPrise() {
+        DrawDetector detector = new DrawDetector(0, 10);
+        Position position = Position.start();
+        detector.reset(position);
+
+        for (int ply = 0; ply < 10; ply++) {
+            position = position.play(Move.parse(SHUFFLE[ply % SHUFFLE.length]));
+            assertEquals(ply == 9 ? DrawDetector.NO_CAPTURE : DrawDetector.NONE, detector.play(position, false));
+        }
+
+        assertEquals(10, detector.getPliesWithoutCapture());
+    }
+
+    @Test
+    public void testParties() {
+        //Le détecteur donne le même résultat qu'un décompte sur tout l'historique, avec ou sans limite de demi-coups
+        SplittableRandom random = new SplittableRandom(20);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        for (DrawDetector detector : new DrawDetector[]{new DrawDetector(3, 30), new DrawDetector(2, 0), new DrawDetector(4, 5)}) {
+            for (int game = 0; game < 50; game++) {
+                Position position = Position.start();
+                List<Long> keys = new ArrayList<>();
+                int lastCapture = 0;
+                detector.reset(position);
+                keys.add(position.getKey());
+
+                for (int ply = 1; ply <= 300; ply++) {
+                    int count = MoveGenerator.generate(position, moves);
+                    if (count == 0) break;
+
+                    int move = moves[random.nextInt(count)];
+                    position = position.play(move);
+                    keys.add(position.getKey());
+                    lastCapture = Move.isCapture(move) ? ply : lastCapture;
+
+                    long key = position.getKey();
+                    long repetitions = keys.subList(lastCapture, keys.size()).stream().filter(k -> k == key).count();
+                    int expected = detector.getRepetitions() > 0 && repetitions >= detector.getRepetitions() ? DrawDetector.REPETITION
+                            : detector.getNoCapturePlies() > 0 && ply - lastCapture >= detector.getNoCapturePlies() ? DrawDetector.NO_CAPTURE
+                            : DrawDetector.NONE;
+
+                    assertEquals(expected, detector.play(position, Move.isCapture(move)));
+                    assertEquals(ply - lastCapture, detector.getPliesWithoutCapture());
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReglesInvalides() {
+        new DrawDetector(-1, 100);
+    }
+}
@@ -0,0 +1,49 @@
+package fr.uphf.etu.engine;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EnginesTest {
+    @After
+    public void tearDown() {
+        System.clearProperty("surakarta.ai.engine");
+        System.clearProperty("surakarta.ai.hash");
+        System.clearProperty("surakarta.ai.threads");
+        System.clearProperty("surakarta.ai.weights");
+    }
+
+    @Test
+    public void testMoteur() {
+        System.setProperty("surakarta.ai.hash", "1");
+        System.setProperty("surakarta.ai.threads", "1");
+
+        Engine search = Engines.fromProperties((message, e) -> fail(message));
+        assertTrue(search instanceof ParallelSearch);
+        search.shutdown();
+
+        System.setProperty("surakarta.ai.engine", "mcts");
+        Engine mcts = Engines.fromProperties((message, e) -> fail(message));
+        assertTrue(mcts instanceof Mcts);
+        mcts.shutdown();
+    }
+
+    @Test
+    public void testPoidsIllisibles() {
+        System.setProperty("surakarta.ai.hash", "1");
+        System.setProperty("surakarta.ai.threads", "1");
+        System.setProperty("surakarta.ai.weights", "/inexistant/poids.properties");
+
+        //Le moteur est créé avec les poids par défaut, l'erreur étant transmise
+        List<String> errors = new ArrayList<>();
+        Engine search = Engines.fromProperties((message, e) -> errors.add(message));
+        search.shutdown();
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("/inexistant/poids.properties"));
+    }
+}
@@ -0,0 +1,105 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class EvaluatorTest {
+    @Test
+    public void testIncremental() {
+        //L'évaluation mise à jour coup par coup est identique à celle recalculée entièrement
+        SplittableRandom random = new SplittableRandom(16);
+        Evaluator evaluator = new WeightedEvaluator(EvaluationWeights.DEFAULT);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        for (int game = 0; game < 20; game++) {
+            Position position = Position.start();
+            evaluator.reset(position);
+
+            for (int ply = 0; ply < 150; ply++) {
+                int count = MoveGenerator.generate(position, moves);
+                if (count == 0) break;
+
+                int move = moves[random.nextInt(count)];
+                evaluator.makeMove(position, move);
+                position.makeMove(move);
+
+                Evaluator fresh = evaluator.copy();
+                fresh.reset(position);
+                assertEquals(fresh.evaluate(position), evaluator.evaluate(position));
+            }
+
+            while (position.undoSize() > 0) {
+                evaluator.unmakeMove(position, position.unmakeMove());
+            }
+
+            Evaluator fresh = evaluator.copy();
+            fresh.reset(position);
+            assertEquals(fresh.evaluate(position), evaluator.evaluate(position));
+        }
+    }
+
+    @Test
+    public void testSymetrie() {
+        //Tourner le plateau d'un demi-tour en échangeant les joueurs ne change pas l'évaluation du joueur qui doit jouer
+        SplittableRandom random = new SplittableRandom(17);
+        Evaluator evaluator = new WeightedEvaluator(EvaluationWeights.DEFAULT);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Position position = Position.start();
+
+        for (int ply = 0; ply < 60; ply++) {
+            Position rotated = new Position(rotate(position.pawns(Position.P2)), rotate(position.pawns(Position.P1)),
+                    Position.opponent(position.getSideToMove()), position.score(Position.P2), position.score(Position.P1));
+
+            evaluator.reset(position);
+            int expected = evaluator.evaluate(position);
+            evaluator.reset(rotated);
+            assertEquals(position.toNotation(), expected, evaluator.evaluate(rotated));
+
+            int count = MoveGenerator.generate(position, moves);
+            if (count == 0) break;
+            position = position.play(moves[random.nextInt(count)]);
+        }
+    }
+
+    @Test
+    public void testMateriel() {
+        Evaluator evaluator = new WeightedEvaluator(new EvaluationWeights(100, 0, 0, 0, 0, 0));
+        Position position = new Position(Position.start().pawns(Position.P1), Position.start().pawns(Position.P2), Position.P2, 3, 1);
+        evaluator.reset(position);
+
+        assertEquals(-200, evaluator.evaluate(position));
+    }
+
+    @Test
+    public void testPoids() {
+        Properties properties = new Properties();
+        properties.setProperty("mobility", " 7 ");
+        properties.setProperty("threat", "0");
+
+        EvaluationWeights weights = EvaluationWeights.parse(properties);
+
+        assertEquals(7, weights.getMobility());
+        assertEquals(0, weights.getThreat());
+        assertEquals(EvaluationWeights.DEFAULT.getMaterial(), weights.getMaterial());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPoidsInvalide() {
+        Properties properties = new Properties();
+        properties.setProperty("loop", "beaucoup");
+
+        EvaluationWeights.parse(properties);
+    }
+
+    /**
+     * @param pawns des pions.
+     * @return les mêmes pions sur le plateau tourné d'un demi-tour.
+     */
+    private static long rotate(long pawns) {
+        return Long.reverse(pawns) >>> (Long.SIZE - Position.SQUARES);
+    }
+}
@@ -0,0 +1,101 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class GameHistoryTest {
+    /**
+     * Joue des coups aléatoires en les enregistrant dans l'historique.
+     *
+     * @param history l'historique.
+     * @param plies   le nombre de demi-coups.
+     * @param random  le générateur aléatoire.
+     * @return les positions successives, en commençant par la position actuelle de l'historique.
+     */
+    private static List<Position> play(GameHistory history, int plies, SplittableRandom random) {
+        List<Position> positions = new ArrayList<>();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Position position = history.current();
+        positions.add(position);
+
+        for (int ply = 0; ply < plies; ply++) {
+            int count = MoveGenerator.generate(position, moves);
+
+            if (count == 0) {
+                break;
+            }
+
+            int move = moves[random.nextInt(count)];
+            history.record(move);
+            position = position.play(move);
+            positions.add(position);
+        }
+
+        return positions;
+    }
+
+    @Test
+    public void testAnnulerRetablir() {
+        GameHistory history = new GameHistory(Position.start());
+        List<Position> positions = play(history, 10, new SplittableRandom(1));
+        int last = positions.size() - 1;
+
+        assertEquals(positions.get(last - 1), history.undo());
+        assertEquals(positions.get(last - 2), history.undo());
+        assertTrue(history.canRedo());
+        assertEquals(positions.get(last - 1), history.redo());
+        assertEquals(positions.get(last), history.redo());
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    public void testSaut() {
+        GameHistory history = new GameHistory(Position.start());
+        List<Position> positions = play(history, 200, new SplittableRandom(2));
+
+        for (int ply = positions.size() - 1; ply >= 0; ply -= 7) {
+            assertEquals(positions.get(ply), history.jump(ply));
+            assertEquals(positions.get(ply).getKey(), history.current().getKey());
+        }
+
+        assertEquals(positions.size() - 1, history.size());
+    }
+
+    @Test
+    public void testNouveauCoupApresAnnulation() {
+        GameHistory history = new GameHistory(Position.start());
+        play(history, 10, new SplittableRandom(3));
+
+        history.jump(4);
+        List<Position> positions = play(history, 3, new SplittableRandom(4));
+
+        assertEquals(7, history.size());
+        assertFalse(history.canRedo());
+        assertEquals(positions.get(3), history.position(7));
+    }
+
+    @Test
+    public void testCapaciteBornee() {
+        GameHistory history = new GameHistory(Position.start(), 128);
+        List<Position> positions = play(history, 1000, new SplittableRandom(5));
+        int size = history.size();
+
+        assertTrue(history.first() > 0);
+        assertTrue(size - history.first() <= 128);
+        assertEquals(positions.get(history.first()), history.position(history.first()));
+        assertEquals(positions.get(size), history.position(size));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testHorsHistorique() {
+        GameHistory history = new GameHistory(Position.start(), 128);
+        play(history, 1000, new SplittableRandom(5));
+
+        history.position(0);
+    }
+}
@@ -0,0 +1,126 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class GameRecordTest {
+    /**
+     * Crée une partie aléatoire.
+     *
+     * @param random le générateur aléatoire.
+     * @return la partie.
+     */
+    private static GameRecord randomGame(SplittableRandom random) {
+        Position position = Position.start();
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        int[] moves = new int[random.nextInt(300)];
+        int count = 0;
+
+        while (count < moves.length && position.winner() == Position.NONE) {
+            int generated = MoveGenerator.generate(position, buffer);
+
+            if (generated == 0) {
+                break;
+            }
+
+            moves[count] = buffer[random.nextInt(generated)];
+            position = position.play(moves[count++]);
+        }
+
+        return new GameRecord("alphabeta:100", "Joueur é", random.nextBoolean(), true, position.winner() != Position.NONE ? position.winner() : GameRecord.UNFINISHED, Arrays.copyOf(moves, count));
+    }
+
+    @Test
+    public void testNotation() {
+        GameRecord record = randomGame(new SplittableRandom(1));
+        GameRecord parsed = GameRecord.parse(record.toText());
+
+        assertEquals(record, parsed);
+        assertEquals(record.replay(), parsed.replay());
+    }
+
+    @Test
+    public void testNotationSansEtiquettes() {
+        GameRecord record = GameRecord.parse("1. b2-c3 e5-d4 2. c3-c4 1/2-1/2");
+
+        assertEquals(3, record.size());
+        assertEquals(Move.of(Move.parseSquare("b2"), Move.parseSquare("c3"), false), record.move(0));
+        assertEquals(Position.NONE, record.getResult());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoupIllegal() {
+        GameRecord.parse("b2-b4").replay();
+    }
+
+    @Test
+    public void testArchive() throws IOException {
+        Path path = Files.createTempFile("surakarta", ".skg");
+        SplittableRandom random = new SplittableRandom(2);
+        List<GameRecord> records = new ArrayList<>();
+
+        try {
+            Files.delete(path);
+
+            for (int batch = 0; batch < 2; batch++) { //La seconde ouverture ajoute les parties à la suite
+                try (GameRecordWriter writer = new GameRecordWriter(path)) {
+                    for (int i = 0; i < 100; i++) {
+                        GameRecord record = randomGame(random);
+                        records.add(record);
+                        writer.write(record);
+                    }
+                }
+            }
+
+            try (GameRecordReader reader = new GameRecordReader(path, 100)) { //Petites fenêtres : les parties chevauchent plusieurs fenêtres, voire les dépassent
+                for (GameRecord record : records) {
+                    assertTrue(reader.hasNext());
+                    assertEquals(record, reader.next());
+                }
+
+                assertFalse(reader.hasNext());
+            }
+
+            try (GameRecordReader reader = new GameRecordReader(path)) {
+                assertEquals(records.size(), reader.skipAll());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testArchiveTronquee() throws IOException {
+        Path path = Files.createTempFile("surakarta", ".skg");
+
+        try {
+            Files.delete(path);
+
+            try (GameRecordWriter writer = new GameRecordWriter(path)) {
+                writer.write(randomGame(new SplittableRandom(3)));
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 1);
+            }
+
+            try (GameRecordReader reader = new GameRecordReader(path)) {
+                reader.next();
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MctsTest {
+    @Test
+    public void testPriseGagnante() {
+        //Le joueur 1 a 11 points et peut prendre le dernier pion du joueur 2 par la piste rouge
+        long pawnsP1 = Position.bit(Position.square(0, 1));
+        long pawnsP2 = Position.bit(Position.square(4, 5));
+        Position position = new Position(pawnsP1, pawnsP2, Position.P1, 11, 11);
+
+        Mcts mcts = new Mcts(10_000, 1);
+        SearchResult result = mcts.search(position, SearchLimits.time(200));
+
+        assertEquals(Move.of(Position.square(0, 1), Position.square(4, 5), true), result.getBestMove());
+        assertTrue(result.getScore() > 0);
+    }
+
+    @Test
+    public void testPlusieursFils() {
+        Mcts mcts = new Mcts(100_000, 3);
+        SearchResult result = mcts.search(Position.start(), SearchLimits.time(300));
+        mcts.shutdown();
+
+        assertTrue(MoveGenerator.isLegal(Position.start(), result.getBestMove()));
+        assertTrue(result.getNodes() > 0);
+        assertTrue(mcts.size() <= 100_000);
+    }
+
+    @Test
+    public void testArbrePlein() {
+        Mcts mcts = new Mcts(100, 2);
+        SearchResult result = mcts.search(Position.start(), SearchLimits.time(100));
+        mcts.shutdown();
+
+        assertTrue(MoveGenerator.isLegal(Position.start(), result.getBestMove()));
+    }
+
+    @Test
+    public void testCapacite() {
+        assertEquals(1024 * 1024 / Mcts.NODE_SIZE, Mcts.capacity(1));
+        assertEquals(2048L * 1024 * 1024 / Mcts.NODE_SIZE, Mcts.capacity(2048));
+        assertEquals(Integer.MAX_VALUE - 8, Mcts.capacity(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPositionIntacte() {
+        //Les simulations jouent et annulent les coups sur une copie de la racine
+        Position position = Position.start();
+        Mcts mcts = new Mcts(100_000, 2);
+        SearchResult result = mcts.search(position, SearchLimits.nodes(5_000));
+        mcts.shutdown();
+
+        assertEquals(Position.START, position.toNotation());
+        assertEquals(0, position.undoSize());
+        assertTrue(result.getNodes() <= 5_000);
+    }
+
+    @Test
+    public void testAnticipationTerminee() {
+        //Un ponderhit arrivant après la fin de sa recherche d'anticipation n'écourte pas la suivante
+        Mcts mcts = new Mcts(100_000, 1);
+        SearchLimits limits = new SearchLimits(SearchLimits.MAX_DEPTH, 0, 1_000, true);
+        mcts.search(Position.start(), limits);
+        mcts.ponderhit(limits, 1);
+
+        assertEquals(5_000, mcts.search(Position.start(), new SearchLimits(SearchLimits.MAX_DEPTH, 0, 5_000, true)).getNodes());
+    }
+
+    @Test
+    public void testVariations() {
+        Mcts mcts = new Mcts(100_000, 1);
+        List<List<SearchResult>> updates = new ArrayList<>();
+        mcts.setMultiPv(2);
+        mcts.setListener((lines, hashfull) -> updates.add(lines));
+        SearchResult result = mcts.search(Position.start(), SearchLimits.time(300));
+
+        assertTrue(updates.size() >= 2); //Au moins une notification intermédiaire, puis la notification finale
+        List<SearchResult> last = updates.get(updates.size() - 1);
+        assertEquals(2, last.size());
+        assertEquals(result.getBestMove(), last.get(0).getBestMove());
+        assertNotEquals(last.get(0).getBestMove(), last.get(1).getBestMove());
+    }
+}
@@ -0,0 +1,61 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MoveGeneratorTest {
+    @Test
+    public void testDepart() {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        assertEquals(16, MoveGenerator.generate(Position.start(), moves));
+        assertEquals(0, MoveGenerator.generate(Position.start(), MoveGenerator.CAPTURES, moves, 0));
+    }
+
+    @Test
+    public void testPrise() {
+        //Un pion du joueur 1 en (0, 1) et un pion du joueur 2 en (4, 5), atteignable par la piste rouge dans les deux sens
+        Position position = new Position(Position.bit(Position.square(0, 1)), Position.bit(Position.square(4, 5)), Position.P1, 0, 0);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        assertEquals(1, MoveGenerator.generate(position, MoveGenerator.CAPTURES, moves, 0));
+        assertEquals(Move.of(Position.square(0, 1), Position.square(4, 5), true), moves[0]);
+
+        Position next = position.play(moves[0]);
+        assertEquals(0, next.count(Position.P2));
+        assertEquals(1, next.score(Position.P1));
+        assertEquals(Position.P2, next.getSideToMove());
+    }
+
+    @Test
+    public void testModes() {
+        Random random = new Random(42);
+        int[] all = new int[MoveGenerator.MAX_MOVES];
+        int[] split = new int[2 * MoveGenerator.MAX_MOVES];
+        Position position = Position.start();
+
+        for (int ply = 0; ply < 200; ply++) {
+            int count = MoveGenerator.generate(position, all);
+
+            if (count == 0) {
+                break;
+            }
+
+            //Les prises puis les déplacements simples forment l'ensemble des coups
+            int captures = MoveGenerator.generate(position, MoveGenerator.CAPTURES, split, 0);
+            int end = MoveGenerator.generate(position, MoveGenerator.QUIETS, split, captures);
+            assertEquals(count, end);
+
+            for (int i = 0; i < count; i++) {
+                assertEquals(all[i], split[i]);
+                assertEquals(i < captures, Move.isCapture(all[i]));
+                assertTrue(MoveGenerator.isLegal(position, all[i]));
+            }
+
+            position = position.play(all[random.nextInt(count)]);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class OpeningBookTest {
+    @Test
+    public void testResultats() throws IOException {
+        int first = Move.parse("b2-c3");
+        int second = Move.parse("a2-b3");
+        OpeningBookBuilder builder = new OpeningBookBuilder(1, 1);
+        builder.add(new GameRecord("A", "B", true, true, Position.P1, new int[]{first}));
+        builder.add(new GameRecord("A", "B", true, true, Position.NONE, new int[]{first}));
+        builder.add(new GameRecord("A", "B", true, true, Position.P2, new int[]{second}));
+        builder.add(new GameRecord("A", "B", true, true, GameRecord.UNFINISHED, new int[]{second}));
+
+        OpeningBook book = this.write(builder);
+        List<OpeningBook.Entry> entries = book.probe(Position.start());
+
+        assertEquals(2, entries.size());
+        assertEquals(3, builder.getGames());
+
+        for (OpeningBook.Entry entry : entries) {
+            if (entry.getMove() == first) {
+                assertEquals(3, entry.getWeight());
+                assertEquals(500, entry.getScore());
+            } else {
+                assertEquals(second, entry.getMove());
+                assertEquals(0, entry.getWeight());
+                assertEquals(-1000, entry.getScore());
+            }
+        }
+
+        //Le coup n'ayant mené qu'à une défaite n'est jamais choisi
+        SplittableRandom random = new SplittableRandom(19);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first, book.choose(Position.start(), random));
+        }
+
+        assertEquals(Move.NONE, book.choose(Position.start().play(first), random));
+    }
+
+    @Test
+    public void testRecherche() throws IOException {
+        //Chaque coup des parties est retrouvé dans sa position, parmi de nombreuses entrées
+        SplittableRandom random = new SplittableRandom(20);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[][] games = new int[200][8];
+        OpeningBookBuilder builder = new OpeningBookBuilder(8, 1);
+
+        for (int[] game : games) {
+            Position position = Position.start();
+
+            for (int ply = 0; ply < game.length; ply++) {
+                int count = MoveGenerator.generate(position, moves);
+                game[ply] = moves[random.nextInt(count)];
+                position = position.play(game[ply]);
+            }
+
+            builder.add(new GameRecord("A", "B", true, true, Position.P1, game));
+        }
+
+        OpeningBook book = this.write(builder);
+        assertEquals(8, book.getPlies());
+
+        for (int[] game : games) {
+            Position position = Position.start();
+
+            for (int move : game) {
+                assertTrue(book.probe(position).stream().anyMatch(entry -> entry.getMove() == move));
+                position = position.play(move);
+            }
+
+            assertTrue(book.probe(position).isEmpty());
+        }
+    }
+
+    @Test
+    public void testMinimumParties() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(2, 2);
+        builder.add(new GameRecord("A", "B", true, true, Position.P1, new int[]{Move.parse("b2-c3"), Move.parse("b5-c4")}));
+        builder.add(new GameRecord("A", "B", true, true, Position.P1, new int[]{Move.parse("b2-c3"), Move.parse("e5-d4")}));
+
+        OpeningBook book = this.write(builder);
+
+        assertEquals(1, book.size());
+        assertEquals(1, book.probe(Position.start()).size());
+    }
+
+    /**
+     * Écrit un livre dans un fichier temporaire, puis l'ouvre.
+     *
+     * @param builder le livre à écrire.
+     * @return le livre ouvert.
+     * @throws IOException si le livre ne peut pas être écrit.
+     */
+    private OpeningBook write(OpeningBookBuilder builder) throws IOException {
+        Path path = Files.createTempFile("surakarta", ".skob");
+
+        try {
+            builder.write(path);
+            return OpeningBook.open(path);
+        } finally {
+            path.toFile().deleteOnExit(); //La projection peut empêcher la suppression immédiate sous Windows
+        }
+    }
+}
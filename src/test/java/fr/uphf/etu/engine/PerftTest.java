@@ -0,0 +1,55 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class PerftTest {
+    /**
+     * Le nombre de feuilles au-delà duquel une profondeur n'est pas vérifiée, pour garder des tests rapides.
+     */
+    private static final long MAX_NODES = 5_000_000;
+
+    @Test
+    public void testReferences() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream("/perft.txt"), StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+
+                String[] fields = line.split(";");
+                Position position = position(fields[0].trim());
+
+                for (int depth = 1; depth < fields.length; depth++) {
+                    long expected = Long.parseLong(fields[depth].trim());
+
+                    if (expected <= MAX_NODES) {
+                        assertEquals(line + " (profondeur " + depth + ")", expected, Perft.perft(position, depth));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDivide() {
+        long total = 0;
+
+        for (Map.Entry<Integer, Long> entry : Perft.divide(Position.start(), 3).entrySet()) {
+            total += entry.getValue();
+        }
+
+        assertEquals(Perft.perft(Position.start(), 3), total);
+    }
+
+    private static Position position(String description) {
+        return description.equals("startpos") ? Position.start() : Position.parse(description);
+    }
+}
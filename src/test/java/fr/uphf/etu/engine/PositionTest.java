@@ -0,0 +1,145 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class PositionTest {
+    @Test
+    public void testDepart() {
+        Position position = Position.start();
+
+        for (int x = 0; x < 6; x++) {
+            assertEquals(Position.P1, position.player(Position.square(x, 0)));
+            assertEquals(Position.P1, position.player(Position.square(x, 1)));
+            assertEquals(Position.NONE, position.player(Position.square(x, 2)));
+            assertEquals(Position.NONE, position.player(Position.square(x, 3)));
+            assertEquals(Position.P2, position.player(Position.square(x, 4)));
+            assertEquals(Position.P2, position.player(Position.square(x, 5)));
+        }
+
+        assertEquals(12, position.count(Position.P1));
+        assertEquals(12, position.count(Position.P2));
+        assertEquals(Position.P1, position.getSideToMove());
+        assertEquals(Position.NONE, position.winner());
+    }
+
+    @Test
+    public void testCoordonnees() {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            assertEquals(square, Position.square(Position.x(square), Position.y(square)));
+        }
+    }
+
+    @Test
+    public void testCopie() {
+        Position position = Position.start();
+        Position copy = position.copy();
+
+        assertEquals(position, copy);
+        assertEquals(position.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    public void testGagnant() {
+        assertEquals(Position.P2, new Position(0, 1, Position.P1, 11, 12).winner());
+    }
+
+    @Test
+    public void testJouerAnnuler() {
+        //Parcourt des parties aléatoires en jouant sur place, puis annule tous les coups
+        SplittableRandom random = new SplittableRandom(12);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        for (int game = 0; game < 50; game++) {
+            Position position = Position.start();
+            List<Position> expected = new ArrayList<>();
+
+            for (int ply = 0; ply < 300 && position.winner() == Position.NONE; ply++) {
+                int count = MoveGenerator.generate(position, moves);
+
+                if (count == 0) {
+                    break;
+                }
+
+                int move = moves[random.nextInt(count)];
+                Position played = position.play(move);
+
+                expected.add(position.copy());
+                position.makeMove(move);
+
+                assertEquals(played, position);
+                assertEquals(played.getKey(), position.getKey());
+            }
+
+            assertEquals(expected.size(), position.undoSize());
+
+            for (int i = expected.size() - 1; i >= 0; i--) {
+                position.unmakeMove();
+
+                assertEquals(expected.get(i), position);
+                assertEquals(expected.get(i).getKey(), position.getKey());
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAnnulerSansCoup() {
+        Position.start().unmakeMove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChevauchement() {
+        new Position(1, 1, Position.P1, 0, 0);
+    }
+
+    @Test
+    public void testNotation() {
+        assertEquals(Position.START, Position.start().toNotation());
+        assertEquals(Position.start(), Position.parse(Position.START));
+
+        //Aller-retour sur des positions de parties aléatoires
+        SplittableRandom random = new SplittableRandom(15);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Position position = Position.start();
+
+        for (int ply = 0; ply < 200 && position.winner() == Position.NONE; ply++) {
+            assertEquals(position, Position.parse(position.toNotation()));
+
+            int count = MoveGenerator.generate(position, moves);
+            if (count == 0) break;
+            position = position.play(moves[random.nextInt(count)]);
+        }
+
+        String line = "  1oo2o/oo4/o1o1x1/1xx3/x5/xxx1xx 2 5 3 ; 21";
+        Position parsed = Position.parse(line, 0, line.indexOf(';'));
+
+        assertEquals(Position.P2, parsed.getSideToMove());
+        assertEquals(5, parsed.score(Position.P1));
+        assertEquals(Position.P1, parsed.player(Position.square(0, 0)));
+        assertEquals(Position.P2, parsed.player(Position.square(1, 5)));
+    }
+
+    @Test
+    public void testNotationInvalide() {
+        String[] invalid = {
+                "", "oooooo/oooooo/6/6/xxxxxx 1 0 0", "oooooo/oooooo/6/6/xxxxxx/xxxxxxx 1 0 0", "oooooo/oooooo/6/6/xxxxxx/xxxxx 1 0 0",
+                "oooooo/oooooo/7/6/xxxxxx/xxxxxx 1 0 0", "oooooo/oooooo/6/6/xxxxxx/xxxxxy 1 0 0", "oooooo/oooooo/6/6/xxxxxx/xxxxxx 3 0 0",
+                "oooooo/oooooo/6/6/xxxxxx/xxxxxx 1 0", "oooooo/oooooo/6/6/xxxxxx/xxxxxx 1 0 13", "oooooo/oooooo/6/6/xxxxxx/xxxxxx 1 0 0 0",
+                "oooooo/oooooo/6/6/xxxxxx/xxxxxx 1 a 0"
+        };
+
+        for (String notation : invalid) {
+            try {
+                Position.parse(notation);
+                fail(notation);
+            } catch (IllegalArgumentException e) {
+                //Attendu
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package fr.uphf.etu.engine;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ProtocolTest {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private final ParallelSearch engine = new ParallelSearch(new TranspositionTable(1), 1);
+
+    private final Protocol protocol = new Protocol(engine, new PrintStream(output, true, StandardCharsets.UTF_8));
+
+    @After
+    public void tearDown() {
+        protocol.execute("quit");
+        engine.shutdown();
+    }
+
+    @Test
+    public void testRecherche() {
+        protocol.execute("uci");
+        protocol.execute("position startpos moves b2-c3");
+        protocol.execute("go depth 3");
+        protocol.await();
+
+        List<String> lines = this.lines();
+        assertTrue(lines.contains("uciok"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("info depth 3 multipv 1 score cp ")));
+
+        //Le coup choisi est joué par le joueur 2, après le coup du joueur 1
+        String best = lines.get(lines.size() - 1).split(" ")[1];
+        assertTrue(MoveGenerator.isLegal(Position.start().play(Move.parse("b2-c3")), Move.parse(best)));
+    }
+
+    @Test
+    public void testAnalyseInfinie() throws InterruptedException {
+        protocol.execute("position fen " + Position.START);
+        protocol.execute("go infinite");
+        Thread.sleep(100);
+        protocol.execute("isready");
+
+        //Le coup n'est écrit qu'après l'arrêt
+        assertTrue(this.lines().contains("readyok"));
+        assertTrue(this.lines().stream().noneMatch(line -> line.startsWith("bestmove")));
+
+        protocol.execute("stop");
+        protocol.await();
+        assertTrue(this.lines().get(this.lines().size() - 1).startsWith("bestmove "));
+    }
+
+    @Test
+    public void testPonderhit() throws InterruptedException {
+        protocol.execute("go ponder movetime 50");
+        Thread.sleep(100);
+        assertTrue(this.lines().stream().noneMatch(line -> line.startsWith("bestmove")));
+
+        protocol.execute("ponderhit");
+        protocol.await();
+        assertTrue(this.lines().get(this.lines().size() - 1).startsWith("bestmove "));
+    }
+
+    @Test
+    public void testAnticipationTerminee() throws InterruptedException {
+        //L'anticipation atteint sa profondeur avant stop : la suivante n'est pas écourtée par l'arrêt transmis au moteur
+        protocol.execute("go ponder depth 2");
+        Thread.sleep(200);
+        protocol.execute("stop");
+        protocol.await();
+        protocol.execute("go ponder depth 5");
+        protocol.execute("ponderhit");
+        protocol.await();
+
+        assertTrue(this.lines().stream().anyMatch(line -> line.startsWith("info depth 5 ")));
+    }
+
+    @Test
+    public void testCommandesInvalides() {
+        protocol.execute("position startpos moves b2-b5");
+        protocol.execute("go depth x");
+        protocol.execute("bonjour");
+
+        assertEquals(3, this.lines().stream().filter(line -> line.startsWith("info string ")).count());
+    }
+
+    @Test
+    public void testScore() {
+        assertEquals("cp -150", Protocol.formatScore(-150));
+        assertEquals("mate 1", Protocol.formatScore(Search.WIN - 1));
+        assertEquals("mate -2", Protocol.formatScore(-Search.WIN + 4));
+    }
+
+    /**
+     * @return les lignes écrites par le protocole.
+     */
+    private List<String> lines() {
+        return Arrays.stream(output.toString(StandardCharsets.UTF_8).split("\n")).map(String::trim).collect(Collectors.toList());
+    }
+}
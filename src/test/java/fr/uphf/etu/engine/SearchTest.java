@@ -0,0 +1,145 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SearchTest {
+    @Test
+    public void testPriseGagnante() {
+        //Le joueur 1 a 11 points et peut prendre le dernier pion du joueur 2 par la piste rouge
+        long pawnsP1 = Position.bit(Position.square(0, 1));
+        long pawnsP2 = Position.bit(Position.square(4, 5));
+        Position position = new Position(pawnsP1, pawnsP2, Position.P1, 11, 11);
+
+        SearchResult result = new Search(new TranspositionTable(1)).search(position, SearchLimits.depth(4));
+
+        assertEquals(Move.of(Position.square(0, 1), Position.square(4, 5), true), result.getBestMove());
+        assertEquals(Search.WIN - 1, result.getScore());
+    }
+
+    @Test
+    public void testProfondeur() {
+        SearchResult result = new Search(new TranspositionTable(1)).search(Position.start(), SearchLimits.depth(3));
+
+        assertEquals(3, result.getDepth());
+        assertTrue(MoveGenerator.isLegal(Position.start(), result.getBestMove()));
+    }
+
+    @Test
+    public void testTemps() {
+        long start = System.currentTimeMillis();
+        SearchResult result = new Search(new TranspositionTable(1)).search(Position.start(), SearchLimits.time(100));
+
+        assertNotEquals(Move.NONE, result.getBestMove());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    public void testNoeuds() {
+        //Le nombre de noeuds n'est vérifié que tous les 1024 noeuds, après la première profondeur
+        SearchResult result = new Search(new TranspositionTable(1)).search(Position.start(), SearchLimits.nodes(20_000));
+
+        assertNotEquals(Move.NONE, result.getBestMove());
+        assertTrue(result.getNodes() <= 20_000 + 1024);
+    }
+
+    @Test
+    public void testUnSeulFil() {
+        SearchResult expected = new Search(new TranspositionTable(1)).search(Position.start(), SearchLimits.depth(6));
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 1);
+        SearchResult result = search.search(Position.start(), SearchLimits.depth(6));
+
+        assertEquals(expected.getBestMove(), result.getBestMove());
+        assertEquals(expected.getScore(), result.getScore());
+        assertEquals(expected.getNodes(), result.getNodes());
+    }
+
+    @Test
+    public void testPlusieursFils() {
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 3);
+        SearchResult result = search.search(Position.start(), SearchLimits.depth(6));
+        search.shutdown();
+
+        assertEquals(6, result.getDepth());
+        assertTrue(MoveGenerator.isLegal(Position.start(), result.getBestMove()));
+        assertEquals(3, search.getThreadNodes().length);
+    }
+
+    @Test
+    public void testAnticipation() throws Exception {
+        //La recherche d'anticipation n'a pas de limite de temps avant le ponderhit, reçu depuis un autre fil pendant la recherche
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 2);
+        SearchLimits limits = SearchLimits.ponder(SearchLimits.MAX_DEPTH);
+        Thread opponent = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            search.ponderhit(limits, 100);
+        });
+
+        long start = System.currentTimeMillis();
+        opponent.start();
+        SearchResult result = search.search(Position.start(), limits);
+        opponent.join();
+        search.shutdown();
+
+        assertTrue(System.currentTimeMillis() - start >= 300);
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(MoveGenerator.isLegal(Position.start(), result.getBestMove()));
+    }
+
+    @Test
+    public void testAnticipationAvantRecherche() {
+        //Un ponderhit reçu avant le début de la recherche d'anticipation s'applique à elle, mais plus aux recherches suivantes
+        Search search = new Search(new TranspositionTable(1));
+        SearchLimits limits = SearchLimits.ponder(SearchLimits.MAX_DEPTH);
+        search.ponderhit(limits, 1);
+        long start = System.currentTimeMillis();
+        search.search(Position.start(), limits);
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        search.search(Position.start(), SearchLimits.depth(2));
+        assertEquals(4, search.search(Position.start(), new SearchLimits(4, 0, true)).getDepth());
+    }
+
+    @Test
+    public void testAnticipationTerminee() {
+        //Un ponderhit arrivant après la fin de sa recherche d'anticipation n'écourte pas la suivante
+        Search search = new Search(new TranspositionTable(1));
+        SearchLimits limits = SearchLimits.ponder(4);
+        search.search(Position.start(), limits);
+        search.ponderhit(limits, 1);
+
+        assertEquals(7, search.search(Position.start(), SearchLimits.ponder(7)).getDepth());
+    }
+
+    @Test
+    public void testPlusieursVariations() {
+        //Chaque profondeur notifie trois variations aux premiers coups distincts, la première étant le résultat retourné
+        Search search = new Search(new TranspositionTable(1));
+        List<List<SearchResult>> updates = new ArrayList<>();
+        search.setMultiPv(3);
+        search.setListener((lines, hashfull) -> updates.add(lines));
+        SearchResult result = search.search(Position.start(), SearchLimits.depth(4));
+
+        assertEquals(4, updates.size());
+
+        for (int depth = 1; depth <= 4; depth++) {
+            List<SearchResult> lines = updates.get(depth - 1);
+            assertEquals(3, lines.size());
+            assertEquals(3, lines.stream().mapToInt(SearchResult::getBestMove).distinct().count());
+            assertTrue(lines.stream().allMatch(line -> MoveGenerator.isLegal(Position.start(), line.getBestMove())));
+            assertEquals(depth, lines.get(0).getDepth());
+        }
+
+        assertEquals(updates.get(3).get(0).getBestMove(), result.getBestMove());
+        assertEquals(updates.get(3).get(0).getScore(), result.getScore());
+    }
+}
@@ -0,0 +1,137 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TablebaseTest {
+    @Test
+    public void testIndex() {
+        //Chaque indice d'une classe correspond à une position distincte, qui redonne cet indice
+        long[] pawns = new long[2];
+
+        for (long index = 0; index < TablebaseIndex.size(2, 1); index++) {
+            TablebaseIndex.pawns(index, 2, 1, pawns);
+
+            assertEquals(2, Long.bitCount(pawns[Position.P1]));
+            assertEquals(1, Long.bitCount(pawns[Position.P2]));
+            assertEquals(0, pawns[Position.P1] & pawns[Position.P2]);
+            assertEquals(index, TablebaseIndex.index(pawns[Position.P1], pawns[Position.P2], (int) (index & 1)));
+        }
+
+        SplittableRandom random = new SplittableRandom(18);
+
+        for (int i = 0; i < 10000; i++) {
+            int a = 1 + random.nextInt(12);
+            int b = 1 + random.nextInt(12);
+            long index = random.nextLong(TablebaseIndex.size(a, b));
+            TablebaseIndex.pawns(index, a, b, pawns);
+
+            assertEquals(index, TablebaseIndex.index(pawns[Position.P1], pawns[Position.P2], (int) (index & 1)));
+        }
+    }
+
+    @Test
+    public void testGeneration() throws IOException {
+        Path directory = Files.createTempDirectory("surakarta-tablebase");
+
+        try {
+            TablebaseGenerator generator = new TablebaseGenerator(directory, 2);
+            List<TablebaseGenerator.Statistics> statistics = generator.generate(3);
+            generator.shutdown();
+
+            //Une statistique par classe de matériel, sans rien écrire sur la sortie standard
+            assertEquals(3, statistics.size());
+            assertEquals(TablebaseIndex.size(1, 1), statistics.get(0).getPositions());
+
+            Tablebase tablebase = Tablebase.open(directory);
+            assertEquals(3, tablebase.getMaxPawns());
+
+            //Le code de chaque position découle de ceux des positions atteintes par ses coups
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            long[] pawns = new long[2];
+            int wins = 0;
+            Position winInThree = null;
+
+            for (int[] material : new int[][]{{1, 1}, {2, 1}, {1, 2}}) {
+                for (long index = 0; index < TablebaseIndex.size(material[0], material[1]); index++) {
+                    TablebaseIndex.pawns(index, material[0], material[1], pawns);
+                    Position position = new Position(pawns[Position.P1], pawns[Position.P2], (int) (index & 1),
+                            Position.WINNING_SCORE - material[1], Position.WINNING_SCORE - material[0]);
+                    int code = tablebase.probe(position);
+
+                    assertEquals(position.toNotation(), expected(tablebase, position, moves), code);
+                    wins += code & 1;
+
+                    if (code == 3 && winInThree == null) {
+                        winInThree = position;
+                    }
+                }
+            }
+
+            assertTrue(wins > 0);
+            assertNotNull(winInThree);
+
+            //La recherche trouve la même distance sans la table, et joue directement son coup avec
+            Search search = new Search(new TranspositionTable(1));
+            assertEquals(Search.WIN - 3, search.search(winInThree, SearchLimits.depth(5)).getScore());
+
+            search.setTablebase(tablebase);
+            SearchResult result = search.search(winInThree, SearchLimits.depth(5));
+            assertEquals(Search.WIN - 3, result.getScore());
+            assertEquals(tablebase.bestMove(winInThree), result.getBestMove());
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testScore() {
+        assertEquals(Search.WIN - 1, Tablebase.score(1, 0));
+        assertEquals(-Search.WIN + 5, Tablebase.score(2, 3));
+        assertEquals(0, Tablebase.score(Tablebase.DRAW, 4));
+    }
+
+    /**
+     * Calcule le code d'une position à partir des codes des positions atteintes par ses coups.
+     *
+     * @param tablebase la table de finales.
+     * @param position  la position.
+     * @param moves     un tableau de travail recevant les coups.
+     * @return le code attendu.
+     */
+    private static int expected(Tablebase tablebase, Position position, int[] moves) {
+        int count = MoveGenerator.generate(position, moves);
+        int fastestWin = Integer.MAX_VALUE;
+        int slowestLoss = 0;
+        boolean draw = count == 0;
+
+        for (int i = 0; i < count; i++) {
+            Position child = position.play(moves[i]);
+            int code = child.winner() != Position.NONE ? 0 : tablebase.probe(child); //Une partie gagnée est une défaite en 0 pour l'adversaire
+
+            if (child.winner() == Position.NONE && code == Tablebase.DRAW) {
+                draw = true;
+            } else if ((code & 1) == 0) {
+                fastestWin = Math.min(fastestWin, code + 1);
+            } else {
+                slowestLoss = Math.max(slowestLoss, code + 1);
+            }
+        }
+
+        return fastestWin != Integer.MAX_VALUE ? fastestWin : draw ? Tablebase.DRAW : slowestLoss;
+    }
+}
@@ -0,0 +1,42 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+    @Test
+    public void testElo() {
+        assertEquals(0, Tournament.elo(0.5), 1e-9);
+        assertEquals(-Tournament.elo(0.75), Tournament.elo(0.25), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, Tournament.elo(1), 0);
+
+        double[] elo = Tournament.elo(60, 20, 20);
+        assertTrue(elo[0] < elo[1] && elo[1] < elo[2]);
+        assertTrue(elo[1] > 0);
+    }
+
+    @Test
+    public void testTournoi() {
+        Tournament tournament = new Tournament(List.of(Entrant.parse("alphabeta:d1"), Entrant.parse("alphabeta:d2"), Entrant.parse("mcts:20")), 2, 2, 0);
+        tournament.run();
+
+        int results = 0;
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                results += tournament.getWins(i, j) + (i < j ? tournament.getDraws(i, j) : 0);
+            }
+        }
+
+        assertEquals(6, tournament.getGames());
+        assertEquals(tournament.getGames(), results);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParticipantInvalide() {
+        Entrant.parse("minimax:100");
+    }
+}
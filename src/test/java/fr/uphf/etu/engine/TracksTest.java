@@ -0,0 +1,51 @@
+package fr.uphf.etu.engine;
+
+import fr.uphf.etu.model.Direction;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TracksTest {
+    @Test
+    public void testCircuits() {
+        for (int circuit = Tracks.RED; circuit <= Tracks.BLUE; circuit++) {
+            int line = circuit == Tracks.RED ? 1 : 2;
+
+            for (int square = 0; square < Position.SQUARES; square++) {
+                int x = Position.x(square);
+                int y = Position.y(square);
+                boolean onTrack = x == line || x == 5 - line || y == line || y == 5 - line;
+
+                assertEquals(onTrack, (Tracks.mask(circuit) & Position.bit(square)) != 0);
+            }
+        }
+    }
+
+    @Test
+    public void testEntrees() {
+        //Les coins ne sont sur aucune piste
+        for (int direction = 0; direction < 4; direction++) {
+            assertEquals(Tracks.NONE, Tracks.entry(Position.square(0, 0), direction));
+        }
+
+        //Une case sur une ligne rouge et une colonne bleue possède quatre entrées
+        for (int direction = 0; direction < 4; direction++) {
+            assertNotEquals(Tracks.NONE, Tracks.entry(Position.square(2, 1), direction));
+        }
+    }
+
+    @Test
+    public void testPrise() {
+        int origin = Position.square(0, 1);
+        int target = Position.square(4, 5);
+        long occupied = Position.bit(origin) | Position.bit(target);
+
+        //Vers l'Est comme vers l'Ouest, la cible est atteinte après au moins une courbe
+        assertEquals(target, Tracks.target(occupied, origin, Tracks.entry(origin, Tracks.cardinal(Direction.EAST))));
+        assertEquals(target, Tracks.target(occupied, origin, Tracks.entry(origin, Tracks.cardinal(Direction.WEST))));
+
+        //Sans courbe, pas de prise
+        int neighbour = Position.square(3, 1);
+        assertEquals(Position.NONE, Tracks.target(occupied | Position.bit(neighbour), origin, Tracks.entry(origin, Tracks.cardinal(Direction.EAST))));
+    }
+}
@@ -0,0 +1,96 @@
+package fr.uphf.etu.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+    @Test
+    public void testEmpreinteIncrementale() {
+        Random random = new Random(7);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Position position = Position.start();
+
+        for (int ply = 0; ply < 500; ply++) {
+            assertEquals(Zobrist.key(position), position.getKey());
+
+            int count = MoveGenerator.generate(position, moves);
+
+            if (count == 0) {
+                break;
+            }
+
+            position = position.play(moves[random.nextInt(count)]);
+        }
+    }
+
+    @Test
+    public void testMemorisation() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = Position.start().getKey();
+        int move = Move.of(1, 7, false);
+
+        assertEquals(0, table.probe(key));
+
+        table.store(key, move, -150, 5, TranspositionTable.LOWER, 0);
+        long data = table.probe(key);
+
+        assertEquals(move, TranspositionTable.move(data));
+        assertEquals(-150, TranspositionTable.score(data, 0));
+        assertEquals(5, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+        assertEquals(0, table.probe(key + 1));
+    }
+
+    @Test
+    public void testRemplissage() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.hashfull());
+
+        for (int key = 0; key < 500; key++) {
+            table.store(key, Move.NONE, 0, 1, TranspositionTable.EXACT, 0);
+        }
+
+        assertEquals(500, table.hashfull());
+
+        table.newSearch(); //Les entrées d'une recherche précédente ne comptent plus
+        assertEquals(0, table.hashfull());
+    }
+
+    @Test
+    public void testTaille() {
+        //Les grandes mémoires sont bornées à la taille maximale d'un tableau, sans dépassement
+        assertEquals(1 << 16, TranspositionTable.entries(1));
+        assertEquals(1 << 29, TranspositionTable.entries(8192));
+        assertEquals(TranspositionTable.MAX_ENTRIES, TranspositionTable.entries(16384));
+        assertEquals(TranspositionTable.MAX_ENTRIES, TranspositionTable.entries(Integer.MAX_VALUE));
+        assertEquals(1 << 16, TranspositionTable.entries(-5));
+    }
+
+    @Test
+    public void testProfondeurPrivilegiee() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42;
+        long other = key + table.size(); //Même entrée, empreinte différente
+
+        table.store(key, Move.NONE, 10, 6, TranspositionTable.EXACT, 0);
+        table.store(other, Move.NONE, 20, 2, TranspositionTable.EXACT, 0);
+        assertEquals(6, TranspositionTable.depth(table.probe(key)));
+
+        table.newSearch(); //Les entrées d'une recherche précédente sont remplaçables
+        table.store(other, Move.NONE, 20, 2, TranspositionTable.EXACT, 0);
+        assertEquals(0, table.probe(key));
+        assertEquals(20, TranspositionTable.score(table.probe(other), 0));
+    }
+
+    @Test
+    public void testVictoire() {
+        TranspositionTable table = new TranspositionTable(1);
+
+        //Une victoire en 5 demi-coups depuis la racine, mémorisée à 2 demi-coups de la racine, puis retrouvée à 4 demi-coups
+        table.store(1, Move.NONE, Search.WIN - 5, 3, TranspositionTable.EXACT, 2);
+        assertEquals(Search.WIN - 7, TranspositionTable.score(table.probe(1), 4));
+    }
+}